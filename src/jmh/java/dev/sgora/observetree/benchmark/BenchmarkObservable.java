@@ -0,0 +1,32 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree.benchmark;
+
+import dev.sgora.observetree.Observable;
+
+/**
+ * Minimal {@code Observable} used by the benchmarks, exposing the tree building methods
+ *
+ * @author Stanisław Góra
+ */
+public class BenchmarkObservable extends Observable {
+
+	public void change() {
+		onValueChanged();
+	}
+
+	@Override
+	public void addSubObservable(Observable observable) {
+		super.addSubObservable(observable);
+	}
+
+	@Override
+	public void removeSubObservable(Observable observable) {
+		super.removeSubObservable(observable);
+	}
+}
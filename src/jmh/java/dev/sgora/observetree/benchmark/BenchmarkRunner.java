@@ -0,0 +1,37 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler attached and saves the results as JSON, so that they can be compared between releases.
+ * Accepts the standard JMH command line options, e.g. a benchmark name pattern or {@code -p size=256}.
+ *
+ * @author Stanisław Góra
+ */
+public final class BenchmarkRunner {
+
+	private BenchmarkRunner() {
+	}
+
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+		OptionsBuilder options = new OptionsBuilder();
+		options.parent(new CommandLineOptions(args));
+		options.addProfiler(GCProfiler.class)
+				.resultFormat(ResultFormatType.JSON)
+				.result(System.getProperty("jmh.result", "target/jmh-result.json"));
+		new Runner(options.build()).run();
+	}
+}
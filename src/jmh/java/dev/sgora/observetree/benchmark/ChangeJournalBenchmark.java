@@ -0,0 +1,103 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree.benchmark;
+
+import dev.sgora.observetree.ChangeJournal;
+import dev.sgora.observetree.IntProperty;
+import dev.sgora.observetree.TreeSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a {@link ChangeJournal} checkpoint of a few changed properties compared to a {@link TreeSnapshot} of the whole tree written to a file
+ *
+ * @author Stanisław Góra
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChangeJournalBenchmark {
+
+	@Param({"65536"})
+	public int size;
+
+	@Param({"16"})
+	public int changes;
+
+	private final TreeSnapshot snapshot = new TreeSnapshot().registerNode(BenchmarkObservable.class, BenchmarkObservable::new);
+	private BenchmarkObservable root;
+	private IntProperty[] properties;
+	private Path directory;
+	private ChangeJournal journal;
+	private int round;
+
+	@Setup
+	public void setUp() throws IOException {
+		root = new BenchmarkObservable();
+		properties = new IntProperty[size];
+		for (int i = 0; i < size; i++) {
+			BenchmarkObservable group = new BenchmarkObservable();
+			root.addSubObservable(group);
+			properties[i] = new IntProperty(i);
+			group.addSubObservable(properties[i]);
+		}
+		directory = Files.createTempDirectory("journal-benchmark");
+		journal = new ChangeJournal(directory.resolve("tree.journal"), snapshot);
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		journal.close();
+		try (var files = Files.list(directory)) {
+			for (Path file : (Iterable<Path>) files::iterator)
+				Files.delete(file);
+		}
+		Files.delete(directory);
+	}
+
+	@Benchmark
+	public int journalCheckpoint() throws IOException {
+		change();
+		int written = journal.checkpoint(root);
+		root.notifyListeners();
+		if(journal.getSize() > 64 * 1024 * 1024)
+			journal.clear();
+		return written;
+	}
+
+	@Benchmark
+	public void snapshotCheckpoint() throws IOException {
+		change();
+		snapshot.write(root, directory.resolve("tree.snapshot"));
+		root.notifyListeners();
+	}
+
+	private void change() {
+		round++;
+		for (int i = 0; i < changes; i++)
+			properties[Math.floorMod(round * 7919 + i * 4099, size)].set(round);
+	}
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree.benchmark;
+
+import dev.sgora.observetree.FrozenObservable;
+import dev.sgora.observetree.IntProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a {@link FrozenObservable} snapshot of a balanced tree of properties taken after a few of them were changed, which should not depend on the tree size
+ *
+ * @author Stanisław Góra
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FrozenObservableBenchmark {
+	private static final int FAN_OUT = 16;
+
+	@Param({"256", "65536"})
+	public int size;
+
+	@Param({"1", "16"})
+	public int changes;
+
+	private BenchmarkObservable root;
+	private IntProperty[] properties;
+	private int round;
+
+	@Setup
+	public void setUp() {
+		properties = new IntProperty[size];
+		List<BenchmarkObservable> layer = new ArrayList<>();
+		for (int i = 0; i < size; i += FAN_OUT) {
+			BenchmarkObservable group = new BenchmarkObservable();
+			for (int j = i; j < Math.min(i + FAN_OUT, size); j++) {
+				properties[j] = new IntProperty(j);
+				group.addSubObservable(properties[j]);
+			}
+			layer.add(group);
+		}
+		while(layer.size() > 1) {
+			List<BenchmarkObservable> parents = new ArrayList<>();
+			for (int i = 0; i < layer.size(); i += FAN_OUT) {
+				BenchmarkObservable parent = new BenchmarkObservable();
+				for (BenchmarkObservable child : layer.subList(i, Math.min(i + FAN_OUT, layer.size())))
+					parent.addSubObservable(child);
+				parents.add(parent);
+			}
+			layer = parents;
+		}
+		root = layer.get(0);
+		FrozenObservable.of(root);
+	}
+
+	@Benchmark
+	public FrozenObservable freezeAfterChanges() {
+		round++;
+		for (int i = 0; i < changes; i++)
+			properties[Math.floorMod(round * 7919 + i * 4099, size)].set(round);
+		return FrozenObservable.of(root);
+	}
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree.benchmark;
+
+import dev.sgora.observetree.listener.ChangeListener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of adding and removing a listener on an {@code Observable} that already has a number of listeners
+ *
+ * @author Stanisław Góra
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ListenerChurnBenchmark {
+
+	@Param({"0", "8", "64", "1024"})
+	public int registeredListeners;
+
+	private BenchmarkObservable observable;
+	private final ChangeListener listener = () -> {};
+
+	@Setup
+	public void setUp() {
+		observable = new BenchmarkObservable();
+		for (int i = 0; i < registeredListeners; i++)
+			observable.addListener(() -> {}, i % 3 - 1);
+	}
+
+	@Benchmark
+	public boolean addAndRemove() {
+		observable.addListener(listener);
+		return observable.removeListener(listener);
+	}
+
+	/**
+	 * Adds and removes a listener and reads the listeners in between, as a notification would
+	 */
+	@Benchmark
+	public void addNotifyAndRemove() {
+		observable.addListener(listener);
+		observable.change();
+		observable.notifyListeners();
+		observable.removeListener(listener);
+	}
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@code notifyListeners()} depending on the tree size and the number of listeners on each node
+ *
+ * @author Stanisław Góra
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NotificationBenchmark {
+
+	@Param({"DEEP", "WIDE", "DIAMOND"})
+	public TreeShape shape;
+	@Param({"16", "256", "4096"})
+	public int size;
+	@Param({"0", "1", "4"})
+	public int listenersPerNode;
+
+	private TreeShape.Tree tree;
+	private BenchmarkObservable leaf;
+
+	@Setup
+	public void setUp(Blackhole blackhole) {
+		tree = shape.build(size);
+		leaf = tree.leaves.get(tree.leaves.size() - 1);
+		for (BenchmarkObservable node : tree.nodes) {
+			for (int i = 0; i < listenersPerNode; i++)
+				node.addListener(() -> blackhole.consume(node), i);
+		}
+	}
+
+	/**
+	 * Notifies the listeners of a single changed leaf and its ancestors
+	 */
+	@Benchmark
+	public void notifySingleChange() {
+		leaf.change();
+		tree.root.notifyListeners();
+	}
+
+	/**
+	 * Notifies the listeners of all the leaves and their ancestors at once
+	 */
+	@Benchmark
+	public void notifyAllLeaves() {
+		for (BenchmarkObservable node : tree.leaves)
+			node.change();
+		tree.root.notifyListeners();
+	}
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree.benchmark;
+
+import dev.sgora.observetree.ObservableList;
+import dev.sgora.observetree.SettableProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of appending a row to a large table and notifying a listener interested in the change,
+ * kept in an {@link ObservableList} or replaced as a whole in a {@link SettableProperty}
+ *
+ * @author Stanisław Góra
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ObservableListBenchmark {
+
+	@Param({"1000", "100000"})
+	private int size;
+
+	private ObservableList<Integer> list;
+	private SettableProperty<List<Integer>> property;
+	private int received;
+
+	@Setup
+	public void setUp() {
+		List<Integer> rows = new ArrayList<>(size);
+		for (int i = 0; i < size; i++)
+			rows.add(i);
+		list = new ObservableList<>(rows);
+		list.addListListener(changes -> received += changes.size());
+		property = new SettableProperty<>(new ArrayList<>(rows));
+		property.addListener(() -> received += property.get().size());
+	}
+
+	@Benchmark
+	public int listAppend() {
+		list.add(size);
+		list.remove(list.size() - 1);
+		list.notifyListeners();
+		return received;
+	}
+
+	@Benchmark
+	public int propertyReplace() {
+		List<Integer> rows = new ArrayList<>(property.get());
+		rows.add(size);
+		property.set(rows);
+		rows = new ArrayList<>(rows);
+		rows.remove(rows.size() - 1);
+		property.set(rows);
+		property.notifyListeners();
+		return received;
+	}
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of marking the tree as changed with {@code onValueChanged()} from its leaves
+ *
+ * @author Stanisław Góra
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PropagationBenchmark {
+
+	@Param({"DEEP", "WIDE", "DIAMOND"})
+	public TreeShape shape;
+	@Param({"16", "256", "4096"})
+	public int size;
+
+	private TreeShape.Tree tree;
+	private BenchmarkObservable leaf;
+
+	@Setup
+	public void setUp() {
+		tree = shape.build(size);
+		leaf = tree.leaves.get(tree.leaves.size() - 1);
+	}
+
+	/**
+	 * Marks a leaf of an unmarked tree, the change is propagated up to the root
+	 */
+	@Benchmark
+	public void firstChange() {
+		leaf.change();
+		tree.root.setUnchanged(true);
+	}
+
+	/**
+	 * Marks a leaf of an already marked tree, the propagation stops at its parent
+	 */
+	@Benchmark
+	public void repeatedChange() {
+		leaf.change();
+	}
+
+	/**
+	 * Marks all the leaves of an unmarked tree
+	 */
+	@Benchmark
+	public void changeAllLeaves() {
+		for (BenchmarkObservable node : tree.leaves)
+			node.change();
+		tree.root.setUnchanged(true);
+	}
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree.benchmark;
+
+import dev.sgora.observetree.SettableObservable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link SettableObservable#set(dev.sgora.observetree.Observable)}, which moves the static listeners
+ * and the parents of the {@code SettableObservable} from the old value to the new one
+ *
+ * @author Stanisław Góra
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SettableObservableBenchmark {
+
+	@Param({"1", "8"})
+	public int parents;
+	@Param({"0", "1", "8"})
+	public int staticListeners;
+	@Param({"1", "64"})
+	public int valueSize;
+
+	private SettableObservable<BenchmarkObservable> settable;
+	private BenchmarkObservable first;
+	private BenchmarkObservable second;
+	private boolean flip;
+
+	@Setup
+	public void setUp() {
+		first = TreeShape.WIDE.build(valueSize).root;
+		second = TreeShape.WIDE.build(valueSize).root;
+		settable = new SettableObservable<>(first);
+		for (int i = 0; i < parents; i++)
+			new BenchmarkObservable().addSubObservable(settable);
+		for (int i = 0; i < staticListeners; i++)
+			settable.addStaticListener(() -> {});
+	}
+
+	@Benchmark
+	public void set() {
+		flip = !flip;
+		settable.set(flip ? second : first);
+	}
+}
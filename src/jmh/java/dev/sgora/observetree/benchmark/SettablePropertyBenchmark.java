@@ -0,0 +1,67 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree.benchmark;
+
+import dev.sgora.observetree.SettableProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link SettableProperty#set(Object)} for changed and unchanged values
+ *
+ * @author Stanisław Góra
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SettablePropertyBenchmark {
+
+	private static final Integer FIRST = 1000;
+	private static final Integer SECOND = 2000;
+
+	private SettableProperty<Integer> property;
+	private BenchmarkObservable parent;
+	private boolean flip;
+
+	@Setup
+	public void setUp() {
+		property = new SettableProperty<>(FIRST);
+		parent = new BenchmarkObservable();
+		parent.addSubObservable(property);
+	}
+
+	@Benchmark
+	public void setChanged() {
+		flip = !flip;
+		property.set(flip ? SECOND : FIRST);
+	}
+
+	@Benchmark
+	public void setEqual() {
+		property.set(FIRST);
+	}
+
+	@Benchmark
+	public void setAndNotify() {
+		flip = !flip;
+		property.setAndNotify(flip ? SECOND : FIRST);
+	}
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree.benchmark;
+
+import dev.sgora.observetree.IntProperty;
+import dev.sgora.observetree.Observable;
+import dev.sgora.observetree.SettableProperty;
+import dev.sgora.observetree.TreeSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.channels.Channels;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the {@link TreeSnapshot} of a tree of properties compared to the Java serialization of an equivalent payload.
+ * The {@code Observable} relations are not serializable, so the serialized payload holds the properties of every group in a nested array,
+ * which records the same structure as the snapshot.
+ *
+ * @author Stanisław Góra
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnapshotBenchmark {
+
+	@Param({"1024", "65536"})
+	public int size;
+
+	private final TreeSnapshot snapshot = new TreeSnapshot().registerNode(BenchmarkObservable.class, BenchmarkObservable::new);
+	private BenchmarkObservable root;
+	private Observable[][] groups;
+	private byte[] snapshotBytes;
+	private byte[] serializedBytes;
+
+	@Setup
+	public void setUp() throws IOException {
+		root = new BenchmarkObservable();
+		groups = new Observable[size][];
+		for (int i = 0; i < size; i++) {
+			BenchmarkObservable group = new BenchmarkObservable();
+			root.addSubObservable(group);
+			Observable property = i % 2 == 0 ? new IntProperty(i) : new SettableProperty<>("value " + i);
+			group.addSubObservable(property);
+			groups[i] = new Observable[] {property};
+		}
+		snapshotBytes = writeSnapshot().toByteArray();
+		serializedBytes = serialize().toByteArray();
+		System.out.printf("%nsnapshot: %d bytes, serialized: %d bytes%n", snapshotBytes.length, serializedBytes.length);
+	}
+
+	@Benchmark
+	public ByteArrayOutputStream snapshotWrite() throws IOException {
+		return writeSnapshot();
+	}
+
+	@Benchmark
+	public Observable snapshotRead() throws IOException {
+		return snapshot.read(Channels.newChannel(new ByteArrayInputStream(snapshotBytes)));
+	}
+
+	@Benchmark
+	public ByteArrayOutputStream serializationWrite() throws IOException {
+		return serialize();
+	}
+
+	@Benchmark
+	public Object serializationRead() throws IOException, ClassNotFoundException {
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serializedBytes))) {
+			return in.readObject();
+		}
+	}
+
+	private ByteArrayOutputStream writeSnapshot() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		snapshot.write(root, Channels.newChannel(bytes));
+		return bytes;
+	}
+
+	private ByteArrayOutputStream serialize() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(groups);
+		}
+		return bytes;
+	}
+}
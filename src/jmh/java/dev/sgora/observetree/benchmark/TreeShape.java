@@ -0,0 +1,91 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shapes of the {@code Observable} trees used as the benchmark parameters
+ *
+ * @author Stanisław Góra
+ */
+public enum TreeShape {
+	/**
+	 * A single chain of {@code Observables}, the only leaf being the deepest node
+	 */
+	DEEP {
+		@Override
+		Tree build(int size) {
+			Tree tree = new Tree();
+			BenchmarkObservable node = tree.root;
+			for (int i = 1; i < size; i++)
+				node = tree.child(node);
+			tree.leaves.add(node);
+			return tree;
+		}
+	},
+	/**
+	 * A root with all the other {@code Observables} as its direct children
+	 */
+	WIDE {
+		@Override
+		Tree build(int size) {
+			Tree tree = new Tree();
+			for (int i = 1; i < size; i++)
+				tree.leaves.add(tree.child(tree.root));
+			return tree;
+		}
+	},
+	/**
+	 * Layers of two {@code Observables}, each of them being a child of both {@code Observables} from the layer above
+	 */
+	DIAMOND {
+		@Override
+		Tree build(int size) {
+			Tree tree = new Tree();
+			List<BenchmarkObservable> layer = List.of(tree.root);
+			for (int built = 1; built < size; built += 2) {
+				BenchmarkObservable left = new BenchmarkObservable();
+				BenchmarkObservable right = new BenchmarkObservable();
+				for (BenchmarkObservable parent : layer) {
+					parent.addSubObservable(left);
+					parent.addSubObservable(right);
+				}
+				tree.nodes.add(left);
+				tree.nodes.add(right);
+				layer = List.of(left, right);
+			}
+			tree.leaves.addAll(layer);
+			return tree;
+		}
+	};
+
+	/**
+	 * Builds a new tree
+	 * @param size number of the {@code Observables} in the tree
+	 * @return the built tree
+	 */
+	abstract Tree build(int size);
+
+	/**
+	 * Built tree of {@code Observables}
+	 */
+	static final class Tree {
+		final BenchmarkObservable root = new BenchmarkObservable();
+		final List<BenchmarkObservable> nodes = new ArrayList<>(List.of(root));
+		final List<BenchmarkObservable> leaves = new ArrayList<>();
+
+		private BenchmarkObservable child(BenchmarkObservable parent) {
+			BenchmarkObservable child = new BenchmarkObservable();
+			parent.addSubObservable(child);
+			nodes.add(child);
+			return child;
+		}
+	}
+}
@@ -0,0 +1,297 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree;
+
+import dev.sgora.observetree.enums.ListenerNotification;
+import dev.sgora.observetree.listener.ChangeListener;
+import dev.sgora.observetree.listener.ListenerEntry;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Internal dispatcher of the {@link ListenerNotification#ASYNC} notifications.
+ *
+ * <p>
+ * Every tree has its own {@link TreeQueue} and its notifications are processed one at a time, in the order they were made,
+ * so that a slow listener only delays the following notifications of its own tree.
+ * Within a notification the listeners are invoked level by level - all the listeners with the same priority run concurrently on the {@link Executor}
+ * and the next level is started once the previous one completes. This way no {@code ChangeListener} ever runs concurrently with itself.
+ * The levels are started from a loop by the thread completing the previous one, so an executor running the tasks on the calling thread does not nest the calls.
+ *
+ * <p>
+ * At most {@value #MAX_PENDING} notifications wait in the queue of a tree. A thread making more of them waits until the listeners catch up,
+ * unless it is itself invoking an asynchronous listener, which could otherwise wait for itself.
+ *
+ * @author Stanisław Góra
+ * @see Observable#setAsyncExecutor(Executor)
+ */
+final class AsyncDispatcher {
+
+	static final int MAX_PENDING = 1024;
+
+	private static volatile Executor executor;
+	private static final Object lock = new Object();
+	/**
+	 * Marks the threads invoking an asynchronous listener, which never wait for a full queue
+	 */
+	private static final ThreadLocal<Boolean> invoking = ThreadLocal.withInitial(() -> false);
+
+	private AsyncDispatcher() {
+	}
+
+	static void setExecutor(Executor executor) {
+		AsyncDispatcher.executor = executor;
+	}
+
+	static Executor getExecutor() {
+		Executor current = executor;
+		if(current == null) {
+			synchronized (lock) {
+				if(executor == null)
+					executor = createDefaultExecutor();
+				current = executor;
+			}
+		}
+		return current;
+	}
+
+	/**
+	 * Schedules the invocation of the listeners after the notifications of the tree made before
+	 * @param queue queue of the notified tree
+	 * @param entries listeners sorted in a descending order of their priority
+	 * @param listeners listeners to be called for the {@code entries}, with the {@link ListenerInvoker ListenerInvokers} already bound
+	 */
+	static void submit(TreeQueue queue, ListenerEntry[] entries, ChangeListener[] listeners) {
+		if(entries.length == 0)
+			return;
+		Notification notification = queue.add(new Notification(entries, listeners));
+		if(notification != null)
+			run(notification, 0);
+	}
+
+	/**
+	 * Starts the levels of the notifications of a queue until one of them is left to be completed by the executor or the queue is empty
+	 * @param notification notification to be started
+	 * @param levelStart position of the first listener of the level to be started
+	 */
+	private static void run(Notification notification, int levelStart) {
+		while(notification != null) {
+			if(!notification.startLevel(levelStart))
+				return;
+			levelStart = notification.levelEnd;
+			if(levelStart == notification.entries.length) {
+				notification = notification.queue.completed();
+				levelStart = 0;
+			}
+		}
+	}
+
+	/**
+	 * Creates an executor starting a new virtual thread for each task if they are supported by the runtime,
+	 * otherwise a cached pool of daemon threads
+	 */
+	private static Executor createDefaultExecutor() {
+		try {
+			return (ExecutorService) MethodHandles.publicLookup()
+					.findStatic(Executors.class, "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class)).invoke();
+		} catch (Throwable e) {
+			return Executors.newCachedThreadPool(runnable -> {
+				Thread thread = new Thread(runnable, "observetree-async");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+	}
+
+	/**
+	 * Queue of the notifications of a single tree, held by its {@link TreeEpoch} or the lock of a {@link ConcurrentObservable} tree.
+	 * When two trees are linked their queues are merged into a new one, which starts once both of them complete the notifications they hold.
+	 */
+	static final class TreeQueue {
+		private final Queue<Notification> pending = new ArrayDeque<>();
+		private boolean running;
+		/**
+		 * Number of the queues merged into this one that still run their notifications
+		 */
+		private int awaited;
+		/**
+		 * Queue this one was merged into, receiving its new notifications
+		 */
+		private TreeQueue merged;
+
+		/**
+		 * Merges the queues of two trees being linked
+		 * @param first queue of one of the trees, {@code null} if it has none
+		 * @param second queue of the other tree, {@code null} if it has none
+		 * @return the queue of the linked tree
+		 */
+		static TreeQueue merge(TreeQueue first, TreeQueue second) {
+			if(first == null || first == second)
+				return second;
+			if(second == null)
+				return first;
+			TreeQueue queue = new TreeQueue();
+			first.mergeInto(queue);
+			second.mergeInto(queue);
+			return queue;
+		}
+
+		private synchronized void mergeInto(TreeQueue queue) {
+			merged = queue;
+			if(running || awaited > 0) {
+				synchronized (queue) {
+					queue.awaited++;
+				}
+			}
+			// the threads waiting for this queue add to the merged one instead
+			notifyAll();
+		}
+
+		/**
+		 * Adds the notification to the queue, waiting while it is full
+		 * @return the notification to be started by the caller, {@code null} if it is left to the one running now
+		 */
+		private Notification add(Notification notification) {
+			TreeQueue queue = this;
+			while(true) {
+				synchronized (queue) {
+					if(queue.merged != null) {
+						queue = queue.merged;
+						continue;
+					}
+					if(!queue.running && queue.awaited == 0) {
+						queue.running = true;
+						notification.queue = queue;
+						return notification;
+					}
+					if(queue.pending.size() < MAX_PENDING || invoking.get()) {
+						notification.queue = queue;
+						queue.pending.add(notification);
+						return null;
+					}
+					try {
+						queue.wait();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						notification.queue = queue;
+						queue.pending.add(notification);
+						return null;
+					}
+				}
+			}
+		}
+
+		/**
+		 * Takes the next notification once the previous one completed
+		 * @return the notification to be started, {@code null} if the queue is empty
+		 */
+		private Notification completed() {
+			TreeQueue target;
+			synchronized (this) {
+				Notification next = pending.poll();
+				if(next != null) {
+					notifyAll();
+					return next;
+				}
+				running = false;
+				target = merged;
+			}
+			return target != null ? target.released() : null;
+		}
+
+		/**
+		 * Called once a queue merged into this one has completed its notifications
+		 * @return the notification to be started, {@code null} if it is not the turn of this queue yet or it has none
+		 */
+		private Notification released() {
+			TreeQueue target;
+			synchronized (this) {
+				if(--awaited > 0 || running)
+					return null;
+				if(!pending.isEmpty()) {
+					running = true;
+					notifyAll();
+					return pending.poll();
+				}
+				target = merged;
+			}
+			return target != null ? target.released() : null;
+		}
+	}
+
+	private static final class Notification {
+		private final ListenerEntry[] entries;
+		private final ChangeListener[] listeners;
+		/**
+		 * Number of the listeners of the current level still running, plus one held by the thread starting it
+		 */
+		private final AtomicInteger remaining = new AtomicInteger();
+		private TreeQueue queue;
+		private int levelEnd;
+
+		Notification(ListenerEntry[] entries, ChangeListener[] listeners) {
+			this.entries = entries;
+			this.listeners = listeners;
+		}
+
+		/**
+		 * @return {@code true} if the level has already completed, {@code false} if it is left to the last of its listeners
+		 */
+		private boolean startLevel(int levelStart) {
+			int end = levelStart + 1;
+			while(end < entries.length && entries[end].priority == entries[levelStart].priority)
+				end++;
+			levelEnd = end;
+			remaining.set(end - levelStart + 1);
+			Executor levelExecutor = getExecutor();
+			for (int i = levelStart; i < end; i++) {
+				int position = i;
+				try {
+					levelExecutor.execute(() -> call(position));
+				} catch (RejectedExecutionException e) {
+					call(position);
+				}
+			}
+			return remaining.decrementAndGet() == 0;
+		}
+
+		private void call(int position) {
+			boolean nested = invoking.get();
+			invoking.set(true);
+			try {
+				if(SlowListenerEvent.isTypeEnabled())
+					SlowListenerEvent.call(entries[position], listeners[position]);
+				else
+					listeners[position].call();
+			} catch (RuntimeException | Error e) {
+				Thread thread = Thread.currentThread();
+				thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+			} finally {
+				invoking.set(nested);
+			}
+			if(remaining.decrementAndGet() == 0)
+				levelCompleted();
+		}
+
+		private void levelCompleted() {
+			if(levelEnd < entries.length)
+				run(this, levelEnd);
+			else
+				run(queue.completed(), 0);
+		}
+	}
+
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree;
+
+import java.io.Serializable;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A primitive specialization of the {@link SettableProperty} holding an unboxed {@code boolean} {@link #modelValue} and notifying it's listeners when it is set.
+ * {@code ==} operator is used to determine if {@link #modelValue} was changed.
+ * It supports {@link #defaultValue} for the {@link #modelValue} that can be set and reset to.
+ *
+ * @author Stanisław Góra
+ * @see SettableProperty
+ */
+public class BooleanProperty extends Observable implements BooleanSupplier, Serializable {
+
+	/**
+	 * Current value of the encapsulated {@code boolean}
+	 */
+	protected boolean modelValue;
+	/**
+	 * Default value of the encapsulated {@code boolean}
+	 */
+	protected boolean defaultValue;
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Constructs a new {@code BooleanProperty} with {@code false} {@link #modelValue}
+	 */
+	public BooleanProperty() {
+	}
+
+	/**
+	 * Constructs a new {@code BooleanProperty} with the specified {@link #modelValue}
+	 * @param modelValue a value to be set
+	 */
+	public BooleanProperty(boolean modelValue) {
+		this.modelValue = modelValue;
+	}
+
+	/**
+	 * Returns the current {@link #modelValue} of this {@code BooleanProperty}
+	 * @return the current {@link #modelValue}
+	 */
+	@Override
+	public boolean getAsBoolean() {
+		onValueRead();
+		return modelValue;
+	}
+
+	/**
+	 * Sets the {@link #modelValue} of this {@code BooleanProperty}
+	 * @param modelValue value to be set
+	 */
+	public void set(boolean modelValue) {
+		if(this.modelValue == modelValue)
+			return;
+		this.modelValue = modelValue;
+		onValueChanged();
+	}
+
+	/**
+	 * Sets the {@link #modelValue} and calls {@link #notifyListeners()}
+	 * @param modelValue value to be set
+	 */
+	public void setAndNotify(boolean modelValue) {
+		set(modelValue);
+		notifyListeners();
+	}
+
+	/**
+	 * Negates the {@link #modelValue} of this {@code BooleanProperty}
+	 */
+	public void toggle() {
+		set(!modelValue);
+	}
+
+	/**
+	 * Sets the {@link #modelValue} of this {@code BooleanProperty} to the {@link #defaultValue}
+	 */
+	public void resetToDefaultValue() {
+		set(defaultValue);
+	}
+
+	/**
+	 * Returns the {@link #defaultValue} of this {@code BooleanProperty}
+	 * @return the {@link #defaultValue} of this object
+	 */
+	public boolean getDefaultValue() {
+		return defaultValue;
+	}
+
+	/**
+	 * Sets the {@link #defaultValue} of this {@code BooleanProperty}
+	 * @param defaultValue  value to be set
+	 */
+	public void setDefaultValue(boolean defaultValue) {
+		this.defaultValue = defaultValue;
+	}
+
+	/**
+	 * Sets the {@link #defaultValue} of this {@code BooleanProperty} to be equal to the current {@link #modelValue}
+	 */
+	public void saveAsDefaultValue() {
+		setDefaultValue(modelValue);
+	}
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree;
+
+import dev.sgora.observetree.enums.ListenerNotification;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Suspends the notifications made on the current thread until the outermost batch is closed.
+ * While a batch is open, both the notifications requested by the {@link ListenerNotification notification method} and the explicit
+ * {@link Observable#notifyListeners()} calls are deferred. Closing the outermost batch notifies the listeners of all the {@code Observables}
+ * that are still marked as changed with a single dispatch, so that every listener is called once and sees the complete state.
+ * The listeners of the {@link ListenerNotification#ASYNC} {@code Observables} are dispatched separately, on the async executor.
+ *
+ * <p>
+ * Batches can be nested and have to be closed on the thread that opened them:
+ * <pre>{@code
+ * try (ChangeBatch batch = ChangeBatch.open()) {
+ *     model.x.set(1);
+ *     model.y.set(2);
+ * }
+ * }</pre>
+ *
+ * @author Stanisław Góra
+ * @see Observable#batch(Runnable)
+ */
+public final class ChangeBatch implements AutoCloseable {
+
+	private static final ThreadLocal<State> threadState = new ThreadLocal<>();
+	/**
+	 * Number of threads with an open batch, allows skipping the thread local lookup when there are none
+	 */
+	private static final AtomicInteger batchingThreads = new AtomicInteger();
+
+	private final State state;
+	private boolean closed;
+
+	private ChangeBatch(State state) {
+		this.state = state;
+	}
+
+	/**
+	 * Opens a new batch on the current thread
+	 * @return batch to be closed when the changes are complete
+	 */
+	public static ChangeBatch open() {
+		State state = threadState.get();
+		if(state == null) {
+			state = new State();
+			threadState.set(state);
+			batchingThreads.incrementAndGet();
+		}
+		state.depth++;
+		return new ChangeBatch(state);
+	}
+
+	/**
+	 * Closes the batch. If it is the outermost one, the listeners of all the changed {@code Observables} are notified.
+	 * Closing an already closed batch has no effect.
+	 * @throws IllegalStateException if called on a different thread than the one that opened the batch
+	 */
+	@Override
+	public void close() {
+		if(closed)
+			return;
+		if(threadState.get() != state)
+			throw new IllegalStateException("ChangeBatch has to be closed on the thread that opened it");
+		closed = true;
+		if(--state.depth > 0)
+			return;
+		threadState.remove();
+		batchingThreads.decrementAndGet();
+		state.pending.flush();
+	}
+
+	/**
+	 * Defers the notification of the {@code Observable} if there is a batch open on the current thread
+	 * @param observable changed element
+	 * @return {@code true} if the notification was deferred
+	 */
+	static boolean defer(Observable observable) {
+		if(batchingThreads.get() == 0)
+			return false;
+		State state = threadState.get();
+		if(state == null)
+			return false;
+		state.pending.add(observable);
+		return true;
+	}
+
+	private static final class State {
+		private final PendingNotifications pending = new PendingNotifications();
+		private int depth;
+	}
+
+}
@@ -0,0 +1,548 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of the changed property values of an {@code Observable} tree, kept in a memory-mapped file.
+ * Together with a {@link TreeSnapshot} of the tree it makes a checkpoint whose cost grows with the number of changes, not with the size of the tree.
+ *
+ * <p>
+ * Each {@link #checkpoint(Observable)} appends the values of the properties marked as changed, found by following the changed flags down from the root,
+ * so it has to be called before the listeners are notified, which resets the flags. The whole {@code modelValue} of a changed {@link SettableObservable} is written,
+ * as a model built elsewhere and set into it may carry no changed flags of its own. The properties are identified by their position in the depth first
+ * pre-order of the tree, which stays the same for a tree restored from a {@code TreeSnapshot} or built again by the same code.
+ * A change of the tree structure invalidates these positions - the journal should then be {@link #clear() cleared} after taking a new {@code TreeSnapshot}.
+ * To detect it, every batch records a fingerprint of the structure - the classes and the numbers of children of the {@code Observables} in pre-order.
+ * The values are written with the {@link ValueCodec ValueCodecs} of a {@code TreeSnapshot}, the same properties as in its snapshots are supported.
+ *
+ * <p>
+ * Every checkpoint is appended as a single batch with a checksum, so a batch torn by a crash is dropped when the journal is opened again.
+ * {@link #replay(Observable)} applies all the batches to a tree in order and {@link #compact()} rewrites the journal keeping only the latest value of every property.
+ * A {@code ChangeJournal} is not thread safe.
+ *
+ * @author Stanisław Góra
+ * @see TreeSnapshot
+ */
+public final class ChangeJournal implements Closeable {
+
+	private static final int MAGIC = 0x4F424A4C;
+	private static final byte FORMAT_VERSION = 2;
+	private static final int GENERATION_OFFSET = Integer.BYTES + Byte.BYTES;
+	/**
+	 * Offset of the batch holding the registered types, which follows the magic number, format version and generation
+	 */
+	private static final int TYPES_OFFSET = GENERATION_OFFSET + Integer.BYTES;
+	/**
+	 * Size of the batch header - the payload length and checksum
+	 */
+	private static final int BATCH_HEADER = 2 * Integer.BYTES;
+	private static final int INITIAL_CAPACITY = 1 << 20;
+
+	private final Path file;
+	private final TreeSnapshot snapshot;
+	private final SnapshotOutput output = new SnapshotOutput(new MappedWriter());
+	private final CRC32 crc = new CRC32();
+
+	private FileChannel channel;
+	private MappedByteBuffer mapped;
+	private int writePosition;
+	/**
+	 * Generation of the journal, incremented by {@link #clear()} so that the checksums of the batches written before no longer match
+	 */
+	private int generation;
+	private int firstBatch;
+	private int end;
+	private int batches;
+	/**
+	 * Number of the properties in the tree the batches were written for, {@code -1} if there are none
+	 */
+	private int propertyCount = -1;
+	/**
+	 * Structure fingerprint of the tree the batches were written for
+	 */
+	private long structure;
+	private Supplier<? extends Observable>[] factories;
+	private ValueCodec<?>[] codecs;
+
+	private Observable indexedRoot;
+	private long indexedVersion;
+	private Map<Observable, Integer> ids;
+	private Observable[] properties;
+	private long indexedStructure;
+	private final List<Observable> pending = new ArrayList<>();
+	private int[] pendingIds = new int[16];
+
+	/**
+	 * Opens a journal file, creating it if it does not exist. The batches written before and not torn by a crash are kept.
+	 * If the journal was written with other types registered, it is compacted to the ones registered now.
+	 * @param file journal file
+	 * @param snapshot {@code TreeSnapshot} with the property classes and value types of the tree registered, it should not be changed later
+	 * @throws IOException if the file can not be opened or it is not a valid journal
+	 */
+	public ChangeJournal(Path file, TreeSnapshot snapshot) throws IOException {
+		this.file = file;
+		this.snapshot = snapshot;
+		open(file);
+		if(!snapshot.matchesTypes(factories, codecs))
+			compact();
+	}
+
+	/**
+	 * Appends the values of the properties changed since the last notification of the tree
+	 * @param root root of the tree
+	 * @return the number of the written properties
+	 * @throws IOException if writing the journal fails
+	 * @throws IllegalStateException if the structure of the tree has changed since the batches in the journal were written
+	 * @throws IllegalArgumentException if the tree contains a property class or a value type that is not registered
+	 */
+	public int checkpoint(Observable root) throws IOException {
+		ensureOpen();
+		if(!root.isValueChanged())
+			return 0;
+		index(root);
+		if(propertyCount >= 0 && (propertyCount != properties.length || structure != indexedStructure))
+			throw new IllegalStateException("Tree structure has changed since the journal was written, it should be cleared after taking a new TreeSnapshot");
+		if(!snapshot.matchesTypes(factories, codecs))
+			compact();
+		collectChanged(root);
+		int written = pending.size();
+		if(written > 0)
+			appendPending(properties.length, indexedStructure);
+		return written;
+	}
+
+	/**
+	 * Applies all the values from the journal to a tree. They are set without marking any change and no listener is called.
+	 * @param root root of the tree with the same structure as the one the journal was written for
+	 * @throws IOException if reading the journal fails or it was written for a different tree
+	 */
+	public void replay(Observable root) throws IOException {
+		ensureOpen();
+		index(root);
+		SnapshotInput input = new SnapshotInput(new BatchReader(firstBatch, end));
+		for (int batch = 0; batch < batches; batch++) {
+			long batchStructure = input.getLong();
+			int count = input.getVarInt();
+			if(count != properties.length)
+				throw new IOException("Journal was written for a tree of " + count + " properties, not " + properties.length);
+			if(batchStructure != indexedStructure)
+				throw new IOException("Journal was written for a tree of a different structure");
+			int records = input.getVarInt();
+			for (int i = 0; i < records; i++) {
+				Observable property = properties[readId(input, count)];
+				int type = Byte.toUnsignedInt(input.getByte());
+				if(type != snapshot.nodeTypeIndex(property))
+					throw new IOException("Journal record of " + property.getClass().getName() + " does not match the tree");
+				TreeSnapshot.readValues(property, input, codecs);
+				property.unfreeze();
+			}
+		}
+	}
+
+	/**
+	 * Rewrites the journal keeping only the latest value of every property. The new journal replaces the file only once it is complete.
+	 * @throws IOException if reading or writing the journal fails
+	 */
+	public void compact() throws IOException {
+		ensureOpen();
+		Map<Integer, Observable> latest = new TreeMap<>();
+		SnapshotInput input = new SnapshotInput(new BatchReader(firstBatch, end));
+		int count = propertyCount;
+		long batchStructure = structure;
+		for (int batch = 0; batch < batches; batch++) {
+			batchStructure = input.getLong();
+			count = input.getVarInt();
+			int records = input.getVarInt();
+			for (int i = 0; i < records; i++) {
+				int id = readId(input, count);
+				int type = Byte.toUnsignedInt(input.getByte());
+				if(type >= factories.length)
+					throw new IOException("Corrupted journal: invalid property type " + type);
+				Observable property = factories[type].get();
+				TreeSnapshot.readValues(property, input, codecs);
+				latest.put(id, property);
+			}
+		}
+		Path compacted = file.resolveSibling(file.getFileName() + ".compact");
+		channel.close();
+		Files.deleteIfExists(compacted);
+		open(compacted);
+		if(!latest.isEmpty()) {
+			for (Map.Entry<Integer, Observable> entry : latest.entrySet())
+				addPending(entry.getKey(), entry.getValue());
+			appendPending(count, batchStructure);
+		}
+		channel.close();
+		Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		open(file);
+	}
+
+	/**
+	 * Drops all the batches from the journal, e.g. after a new {@code TreeSnapshot} of the tree was taken
+	 * @throws IOException if writing the journal fails
+	 */
+	public void clear() throws IOException {
+		ensureOpen();
+		mapped.putInt(GENERATION_OFFSET, ++generation);
+		mapped.force();
+		end = firstBatch;
+		batches = 0;
+		propertyCount = -1;
+	}
+
+	/**
+	 * Returns the number of bytes taken by the journal, which can be used to decide when to {@link #compact()} it
+	 * @return the number of the written bytes
+	 */
+	public long getSize() {
+		return end;
+	}
+
+	@Override
+	public void close() throws IOException {
+		if(channel == null)
+			return;
+		channel.close();
+		channel = null;
+		mapped = null;
+	}
+
+	private void ensureOpen() {
+		if(channel == null)
+			throw new IllegalStateException("Journal is closed");
+	}
+
+	private void open(Path path) throws IOException {
+		channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		long size = channel.size();
+		if(size > Integer.MAX_VALUE)
+			throw new IOException("Journal file " + path + " is too large");
+		map(Math.max((int) size, INITIAL_CAPACITY));
+		// a file with no magic number was created by a crashed open
+		if(size == 0 || mapped.getInt(0) == 0)
+			writeHeader();
+		readHeader();
+		recover();
+	}
+
+	private void writeHeader() throws IOException {
+		mapped.putInt(0, MAGIC);
+		mapped.put(Integer.BYTES, FORMAT_VERSION);
+		mapped.putInt(GENERATION_OFFSET, 0);
+		writePosition = TYPES_OFFSET + BATCH_HEADER;
+		snapshot.writeTypes(output);
+		output.flush();
+		commitBatch(TYPES_OFFSET, 0);
+	}
+
+	private void readHeader() throws IOException {
+		if(mapped.getInt(0) != MAGIC)
+			throw new IOException("Not an Observable change journal: " + file);
+		byte version = mapped.get(Integer.BYTES);
+		if(version != FORMAT_VERSION)
+			throw new IOException("Unsupported journal format version " + version);
+		generation = mapped.getInt(GENERATION_OFFSET);
+		firstBatch = validBatchEnd(TYPES_OFFSET, 0);
+		if(firstBatch < 0)
+			throw new IOException("Corrupted journal: invalid type header");
+		SnapshotInput input = new SnapshotInput(new BatchReader(TYPES_OFFSET, firstBatch));
+		factories = snapshot.readNodeTypes(input);
+		codecs = snapshot.readValueTypes(input);
+	}
+
+	/**
+	 * Finds the end of the valid batches, which is where the next one is appended
+	 */
+	private void recover() {
+		end = firstBatch;
+		batches = 0;
+		propertyCount = -1;
+		int next;
+		while((next = validBatchEnd(end, generation)) >= 0) {
+			structure = mapped.getLong(end + BATCH_HEADER);
+			propertyCount = readVarInt(end + BATCH_HEADER + Long.BYTES);
+			end = next;
+			batches++;
+		}
+	}
+
+	/**
+	 * @return the end of the batch starting at the position, {@code -1} if it was not fully written
+	 */
+	private int validBatchEnd(int start, int salt) {
+		if(start > mapped.capacity() - BATCH_HEADER)
+			return -1;
+		int length = mapped.getInt(start);
+		if(length <= 0 || length > mapped.capacity() - start - BATCH_HEADER)
+			return -1;
+		if(mapped.getInt(start + Integer.BYTES) != checksum(start + BATCH_HEADER, length, salt))
+			return -1;
+		return start + BATCH_HEADER + length;
+	}
+
+	private int checksum(int from, int length, int salt) {
+		ByteBuffer payload = mapped.duplicate();
+		payload.position(from).limit(from + length);
+		crc.reset();
+		crc.update(payload);
+		return (int) crc.getValue() ^ salt;
+	}
+
+	private int readVarInt(int position) {
+		int value = 0;
+		for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+			byte part = mapped.get(position++);
+			value |= (part & 0x7F) << shift;
+			if(part >= 0)
+				break;
+		}
+		return value;
+	}
+
+	private static int readId(SnapshotInput input, int count) throws IOException {
+		int id = input.getVarInt();
+		if(id < 0 || id >= count)
+			throw new IOException("Corrupted journal: invalid property id " + id);
+		return id;
+	}
+
+	/**
+	 * Assigns the ids to the properties of the tree in depth first pre-order and computes its structure fingerprint, unless the structure has not changed since
+	 */
+	private void index(Observable root) {
+		long version = root.structureVersion();
+		if(root == indexedRoot && version == indexedVersion)
+			return;
+		Map<Observable, Integer> found = new IdentityHashMap<>();
+		List<Observable> ordered = new ArrayList<>();
+		long stamp = Observable.nextTraversalStamp();
+		root.visit(stamp);
+		addProperty(root, found, ordered);
+		long fingerprint = fingerprint(1, root);
+		TraversalStack stack = TraversalStack.acquire();
+		try {
+			stack.push(root);
+			while(!stack.isEmpty()) {
+				Observable observable = stack.peek();
+				int position = stack.nextPosition();
+				if(position >= observable.getChildCount()) {
+					stack.pop();
+					continue;
+				}
+				Observable child = observable.getChild(position);
+				if(child.visit(stamp)) {
+					addProperty(child, found, ordered);
+					fingerprint = fingerprint(fingerprint, child);
+					stack.push(child);
+				}
+			}
+		} finally {
+			stack.release();
+		}
+		ids = found;
+		properties = ordered.toArray(new Observable[0]);
+		indexedStructure = fingerprint;
+		indexedRoot = root;
+		indexedVersion = version;
+	}
+
+	/**
+	 * Adds the class and the number of children of the {@code Observable} to the structure fingerprint, the class names keep it the same between runs
+	 */
+	private static long fingerprint(long fingerprint, Observable observable) {
+		fingerprint = 31 * fingerprint + observable.getClass().getName().hashCode();
+		return 31 * fingerprint + observable.getChildCount();
+	}
+
+	private static void addProperty(Observable observable, Map<Observable, Integer> found, List<Observable> ordered) {
+		if(TreeSnapshot.hasValues(observable)) {
+			found.put(observable, ordered.size());
+			ordered.add(observable);
+		}
+	}
+
+	/**
+	 * Collects the changed properties, only descending into the changed {@code Observables} and into the whole {@code modelValues} of the changed {@code SettableObservables}.
+	 * The stack value marks the subtrees collected whole, their {@code Observables} are stamped differently, so that the ones already visited by following the changed flags are visited again.
+	 */
+	private void collectChanged(Observable root) {
+		long changedStamp = Observable.nextTraversalStamp();
+		long wholeStamp = Observable.nextTraversalStamp();
+		TraversalStack stack = TraversalStack.acquire();
+		try {
+			stack.push(root, 0);
+			while(!stack.isEmpty()) {
+				boolean whole = stack.peekValue() != 0;
+				Observable observable = stack.pop();
+				if(observable.isVisited(wholeStamp) || !whole && observable.isVisited(changedStamp))
+					continue;
+				boolean collected = observable.isVisited(changedStamp);
+				observable.visit(whole ? wholeStamp : changedStamp);
+				Integer id = ids.get(observable);
+				if(id != null && !collected)
+					addPending(id, observable);
+				for (int i = 0; i < observable.getChildCount(); i++) {
+					Observable child = observable.getChild(i);
+					if(whole || child.isValueChanged())
+						stack.push(child, whole ? 1 : 0);
+				}
+				if(observable instanceof SettableObservable && observable.isValueChanged()) {
+					Observable modelValue = ((SettableObservable<?>) observable).modelValue;
+					if(modelValue != null)
+						stack.push(modelValue, 1);
+				}
+			}
+		} finally {
+			stack.release();
+		}
+	}
+
+	private void addPending(int id, Observable property) {
+		if(pending.size() == pendingIds.length)
+			pendingIds = Arrays.copyOf(pendingIds, pendingIds.length * 2);
+		pendingIds[pending.size()] = id;
+		pending.add(property);
+	}
+
+	/**
+	 * Appends the pending properties as a single batch
+	 * @param count number of the properties in the tree
+	 * @param fingerprint structure fingerprint of the tree
+	 */
+	private void appendPending(int count, long fingerprint) throws IOException {
+		int start = end;
+		writePosition = start + BATCH_HEADER;
+		boolean written = false;
+		try {
+			output.putLong(fingerprint);
+			output.putVarInt(count);
+			output.putVarInt(pending.size());
+			for (int i = 0; i < pending.size(); i++) {
+				Observable property = pending.get(i);
+				output.putVarInt(pendingIds[i]);
+				output.putByte((byte) snapshot.nodeTypeIndex(property));
+				snapshot.writeValues(property, output);
+			}
+			output.flush();
+			written = true;
+		} finally {
+			pending.clear();
+			if(!written)
+				output.discard();
+		}
+		end = commitBatch(start, generation);
+		batches++;
+		propertyCount = count;
+		structure = fingerprint;
+	}
+
+	/**
+	 * Writes the header of the batch whose payload was written up to the {@link #writePosition}, the length last
+	 * @return the end of the batch
+	 */
+	private int commitBatch(int start, int salt) {
+		int length = writePosition - start - BATCH_HEADER;
+		mapped.putInt(start + Integer.BYTES, checksum(start + BATCH_HEADER, length, salt));
+		mapped.putInt(start, length);
+		mapped.force();
+		return writePosition;
+	}
+
+	private void map(int capacity) throws IOException {
+		mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+	}
+
+	/**
+	 * Channel writing the {@link #output} to the mapped file at the {@link #writePosition}, growing the mapping as needed
+	 */
+	private final class MappedWriter implements WritableByteChannel {
+		@Override
+		public int write(ByteBuffer source) throws IOException {
+			int length = source.remaining();
+			long required = (long) writePosition + length;
+			if(required > mapped.capacity()) {
+				if(required > Integer.MAX_VALUE)
+					throw new IOException("Journal can not exceed 2 GB, it should be compacted or cleared");
+				map((int) Math.max(required, Math.min(2L * mapped.capacity(), Integer.MAX_VALUE)));
+			}
+			mapped.position(writePosition);
+			mapped.put(source);
+			writePosition += length;
+			return length;
+		}
+
+		@Override
+		public boolean isOpen() {
+			return channel != null;
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+
+	/**
+	 * Channel reading the payloads of the consecutive batches in the range of the mapped file
+	 */
+	private final class BatchReader implements ReadableByteChannel {
+		private final int end;
+		private int position;
+		private int batchEnd;
+
+		private BatchReader(int start, int end) {
+			this.end = end;
+			position = batchEnd = start;
+		}
+
+		@Override
+		public int read(ByteBuffer destination) {
+			if(position == batchEnd) {
+				if(position >= end)
+					return -1;
+				batchEnd = position + BATCH_HEADER + mapped.getInt(position);
+				position += BATCH_HEADER;
+			}
+			ByteBuffer payload = mapped.duplicate();
+			payload.position(position).limit(Math.min(batchEnd, position + destination.remaining()));
+			int length = payload.remaining();
+			destination.put(payload);
+			position += length;
+			return length;
+		}
+
+		@Override
+		public boolean isOpen() {
+			return channel != null;
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+
+}
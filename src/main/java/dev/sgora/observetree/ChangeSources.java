@@ -0,0 +1,171 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree;
+
+import dev.sgora.observetree.listener.ChangeListener;
+import dev.sgora.observetree.listener.ChangeSourceListener;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Internal state of an {@code Observable} with {@link ChangeSourceListener ChangeSourceListeners} registered.
+ * The {@code Observables} changed directly are recorded while the listeners are collected, each linked to the nearest one recorded on the traversal path leading to it,
+ * and are then assigned to their changed ancestors by following these links. Only the trees sharing an {@code Observable} between many parents are walked again.
+ * The cost is only paid by the notifications that reach a {@code ChangeSourceListener}.
+ *
+ * @author Stanisław Góra
+ * @see Observable#addSourceListener(ChangeSourceListener)
+ */
+final class ChangeSources {
+
+	/**
+	 * Flags of the {@code Observables} recorded by the {@link DispatchBuffer} - changed directly, with {@code ChangeSources}
+	 * and found among the descendants of the notified {@code Observable} rather than its ancestors
+	 */
+	static final int ORIGIN = 1;
+	static final int OWNER = 2;
+	static final int DOWNWARDS = 4;
+
+	/**
+	 * Registered source listeners mapped to the {@code ChangeListeners} invoking them
+	 */
+	final Map<ChangeSourceListener, ChangeListener> listeners = new IdentityHashMap<>();
+	/**
+	 * Sources assigned during the current notification, {@code null} outside of it
+	 */
+	private Set<Observable> assigned;
+	/**
+	 * Sources of the notification being dispatched, empty outside of it
+	 */
+	private Set<Observable> delivered = Collections.emptySet();
+
+	/**
+	 * Creates the {@code ChangeListener} invoking the source listener with the sources of the current notification
+	 * @param listener source listener to be invoked
+	 * @return invoking listener
+	 */
+	ChangeListener invoker(ChangeSourceListener listener) {
+		return new SourceInvoker(listener);
+	}
+
+	/**
+	 * Assigns the changed {@code Observables} to all their ancestors with source listeners that take part in the notification.
+	 * Along the links, an {@code Observable} found among the descendants is an ancestor of the ones linked to it,
+	 * while among the ancestors it is a descendant of the ones linked to it and of the notified {@code Observable}.
+	 * @param records {@code Observables} recorded by the notification
+	 * @param flags flags of the {@code records}
+	 * @param links position of the record linked to each of the {@code records}, {@code -1} if there is none
+	 * @param count number of the {@code records}
+	 * @param shared whether the links might not reach all the ancestors and the tree has to be walked instead
+	 */
+	static void assign(Observable[] records, int[] flags, int[] links, int count, boolean shared) {
+		for (int i = 0; i < count; i++) {
+			ChangeSources changeSources = records[i].getChangeSources();
+			if((flags[i] & OWNER) != 0 && changeSources != null && changeSources.assigned == null)
+				changeSources.assigned = Collections.newSetFromMap(new IdentityHashMap<>());
+		}
+		for (int i = 0; i < count; i++) {
+			if(shared) {
+				if((flags[i] & ORIGIN) != 0)
+					assignToAncestors(records[i]);
+			} else if((flags[i] & (ORIGIN | DOWNWARDS)) == (ORIGIN | DOWNWARDS)) {
+				for (int link = i; link >= 0; link = links[link])
+					assign(records, flags, link, records[i]);
+				// the ancestors of the notified Observable are recorded first
+				for (int ancestor = 0; ancestor < count && (flags[ancestor] & DOWNWARDS) == 0; ancestor++)
+					assign(records, flags, ancestor, records[i]);
+			} else if((flags[i] & (OWNER | DOWNWARDS)) == OWNER) {
+				for (int link = i; link >= 0; link = links[link]) {
+					if((flags[link] & ORIGIN) != 0)
+						assign(records, flags, i, records[link]);
+				}
+			}
+		}
+		for (int i = 0; i < count; i++) {
+			ChangeSources changeSources = records[i].getChangeSources();
+			if((flags[i] & OWNER) != 0 && changeSources != null && changeSources.assigned != null) {
+				changeSources.delivered = Collections.unmodifiableSet(changeSources.assigned);
+				changeSources.assigned = null;
+			}
+		}
+	}
+
+	private static void assign(Observable[] records, int[] flags, int owner, Observable source) {
+		ChangeSources changeSources = records[owner].getChangeSources();
+		if((flags[owner] & OWNER) != 0 && changeSources != null && changeSources.assigned != null)
+			changeSources.assigned.add(source);
+	}
+
+	/**
+	 * Assigns the source to all its ancestors taking part in the notification by walking the tree
+	 */
+	private static void assignToAncestors(Observable source) {
+		long stamp = Observable.nextTraversalStamp();
+		TraversalStack stack = TraversalStack.acquire();
+		try {
+			stack.push(source);
+			while(!stack.isEmpty()) {
+				Observable observable = stack.pop();
+				if(!observable.visit(stamp))
+					continue;
+				ChangeSources changeSources = observable.getChangeSources();
+				if(changeSources != null && changeSources.assigned != null)
+					changeSources.assigned.add(source);
+				for (int i = observable.getParentCount() - 1; i >= 0; i--)
+					stack.push(observable.getParent(i));
+			}
+		} finally {
+			stack.release();
+		}
+	}
+
+	/**
+	 * Clears the sources delivered by a notification after its listeners were invoked or {@link ListenerInvoker#bind() bound}
+	 * @param records {@code Observables} recorded by the notification
+	 * @param flags flags of the {@code records}
+	 * @param count number of the {@code records}
+	 */
+	static void release(Observable[] records, int[] flags, int count) {
+		for (int i = 0; i < count; i++) {
+			ChangeSources changeSources = records[i].getChangeSources();
+			if((flags[i] & OWNER) != 0 && changeSources != null)
+				changeSources.delivered = Collections.emptySet();
+		}
+	}
+
+	/**
+	 * Invokes a source listener with the sources delivered by the notification being dispatched
+	 */
+	private final class SourceInvoker implements ListenerInvoker {
+		private final ChangeSourceListener listener;
+
+		private SourceInvoker(ChangeSourceListener listener) {
+			this.listener = listener;
+		}
+
+		@Override
+		public void call() {
+			listener.call(delivered);
+		}
+
+		@Override
+		public ChangeListener bind() {
+			Set<Observable> sources = delivered;
+			return () -> listener.call(sources);
+		}
+
+		@Override
+		public Object getListener() {
+			return listener;
+		}
+	}
+
+}
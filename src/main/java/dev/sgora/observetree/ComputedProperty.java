@@ -0,0 +1,138 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree;
+
+import java.util.Collections;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * A read-only property whose value is derived from other {@code Observables} by a computation.
+ * The computation is run lazily - only when the value is read for the first time or after one of its dependencies has changed.
+ * Aggregates that nobody reads cost nothing but the change propagation.
+ *
+ * <p>
+ * The dependencies are discovered automatically: every {@code Observable} whose value is read by the computation
+ * - e.g. through {@link SettableProperty#get()}, {@link IntProperty#getAsInt()} or another {@code ComputedProperty} - is recorded
+ * and linked as a child of this {@code ComputedProperty}, replacing the dependencies recorded by the previous computation.
+ * A change of a dependency marks this {@code ComputedProperty} as changed and stale, so its listeners are notified like the ones of any other parent.
+ * As the dependencies are children, a notification of this {@code ComputedProperty} or its ancestors also reaches down into the changed dependencies -
+ * their changed flags are reset and their listeners are invoked by it, once, like the ones of any other child. A dependency belonging to a different tree
+ * is then delivered by whichever of the two trees is notified first, while its own ancestors stay marked until their tree is notified.
+ * Custom {@code Observables} can take part in the tracking by calling {@link #onValueRead()}. {@link ConcurrentObservable ConcurrentObservables} cannot be dependencies.
+ * <b>The computation must not read the ancestors of this {@code ComputedProperty}</b>, as that would create a cycle.
+ *
+ * <p>
+ * The dependencies keep this {@code ComputedProperty} reachable - call {@link #dispose()} when it is no longer needed.
+ *
+ * @param <T> the type of the computed value
+ *
+ * @author Stanisław Góra
+ * @see SettableProperty
+ */
+public class ComputedProperty<T> extends Observable implements Supplier<T> {
+
+	private final Supplier<? extends T> computation;
+	private T value;
+	/**
+	 * Whether the {@link #value} has to be recomputed before it is read
+	 */
+	private boolean stale = true;
+	private boolean computing;
+	private Set<Observable> dependencies = Collections.emptySet();
+
+	/**
+	 * Constructs a new {@code ComputedProperty} with the specified computation. It is not run until the value is read.
+	 * @param computation computation of the value, should be side-effect-free
+	 */
+	public ComputedProperty(Supplier<? extends T> computation) {
+		this.computation = Objects.requireNonNull(computation);
+	}
+
+	/**
+	 * Returns the computed value, running the computation first if any of the dependencies has changed since it was last run
+	 * @return the current value
+	 * @throws IllegalStateException if the computation reads this {@code ComputedProperty} or a {@link ConcurrentObservable}
+	 */
+	@Override
+	public T get() {
+		onValueRead();
+		if(stale)
+			recompute();
+		return value;
+	}
+
+	/**
+	 * Checks whether the value will be recomputed when it is read next
+	 * @return {@code true} if the computation was not run since a dependency has changed
+	 */
+	public boolean isStale() {
+		return stale;
+	}
+
+	/**
+	 * Returns the dependencies recorded by the last computation
+	 * @return a read-only set of the {@code Observables} read by the computation
+	 */
+	public Set<Observable> getDependencies() {
+		return Collections.unmodifiableSet(dependencies);
+	}
+
+	/**
+	 * Unlinks all the dependencies, so that this {@code ComputedProperty} is no longer reachable from them.
+	 * The value is recomputed and the dependencies linked again if it is read afterwards.
+	 */
+	public void dispose() {
+		for (Observable dependency : dependencies)
+			removeSubObservable(dependency);
+		dependencies = Collections.emptySet();
+		value = null;
+		stale = true;
+	}
+
+	private void recompute() {
+		if(computing)
+			throw new IllegalStateException("ComputedProperty computation depends on its own value");
+		computing = true;
+		DependencyTracker tracker = DependencyTracker.start();
+		Set<Observable> read;
+		try {
+			value = computation.get();
+		} finally {
+			read = tracker.stop();
+			computing = false;
+		}
+		for (Observable dependency : read) {
+			if(dependency instanceof ConcurrentObservable)
+				throw new IllegalStateException("ConcurrentObservable can not be a dependency of a ComputedProperty");
+		}
+		for (Observable dependency : dependencies) {
+			if(!read.contains(dependency))
+				removeSubObservable(dependency);
+		}
+		for (Observable dependency : read) {
+			if(!dependencies.contains(dependency))
+				link(dependency);
+		}
+		dependencies = read;
+		stale = false;
+		// this ComputedProperty may still be marked as changed, the next change of a dependency has to reach it anyway
+		invalidatePropagation();
+	}
+
+	/**
+	 * Marks the value as stale when a dependency has changed
+	 */
+	@Override
+	void dispatchChange() {
+		stale = true;
+		super.dispatchChange();
+	}
+
+}
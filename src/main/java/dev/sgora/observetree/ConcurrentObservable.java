@@ -0,0 +1,608 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree;
+
+import dev.sgora.observetree.enums.ListenerNotification;
+import dev.sgora.observetree.enums.ListenerPriority;
+import dev.sgora.observetree.listener.ChangeListener;
+import dev.sgora.observetree.listener.ListenerEntry;
+import dev.sgora.observetree.listener.ListenerList;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Thread-safe variant of the {@link Observable} that allows changes to be made from many threads at once.
+ *
+ * <p>
+ * The changed flags are updated atomically and the marking stops at the first ancestor that was already marked,
+ * so writers on many cores do not contend on the upper levels of the tree.
+ * Listener registration, structural modifications and the collection of the changed listeners are serialized by a lock shared by the {@code ConcurrentObservables} of a single tree.
+ * Linking two trees merges their locks, unlinking does not split them. The listeners are invoked after the lock is released,
+ * so they can modify the tree and notifications made from different threads can invoke them at the same time.
+ *
+ * <p>
+ * To keep every marked {@code ConcurrentObservable} reachable from a marked root, the changed flags are only ever reset from the top:
+ * <ul>
+ *     <li>{@link #notifyListeners()} resets and invokes the listeners of all the changed {@code ConcurrentObservables} in the whole tree, starting from its roots</li>
+ *     <li>{@link #setUnchanged(boolean)} resets the changed flags of the whole tree or - if the {@code traverseTree} flag is set to {@code false} - this subtree</li>
+ * </ul>
+ * A change made concurrently with a notification is either delivered by it or left marked for the next one.
+ * Like in the {@link Observable}, the change is dispatched according to the {@link #notificationMethod} of this {@code ConcurrentObservable}
+ * and of every ancestor it marked - the ancestors already marked by an earlier change are not dispatched again.
+ *
+ * <p>
+ * <b>{@code ConcurrentObservables} can only be related to other {@code ConcurrentObservables}.</b>
+ * They cannot be {@link FrozenObservable frozen} nor be dependencies of a {@link ComputedProperty}.
+ *
+ * @author Stanisław Góra
+ * @see ConcurrentSettableProperty
+ */
+public abstract class ConcurrentObservable extends Observable {
+
+	private static final VarHandle CHANGED;
+	private static final VarHandle CHANGE_ORIGIN;
+	private static final ConcurrentObservable[] NO_RELATIVES = {};
+
+	private transient volatile boolean changed;
+	/**
+	 * Whether this {@code ConcurrentObservable} was changed directly, set before and cleared after the {@link #changed} flag
+	 */
+	private transient volatile boolean changeOrigin;
+	/**
+	 * Lock of the tree, possibly already merged into the lock of a bigger tree - see {@link #lockTree()}
+	 */
+	private transient volatile TreeLock treeLock = new TreeLock();
+	private transient volatile ConcurrentObservable[] parents = NO_RELATIVES;
+	private transient volatile ConcurrentObservable[] children = NO_RELATIVES;
+	private transient ListenerList listeners;
+
+	static {
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.lookup();
+			CHANGED = lookup.findVarHandle(ConcurrentObservable.class, "changed", boolean.class);
+			CHANGE_ORIGIN = lookup.findVarHandle(ConcurrentObservable.class, "changeOrigin", boolean.class);
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	@Override
+	public boolean addListener(ChangeListener listener) {
+		return addListener(listener, ListenerPriority.NORMAL);
+	}
+
+	@Override
+	public boolean addListener(ChangeListener listener, ListenerPriority priority) {
+		return addListener(listener, priority.value);
+	}
+
+	@Override
+	public boolean addListener(ChangeListener listener, int priority) {
+		TreeLock lock = lockTree();
+		try {
+			return add(listenerList(), listener, priority);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public boolean addWeakListener(ChangeListener listener, int priority) {
+		TreeLock lock = lockTree();
+		try {
+			return super.addWeakListener(listener, priority);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the list holding the listeners, must be called while holding the tree lock
+	 * @return the listener list
+	 */
+	@Override
+	ListenerList listenerList() {
+		if(listeners == null)
+			listeners = new ListenerList();
+		return listeners;
+	}
+
+	@Override
+	void purgeWeakListeners() {
+		// the registry is only created under the lock, a missed one is purged by the next notification
+		if(!hasWeakListeners())
+			return;
+		TreeLock lock = lockTree();
+		try {
+			super.purgeWeakListeners();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public boolean removeListener(ChangeListener listener) {
+		TreeLock lock = lockTree();
+		try {
+			return listeners != null && remove(listeners, listener);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public void copyListeners(Observable observable) {
+		for (ListenerEntry entry : getListenerEntries())
+			observable.addListener(entry.listener, entry.priority);
+	}
+
+	@Override
+	public void clearListeners() {
+		TreeLock lock = lockTree();
+		try {
+			forgetWeakListeners(listeners);
+			listeners = null;
+			super.clearListeners();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Marks the {@code ConcurrentObservable} and all its ancestors as changed. Can be called from any thread.
+	 * The marking stops at the ancestors that are already marked. Once it is complete, the change is dispatched
+	 * to the marked ancestors that are not {@link ListenerNotification#MANUAL}, roughly from the top, and then to this {@code ConcurrentObservable}.
+	 */
+	@Override
+	protected void onValueChanged() {
+		setChangeOrigin(true);
+		int ancestorsVisited = 0;
+		if(!(boolean) CHANGED.getAndSet(this, true))
+			ancestorsVisited = propagateChange(this);
+		dispatchChange();
+		ObservableMetrics currentMetrics = getMetrics();
+		if(currentMetrics != ObservableMetrics.NONE)
+			currentMetrics.onValueChanged(this, ancestorsVisited);
+	}
+
+	/**
+	 * Marks the ancestors of a newly marked {@code ConcurrentObservable} and dispatches the change to the ones that are not {@link ListenerNotification#MANUAL}
+	 * @return the number of marked ancestors
+	 */
+	private static int propagateChange(ConcurrentObservable observable) {
+		TraversalStack notified = TraversalStack.acquire();
+		try {
+			int marked = markParents(observable, notified);
+			while(!notified.isEmpty()) {
+				ConcurrentObservable ancestor = (ConcurrentObservable) notified.pop();
+				// skips the ancestors whose change was already delivered by the notification of another one
+				if(ancestor.changed)
+					ancestor.dispatchChange();
+			}
+			return marked;
+		} finally {
+			notified.release();
+		}
+	}
+
+	/**
+	 * @param notified stack to push the marked ancestors that have to be dispatched onto
+	 * @return the number of marked ancestors
+	 */
+	private static int markParents(ConcurrentObservable observable, TraversalStack notified) {
+		int marked = 0;
+		TraversalStack stack = TraversalStack.acquire();
+		try {
+			stack.push(observable);
+			while(!stack.isEmpty()) {
+				for (ConcurrentObservable parent : ((ConcurrentObservable) stack.pop()).parents) {
+					if(!(boolean) CHANGED.getAndSet(parent, true)) {
+						marked++;
+						stack.push(parent);
+						if(parent.notificationMethod != ListenerNotification.MANUAL)
+							notified.push(parent);
+					}
+				}
+			}
+		} finally {
+			stack.release();
+		}
+		return marked;
+	}
+
+	@Override
+	void setChangeOrigin(boolean origin) {
+		changeOrigin = origin;
+	}
+
+	@Override
+	boolean consumeChangeOrigin() {
+		return changeOrigin && (boolean) CHANGE_ORIGIN.getAndSet(this, false);
+	}
+
+	/**
+	 * Invokes the listeners of all the {@code ConcurrentObservables} marked as changed in the whole tree and resets their changed flag.
+	 * The tree is drained starting from its roots while holding the tree lock, which is released before the listeners are called.
+	 * The listeners are called in order of their priority (globally).
+	 */
+	@Override
+	public void notifyListeners() {
+		if(ChangeBatch.defer(this))
+			return;
+		purgeWeakListeners();
+		DispatchBuffer buffer = DispatchBuffer.acquire();
+		buffer.measure(this, getMetrics());
+		collectChangedListeners(buffer);
+		if(notificationMethod == ListenerNotification.ASYNC)
+			buffer.dispatchAsync(asyncQueue());
+		else
+			buffer.dispatch();
+	}
+
+	@Override
+	void collectChangedListeners(DispatchBuffer buffer) {
+		TreeLock lock = lockTree();
+		try {
+			buffer.beginSources();
+			for (ConcurrentObservable root : findRoots())
+				collectListeners(root, buffer);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private static void collectListeners(ConcurrentObservable root, DispatchBuffer buffer) {
+		TraversalStack stack = TraversalStack.acquire();
+		try {
+			stack.push(root, -1);
+			while(!stack.isEmpty()) {
+				int link = (int) stack.peekValue();
+				ConcurrentObservable observable = (ConcurrentObservable) stack.pop();
+				buffer.nodeTraversed();
+				// an Observable shared by many parents is only collected by the first path reaching it
+				if(link >= 0 && observable.parents.length > 1)
+					buffer.markSourcesShared();
+				if(!(boolean) CHANGED.getAndSet(observable, false))
+					continue;
+				buffer.setSourcePath(link, true);
+				observable.collectSources(buffer);
+				link = buffer.getSourcePath();
+				if(observable.listeners != null)
+					buffer.addAll(observable.listeners.getEntries());
+				ConcurrentObservable[] children = observable.children;
+				for (int i = children.length - 1; i >= 0; i--)
+					stack.push(children[i], link);
+			}
+		} finally {
+			stack.release();
+		}
+	}
+
+	/**
+	 * Resets the changed flag of all the {@code ConcurrentObservables} in the tree or - if the {@code traverseTree} flag is set to {@code false} -
+	 * of this {@code ConcurrentObservable} and its descendants. The listeners are not called.
+	 * @param traverseTree whether to reset the whole tree
+	 */
+	@Override
+	public void setUnchanged(boolean traverseTree) {
+		TreeLock lock = lockTree();
+		try {
+			long stamp = nextTraversalStamp();
+			if(!traverseTree) {
+				reset(this, stamp);
+				return;
+			}
+			for (ConcurrentObservable root : findRoots())
+				reset(root, stamp);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private static void reset(ConcurrentObservable root, long stamp) {
+		TraversalStack stack = TraversalStack.acquire();
+		try {
+			stack.push(root);
+			while(!stack.isEmpty()) {
+				ConcurrentObservable observable = (ConcurrentObservable) stack.pop();
+				if(!observable.visit(stamp))
+					continue;
+				CHANGED.setVolatile(observable, false);
+				observable.setChangeOrigin(false);
+				for (ConcurrentObservable child : observable.children)
+					stack.push(child);
+			}
+		} finally {
+			stack.release();
+		}
+	}
+
+	/**
+	 * Finds the roots of the tree by walking up from this {@code ConcurrentObservable}. Must be called holding the tree lock.
+	 */
+	private List<ConcurrentObservable> findRoots() {
+		List<ConcurrentObservable> roots = new ArrayList<>();
+		long stamp = nextTraversalStamp();
+		TraversalStack stack = TraversalStack.acquire();
+		try {
+			stack.push(this);
+			while(!stack.isEmpty()) {
+				ConcurrentObservable observable = (ConcurrentObservable) stack.pop();
+				if(!observable.visit(stamp))
+					continue;
+				if(observable.parents.length == 0)
+					roots.add(observable);
+				for (ConcurrentObservable parent : observable.parents)
+					stack.push(parent);
+			}
+		} finally {
+			stack.release();
+		}
+		return roots;
+	}
+
+	@Override
+	public boolean isValueChanged() {
+		return changed;
+	}
+
+	/**
+	 * Adds the specified {@code ConcurrentObservable} to the tree as a child of this {@code ConcurrentObservable}.
+	 * If it is marked as changed, this {@code ConcurrentObservable} and its ancestors are marked as well.
+	 * @param observable element to be inserted into the tree as a child of this {@code ConcurrentObservable}
+	 */
+	@Override
+	protected void addSubObservable(Observable observable) {
+		TreeLock lock = lockTrees(cast(observable));
+		try {
+			checkCycle(observable);
+			addChild(observable);
+			observable.addParent(this);
+			inheritMetrics(observable);
+		} finally {
+			lock.unlock();
+		}
+		if(observable.isValueChanged() && !(boolean) CHANGED.getAndSet(this, true)) {
+			propagateChange(this);
+			if(notificationMethod != ListenerNotification.MANUAL)
+				dispatchChange();
+		}
+	}
+
+	@Override
+	protected void removeSubObservable(Observable observable) {
+		TreeLock lock = lockTree();
+		try {
+			super.removeSubObservable(observable);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	protected boolean addParent(Observable observable) {
+		TreeLock lock = lockTrees(cast(observable));
+		try {
+			ConcurrentObservable[] updated = with(parents, (ConcurrentObservable) observable);
+			if(updated == parents)
+				return false;
+			parents = updated;
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	protected boolean removeParent(Observable observable) {
+		TreeLock lock = lockTree();
+		try {
+			ConcurrentObservable[] updated = without(parents, observable);
+			if(updated == parents)
+				return false;
+			parents = updated;
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	protected boolean addChild(Observable observable) {
+		TreeLock lock = lockTrees(cast(observable));
+		try {
+			ConcurrentObservable[] updated = with(children, (ConcurrentObservable) observable);
+			if(updated == children)
+				return false;
+			children = updated;
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	protected boolean removeChild(Observable observable) {
+		TreeLock lock = lockTree();
+		try {
+			ConcurrentObservable[] updated = without(children, observable);
+			if(updated == children)
+				return false;
+			children = updated;
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Returns parents of this {@code ConcurrentObservable}
+	 * @return an immutable snapshot of the parents of this object
+	 */
+	@Override
+	public Set<Observable> getParents() {
+		return Set.of(parents);
+	}
+
+	/**
+	 * Returns children of this {@code ConcurrentObservable}
+	 * @return an immutable snapshot of the children of this object
+	 */
+	@Override
+	public Set<Observable> getChildren() {
+		return Set.of(children);
+	}
+
+	@Override
+	int getParentCount() {
+		return parents.length;
+	}
+
+	@Override
+	Observable getParent(int position) {
+		return parents[position];
+	}
+
+	@Override
+	int getChildCount() {
+		return children.length;
+	}
+
+	@Override
+	Observable getChild(int position) {
+		return children[position];
+	}
+
+	@Override
+	ListenerEntry[] getListenerEntries() {
+		TreeLock lock = lockTree();
+		try {
+			return listeners != null ? listeners.getEntries() : NO_LISTENERS;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	AsyncDispatcher.TreeQueue asyncQueue() {
+		TreeLock lock = lockTree();
+		try {
+			if(lock.asyncQueue == null)
+				lock.asyncQueue = new AsyncDispatcher.TreeQueue();
+			return lock.asyncQueue;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Acquires the lock of the tree of this {@code ConcurrentObservable}
+	 * @return the acquired lock, to be unlocked by the caller
+	 */
+	private TreeLock lockTree() {
+		while(true) {
+			TreeLock lock = treeLock.resolve();
+			lock.lock();
+			// the lock might have been merged while waiting for it
+			if(lock.merged == null) {
+				treeLock = lock;
+				return lock;
+			}
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Acquires the locks of the trees of this and the other {@code ConcurrentObservable}, merging them into one.
+	 * The locks are always acquired in the order of their creation, so that two threads linking the same trees do not deadlock.
+	 * @param other {@code ConcurrentObservable} to be related to this one
+	 * @return the acquired lock shared by both trees, to be unlocked by the caller
+	 */
+	private TreeLock lockTrees(ConcurrentObservable other) {
+		while(true) {
+			TreeLock own = treeLock.resolve();
+			TreeLock others = other.treeLock.resolve();
+			if(own == others)
+				return lockTree();
+			TreeLock first = own.id < others.id ? own : others;
+			TreeLock second = first == own ? others : own;
+			first.lock();
+			second.lock();
+			if(first.merged == null && second.merged == null) {
+				second.merged = first;
+				first.asyncQueue = AsyncDispatcher.TreeQueue.merge(first.asyncQueue, second.asyncQueue);
+				second.unlock();
+				treeLock = first;
+				other.treeLock = first;
+				return first;
+			}
+			second.unlock();
+			first.unlock();
+		}
+	}
+
+	private static ConcurrentObservable cast(Observable observable) {
+		if(!(observable instanceof ConcurrentObservable))
+			throw new IllegalArgumentException("ConcurrentObservable can only be related to other ConcurrentObservables");
+		return (ConcurrentObservable) observable;
+	}
+
+	private static ConcurrentObservable[] with(ConcurrentObservable[] relatives, ConcurrentObservable observable) {
+		for (ConcurrentObservable relative : relatives) {
+			if(relative == observable)
+				return relatives;
+		}
+		ConcurrentObservable[] updated = Arrays.copyOf(relatives, relatives.length + 1);
+		updated[relatives.length] = observable;
+		return updated;
+	}
+
+	private static ConcurrentObservable[] without(ConcurrentObservable[] relatives, Observable observable) {
+		for (int i = 0; i < relatives.length; i++) {
+			if(relatives[i] != observable)
+				continue;
+			ConcurrentObservable[] updated = Arrays.copyOf(relatives, relatives.length - 1);
+			System.arraycopy(relatives, i + 1, updated, i, updated.length - i);
+			return updated;
+		}
+		return relatives;
+	}
+
+	/**
+	 * Lock shared by the {@code ConcurrentObservables} of a single tree. Once merged into the lock of another tree it only forwards to it.
+	 */
+	private static final class TreeLock extends ReentrantLock {
+		private static final AtomicLong sequence = new AtomicLong();
+		private static final long serialVersionUID = 1L;
+
+		private final long id = sequence.incrementAndGet();
+		/**
+		 * Lock this one was merged into, set while holding both of them
+		 */
+		private volatile TreeLock merged;
+		/**
+		 * Queue of the asynchronous notifications of the tree, guarded by this lock
+		 */
+		private AsyncDispatcher.TreeQueue asyncQueue;
+
+		private TreeLock resolve() {
+			TreeLock lock = this;
+			while(lock.merged != null)
+				lock = lock.merged;
+			return lock;
+		}
+	}
+
+}
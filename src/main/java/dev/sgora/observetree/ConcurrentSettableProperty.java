@@ -0,0 +1,178 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree;
+
+import java.io.Serializable;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Objects;
+import java.util.function.UnaryOperator;
+
+/**
+ * Thread-safe variant of the {@link SettableProperty}. The {@link #get() value} is safely published to all threads
+ * and the {@link #modify(UnaryOperator)} operation is atomic.
+ * {@code equals()} method is used by default to determine if the value was changed - it can be replaced with {@link #setEqualityStrategy(EqualityStrategy)}.
+ * {@code null} values are supported.
+ *
+ * <p>
+ * Unlike the {@link SettableProperty} it does not support {@link dev.sgora.observetree.listener.ValueChangeListener ValueChangeListeners},
+ * as the value can be changed by another thread between the notification and the listener call - the listeners should read the current {@link #get() value} instead.
+ * Reading it from a {@link ComputedProperty} computation is rejected, as {@link ConcurrentObservable ConcurrentObservables} cannot be its dependencies.
+ *
+ * @param <T> the type of the actual observable data type
+ *
+ * @author Stanisław Góra
+ * @see ConcurrentObservable
+ * @see SettableProperty
+ */
+public class ConcurrentSettableProperty<T> extends ConcurrentObservable implements Serializable {
+
+	private static final VarHandle MODEL_VALUE;
+	private static final long serialVersionUID = 1L;
+
+	private volatile T modelValue;
+	private volatile T defaultValue;
+	/**
+	 * Strategy comparing the set values, {@code null} for the default {@link EqualityStrategy#equality()}.
+	 * It is not serialized, so deserialized properties use the default one.
+	 */
+	private transient volatile EqualityStrategy<? super T> equalityStrategy;
+
+	static {
+		try {
+			MODEL_VALUE = MethodHandles.lookup().findVarHandle(ConcurrentSettableProperty.class, "modelValue", Object.class);
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	/**
+	 * Constructs a new, empty {@code ConcurrentSettableProperty} with {@code null} value
+	 */
+	public ConcurrentSettableProperty() {
+	}
+
+	/**
+	 * Constructs a new {@code ConcurrentSettableProperty} with the specified value
+	 * @param modelValue a value to be set
+	 */
+	public ConcurrentSettableProperty(T modelValue) {
+		this.modelValue = modelValue;
+	}
+
+	/**
+	 * Checks if the value is not {@code null}
+	 * @return {@code false} if the value is {@code null}, {@code true} otherwise
+	 */
+	public boolean present() {
+		return modelValue != null;
+	}
+
+	/**
+	 * Returns the current value of this {@code ConcurrentSettableProperty}
+	 * @return the current value
+	 */
+	public T get() {
+		onValueRead();
+		return modelValue;
+	}
+
+	/**
+	 * Sets the value of this {@code ConcurrentSettableProperty}
+	 * @param modelValue value to be set
+	 */
+	@SuppressWarnings("unchecked")
+	public void set(T modelValue) {
+		T previous = (T) MODEL_VALUE.getAndSet(this, modelValue);
+		if(!equal(previous, modelValue))
+			onValueChanged();
+	}
+
+	private boolean equal(T current, T updated) {
+		EqualityStrategy<? super T> strategy = equalityStrategy;
+		return strategy != null ? strategy.equal(current, updated) : Objects.equals(current, updated);
+	}
+
+	/**
+	 * Returns the strategy used by {@link #set(Object)} and {@link #modify(UnaryOperator)} to determine if the value was changed
+	 * @return the current equality strategy
+	 */
+	public EqualityStrategy<? super T> getEqualityStrategy() {
+		EqualityStrategy<? super T> strategy = equalityStrategy;
+		return strategy != null ? strategy : EqualityStrategy.equality();
+	}
+
+	/**
+	 * Sets the strategy used by {@link #set(Object)} and {@link #modify(UnaryOperator)} to determine if the value was changed.
+	 * It can be called from many threads at once, so it should be side-effect-free.
+	 * @param equalityStrategy strategy to be used, {@code null} to use the default {@link EqualityStrategy#equality()}
+	 */
+	public void setEqualityStrategy(EqualityStrategy<? super T> equalityStrategy) {
+		this.equalityStrategy = equalityStrategy;
+	}
+
+	/**
+	 * Sets the value and calls {@link #notifyListeners()}
+	 * @param modelValue value to be set
+	 */
+	public void setAndNotify(T modelValue) {
+		set(modelValue);
+		notifyListeners();
+	}
+
+	/**
+	 * Atomically modifies the value of this {@code ConcurrentSettableProperty}.
+	 * The operator may be applied more than once when other threads modify the value at the same time, so it should be side-effect-free.
+	 * @param operator operation to be performed on the value
+	 */
+	public void modify(UnaryOperator<T> operator) {
+		T previous;
+		T updated;
+		do {
+			previous = modelValue;
+			updated = operator.apply(previous);
+		} while(!MODEL_VALUE.compareAndSet(this, previous, updated));
+		if(!equal(previous, updated))
+			onValueChanged();
+	}
+
+	/**
+	 * Sets the value of this {@code ConcurrentSettableProperty} to the default value.
+	 * If the default value is {@code null} no action will be performed.
+	 */
+	public void resetToDefaultValue() {
+		T value = defaultValue;
+		if(value != null) {
+			set(value);
+		}
+	}
+
+	/**
+	 * Returns the default value of this {@code ConcurrentSettableProperty}
+	 * @return the default value of this object
+	 */
+	public T getDefaultValue() {
+		return defaultValue;
+	}
+
+	/**
+	 * Sets the default value of this {@code ConcurrentSettableProperty}
+	 * @param defaultValue  value to be set
+	 */
+	public void setDefaultValue(T defaultValue) {
+		this.defaultValue = defaultValue;
+	}
+
+	/**
+	 * Sets the default value of this {@code ConcurrentSettableProperty} to be equal to the current value
+	 */
+	public void saveAsDefaultValue() {
+		setDefaultValue(modelValue);
+	}
+
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Internal record of the {@code Observables} read by a {@link ComputedProperty} computation.
+ * Trackers are kept per thread and a computation started from inside another one gets a nested tracker.
+ * A global counter of the running computations lets the reads skip the thread local lookup while nothing is tracked.
+ *
+ * @author Stanisław Góra
+ * @see Observable#onValueRead()
+ */
+final class DependencyTracker {
+
+	private static final AtomicInteger activeTrackers = new AtomicInteger();
+	private static final ThreadLocal<DependencyTracker> threadTrackers = new ThreadLocal<>();
+
+	private final DependencyTracker outer;
+	private final Set<Observable> dependencies = Collections.newSetFromMap(new IdentityHashMap<>());
+
+	private DependencyTracker(DependencyTracker outer) {
+		this.outer = outer;
+	}
+
+	/**
+	 * Records a read of the {@code Observable} by the computation running on the current thread, if there is one
+	 * @param observable {@code Observable} whose value was read
+	 */
+	static void read(Observable observable) {
+		if(activeTrackers.get() == 0)
+			return;
+		DependencyTracker tracker = threadTrackers.get();
+		if(tracker != null)
+			tracker.dependencies.add(observable);
+	}
+
+	/**
+	 * Starts recording the reads made on the current thread
+	 * @return tracker to be stopped with {@link #stop()}
+	 */
+	static DependencyTracker start() {
+		DependencyTracker tracker = new DependencyTracker(threadTrackers.get());
+		threadTrackers.set(tracker);
+		activeTrackers.incrementAndGet();
+		return tracker;
+	}
+
+	/**
+	 * Stops recording the reads and restores the tracker of the outer computation
+	 * @return the {@code Observables} read since the tracker was started
+	 */
+	Set<Observable> stop() {
+		activeTrackers.decrementAndGet();
+		if(outer != null)
+			threadTrackers.set(outer);
+		else
+			threadTrackers.remove();
+		return dependencies;
+	}
+
+}
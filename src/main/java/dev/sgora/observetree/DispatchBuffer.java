@@ -0,0 +1,340 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree;
+
+import dev.sgora.observetree.listener.ChangeListener;
+import dev.sgora.observetree.listener.ListenerEntry;
+
+import java.util.Arrays;
+
+/**
+ * Internal reusable scratch space for collecting, ordering and invoking the listeners of a single notification.
+ * Buffers are kept per thread and grow as needed, so that a steady-state notification does not allocate.
+ * A listener that notifies from inside its callback gets a separate, nested buffer.
+ *
+ * @author Stanisław Góra
+ * @see Observable#notifyListeners()
+ */
+final class DispatchBuffer {
+
+	private static final int INITIAL_CAPACITY = 16;
+	private static final ThreadLocal<DispatchBuffer> threadBuffers = ThreadLocal.withInitial(DispatchBuffer::new);
+
+	private DispatchBuffer nested;
+	private boolean inUse;
+
+	private ListenerEntry[] entries = new ListenerEntry[INITIAL_CAPACITY];
+	/**
+	 * Sort keys - inverted priority in the high half, collection index in the low half
+	 */
+	private long[] order = new long[INITIAL_CAPACITY];
+	private int size;
+	/**
+	 * Whether the entries were added already ordered by a {@link NotificationPlan}
+	 */
+	private boolean presorted;
+
+	/**
+	 * Open addressing hash table of {@code entries} indexes used to skip duplicate entries.
+	 * A slot is only valid if its stamp equals the current {@code stamp} which allows reuse without clearing.
+	 */
+	private int[] slots = new int[INITIAL_CAPACITY * 2];
+	private int[] slotStamps = new int[INITIAL_CAPACITY * 2];
+	private int stamp = 1;
+
+	/**
+	 * {@code Observables} changed directly and the ones with {@link ChangeSources} whose changes were collected, with their {@link ChangeSources} flags.
+	 * Each is linked to the nearest one recorded before it on the traversal path leading to it, {@code -1} if there is none.
+	 */
+	private Observable[] sources = new Observable[INITIAL_CAPACITY];
+	private int[] sourceFlags = new int[INITIAL_CAPACITY];
+	private int[] sourceLinks = new int[INITIAL_CAPACITY];
+	private int sourceCount;
+	private boolean sourceOwners;
+	/**
+	 * Link and direction of the traversal path leading to the {@code Observable} visited next
+	 */
+	private int sourcePath = -1;
+	private boolean sourcePathDownwards;
+	/**
+	 * Whether the links might not reach all the ancestors of the sources, e.g. because an {@code Observable} shared by many parents was visited once
+	 */
+	private boolean sourcesShared;
+
+	/**
+	 * Metrics of the current notification, {@code null} if it is not measured
+	 */
+	private ObservableMetrics metrics;
+	/**
+	 * Flight Recorder event of the current notification, {@code null} if it is not recorded
+	 */
+	private NotificationEvent event;
+	private Observable source;
+	private long startTime;
+	private int nodesTraversed;
+	private int listenersCollected;
+
+	/**
+	 * Returns a free buffer for the current thread
+	 * @return buffer to be released with {@link #dispatch()}
+	 */
+	static DispatchBuffer acquire() {
+		DispatchBuffer buffer = threadBuffers.get();
+		while(buffer.inUse) {
+			if(buffer.nested == null)
+				buffer.nested = new DispatchBuffer();
+			buffer = buffer.nested;
+		}
+		buffer.inUse = true;
+		return buffer;
+	}
+
+	/**
+	 * Starts measuring the notification if the metrics or the Flight Recorder {@link NotificationEvent} are enabled
+	 * @param source {@code Observable} being notified, {@code null} for deferred notifications of many {@code Observables}
+	 * @param metrics metrics to report the notification to
+	 */
+	void measure(Observable source, ObservableMetrics metrics) {
+		this.source = source;
+		if(NotificationEvent.isTypeEnabled()) {
+			event = new NotificationEvent();
+			event.begin();
+		}
+		if(metrics == ObservableMetrics.NONE)
+			return;
+		this.metrics = metrics;
+		startTime = System.nanoTime();
+	}
+
+	/**
+	 * Records a visit of an {@code Observable} while collecting the listeners
+	 */
+	void nodeTraversed() {
+		nodesTraversed++;
+	}
+
+	/**
+	 * Starts collecting the listeners of a single notified {@code Observable}, first walking to its ancestors and then to its descendants
+	 */
+	void beginSources() {
+		// the links of separate walks do not reach each other
+		if(sourceCount > 0)
+			sourcesShared = true;
+		sourcePath = -1;
+	}
+
+	/**
+	 * Sets the traversal path leading to the {@code Observable} visited next
+	 * @param link link of the path, returned by {@link #getSourcePath()} after its last {@code Observable} was visited
+	 * @param downwards whether the path leads to the descendants of the notified {@code Observable}
+	 */
+	void setSourcePath(int link, boolean downwards) {
+		sourcePath = link;
+		sourcePathDownwards = downwards;
+	}
+
+	/**
+	 * Returns the link of the traversal path leading to the relatives of the {@code Observable} visited last
+	 * @return link to be passed to {@link #setSourcePath(int, boolean)}
+	 */
+	int getSourcePath() {
+		return sourcePath;
+	}
+
+	/**
+	 * Records that an {@code Observable} was reached again by a different traversal path, so the sources have to be assigned by walking the tree
+	 */
+	void markSourcesShared() {
+		sourcesShared = true;
+	}
+
+	/**
+	 * Records an {@code Observable} that was changed directly or has {@link ChangeSources} whose listeners were collected
+	 * @param source collected element
+	 * @param origin whether it was changed directly
+	 * @param owner whether it has {@code ChangeSources}
+	 */
+	void addSource(Observable source, boolean origin, boolean owner) {
+		if(sourceCount == sources.length) {
+			sources = Arrays.copyOf(sources, sourceCount * 2);
+			sourceFlags = Arrays.copyOf(sourceFlags, sourceCount * 2);
+			sourceLinks = Arrays.copyOf(sourceLinks, sourceCount * 2);
+		}
+		sources[sourceCount] = source;
+		sourceFlags[sourceCount] = (origin ? ChangeSources.ORIGIN : 0) | (owner ? ChangeSources.OWNER : 0)
+				| (sourcePathDownwards ? ChangeSources.DOWNWARDS : 0);
+		sourceLinks[sourceCount] = sourcePath;
+		sourcePath = sourceCount++;
+		sourceOwners |= owner;
+	}
+
+	/**
+	 * Adds all the listener entries to the buffer, skipping the ones already collected
+	 * @param listenerEntries entries to be added
+	 */
+	void addAll(ListenerEntry[] listenerEntries) {
+		listenersCollected += listenerEntries.length;
+		for (ListenerEntry entry : listenerEntries)
+			add(entry);
+	}
+
+	/**
+	 * Adds the listener entry to the buffer if an equal one was not collected yet
+	 * @param entry entry to be added
+	 */
+	void add(ListenerEntry entry) {
+		if(size * 2 >= slots.length)
+			growTable();
+		int mask = slots.length - 1;
+		int slot = hash(entry) & mask;
+		while(slotStamps[slot] == stamp) {
+			if(entries[slots[slot]].equals(entry))
+				return;
+			slot = (slot + 1) & mask;
+		}
+		if(size == entries.length) {
+			entries = Arrays.copyOf(entries, size * 2);
+			order = Arrays.copyOf(order, size * 2);
+		}
+		slotStamps[slot] = stamp;
+		slots[slot] = size;
+		entries[size] = entry;
+		order[size] = ((long) ~entry.priority << 32) | size;
+		size++;
+	}
+
+	/**
+	 * Adds the listener entry to the buffer without checking for duplicates.
+	 * Used by the {@link NotificationPlan NotificationPlans} which add unique entries in order of their priority, so that they are not sorted again.
+	 * Must not be mixed with {@link #add(ListenerEntry)} in a single notification.
+	 * @param entry entry to be added
+	 */
+	void addOrdered(ListenerEntry entry) {
+		if(size == entries.length) {
+			entries = Arrays.copyOf(entries, size * 2);
+			order = Arrays.copyOf(order, size * 2);
+		}
+		listenersCollected++;
+		entries[size] = entry;
+		order[size] = size;
+		size++;
+		presorted = true;
+	}
+
+	/**
+	 * Invokes the collected listeners in order of their priority and releases the buffer
+	 */
+	void dispatch() {
+		int invoked = 0;
+		try {
+			assignSources();
+			if(!presorted)
+				Arrays.sort(order, 0, size);
+			boolean traced = SlowListenerEvent.isTypeEnabled();
+			while(invoked < size) {
+				ListenerEntry entry = entries[(int) order[invoked++]];
+				if(traced)
+					SlowListenerEvent.call(entry);
+				else
+					entry.listener.call();
+			}
+		} finally {
+			release(invoked);
+		}
+	}
+
+	/**
+	 * Passes the collected listeners ordered by their priority to the {@link AsyncDispatcher} and releases the buffer.
+	 * The {@link ListenerInvoker ListenerInvokers} are bound first, so that they receive the state of this notification even if the next one is made before they run.
+	 * @param queue queue of the notified tree
+	 */
+	void dispatchAsync(AsyncDispatcher.TreeQueue queue) {
+		try {
+			assignSources();
+			if(!presorted)
+				Arrays.sort(order, 0, size);
+			ListenerEntry[] sorted = new ListenerEntry[size];
+			ChangeListener[] bound = new ChangeListener[size];
+			for (int i = 0; i < size; i++) {
+				ListenerEntry entry = entries[(int) order[i]];
+				sorted[i] = entry;
+				bound[i] = entry.listener instanceof ListenerInvoker ? ((ListenerInvoker) entry.listener).bind() : entry.listener;
+			}
+			AsyncDispatcher.submit(queue, sorted, bound);
+		} finally {
+			release(size);
+		}
+	}
+
+	private void assignSources() {
+		if(sourceOwners)
+			ChangeSources.assign(sources, sourceFlags, sourceLinks, sourceCount, sourcesShared);
+	}
+
+	private void release(int invoked) {
+		ObservableMetrics measured = metrics;
+		NotificationEvent recorded = event;
+		Observable measuredSource = source;
+		int traversed = nodesTraversed;
+		int collected = listenersCollected;
+		Arrays.fill(entries, 0, size, null);
+		size = 0;
+		presorted = false;
+		if(sourceOwners)
+			ChangeSources.release(sources, sourceFlags, sourceCount);
+		Arrays.fill(sources, 0, sourceCount, null);
+		sourceCount = 0;
+		sourceOwners = false;
+		sourcePath = -1;
+		sourcePathDownwards = false;
+		sourcesShared = false;
+		metrics = null;
+		event = null;
+		source = null;
+		nodesTraversed = 0;
+		listenersCollected = 0;
+		if(++stamp == 0) {
+			Arrays.fill(slotStamps, 0);
+			stamp = 1;
+		}
+		inUse = false;
+		if(recorded != null)
+			commit(recorded, measuredSource, traversed, invoked);
+		if(measured != null)
+			measured.onNotification(measuredSource, traversed, collected, invoked, System.nanoTime() - startTime);
+	}
+
+	private static void commit(NotificationEvent event, Observable source, int nodesVisited, int listenersFired) {
+		event.end();
+		if(!event.shouldCommit())
+			return;
+		event.observableType = source != null ? source.getClass() : null;
+		event.nodesVisited = nodesVisited;
+		event.listenersFired = listenersFired;
+		event.commit();
+	}
+
+	private void growTable() {
+		slots = new int[slots.length * 2];
+		slotStamps = new int[slots.length];
+		int mask = slots.length - 1;
+		for (int i = 0; i < size; i++) {
+			int slot = hash(entries[i]) & mask;
+			while(slotStamps[slot] == stamp)
+				slot = (slot + 1) & mask;
+			slotStamps[slot] = stamp;
+			slots[slot] = i;
+		}
+	}
+
+	private static int hash(ListenerEntry entry) {
+		int hash = 31 * entry.listener.hashCode() + entry.priority;
+		return hash ^ (hash >>> 16);
+	}
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree;
+
+import java.io.Serializable;
+import java.util.function.DoubleSupplier;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * A primitive specialization of the {@link SettableProperty} holding an unboxed {@code double} {@link #modelValue} and notifying it's listeners when it is set.
+ * The values are compared in the same way as by {@link Double#equals(Object)} - {@code NaN} is equal to itself and {@code 0.0} is different from {@code -0.0}.
+ * It supports {@link #defaultValue} for the {@link #modelValue} that can be set and reset to.
+ *
+ * @author Stanisław Góra
+ * @see SettableProperty
+ */
+public class DoubleProperty extends Observable implements DoubleSupplier, Serializable {
+
+	/**
+	 * Current value of the encapsulated {@code double}
+	 */
+	protected double modelValue;
+	/**
+	 * Default value of the encapsulated {@code double}
+	 */
+	protected double defaultValue;
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Constructs a new {@code DoubleProperty} with {@code 0} {@link #modelValue}
+	 */
+	public DoubleProperty() {
+	}
+
+	/**
+	 * Constructs a new {@code DoubleProperty} with the specified {@link #modelValue}
+	 * @param modelValue a value to be set
+	 */
+	public DoubleProperty(double modelValue) {
+		this.modelValue = modelValue;
+	}
+
+	/**
+	 * Returns the current {@link #modelValue} of this {@code DoubleProperty}
+	 * @return the current {@link #modelValue}
+	 */
+	@Override
+	public double getAsDouble() {
+		onValueRead();
+		return modelValue;
+	}
+
+	/**
+	 * Sets the {@link #modelValue} of this {@code DoubleProperty}
+	 * @param modelValue value to be set
+	 */
+	public void set(double modelValue) {
+		if(Double.doubleToLongBits(this.modelValue) == Double.doubleToLongBits(modelValue))
+			return;
+		this.modelValue = modelValue;
+		onValueChanged();
+	}
+
+	/**
+	 * Sets the {@link #modelValue} and calls {@link #notifyListeners()}
+	 * @param modelValue value to be set
+	 */
+	public void setAndNotify(double modelValue) {
+		set(modelValue);
+		notifyListeners();
+	}
+
+	/**
+	 * Modifies the {@link #modelValue} of this {@code DoubleProperty} inline
+	 * @param operator operation to be performed on {@link #modelValue}
+	 */
+	public void modify(DoubleUnaryOperator operator) {
+		set(operator.applyAsDouble(modelValue));
+	}
+
+	/**
+	 * Sets the {@link #modelValue} of this {@code DoubleProperty} to the {@link #defaultValue}
+	 */
+	public void resetToDefaultValue() {
+		set(defaultValue);
+	}
+
+	/**
+	 * Returns the {@link #defaultValue} of this {@code DoubleProperty}
+	 * @return the {@link #defaultValue} of this object
+	 */
+	public double getDefaultValue() {
+		return defaultValue;
+	}
+
+	/**
+	 * Sets the {@link #defaultValue} of this {@code DoubleProperty}
+	 * @param defaultValue  value to be set
+	 */
+	public void setDefaultValue(double defaultValue) {
+		this.defaultValue = defaultValue;
+	}
+
+	/**
+	 * Sets the {@link #defaultValue} of this {@code DoubleProperty} to be equal to the current {@link #modelValue}
+	 */
+	public void saveAsDefaultValue() {
+		setDefaultValue(modelValue);
+	}
+
+}
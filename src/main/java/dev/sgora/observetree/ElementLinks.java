@@ -0,0 +1,82 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Internal reference counts of the {@code Observable} elements of an observable collection.
+ * An element is added as a sub-observable of the collection when its first occurrence is added and removed with its last occurrence.
+ * Linking does not propagate the changes of the elements - the collection marks itself as changed once per modification instead.
+ *
+ * @author Stanisław Góra
+ * @see ObservableList
+ * @see ObservableMap
+ */
+final class ElementLinks {
+
+	private final Observable owner;
+	private final Map<Observable, Integer> counts = new IdentityHashMap<>();
+
+	ElementLinks(Observable owner) {
+		this.owner = owner;
+	}
+
+	/**
+	 * Records a new occurrence of the element, linking it if it is an {@code Observable} not contained before.
+	 * It should be called before the element is added to the collection, so that the collection is not modified if linking fails.
+	 * @param element added element
+	 * @return {@code true} if the element was linked and it is marked as changed
+	 * @throws IllegalArgumentException if the element can not be linked, e.g. it would create a cycle
+	 */
+	boolean link(Object element) {
+		if(!(element instanceof Observable))
+			return false;
+		Observable observable = (Observable) element;
+		Integer count = counts.get(observable);
+		if(count == null)
+			owner.link(observable);
+		counts.put(observable, count == null ? 1 : count + 1);
+		return count == null && observable.isValueChanged();
+	}
+
+	/**
+	 * Records the new occurrences of all the elements, unlinking the ones already linked if one of them fails
+	 * @param elements added elements
+	 * @return {@code true} if one of the linked elements is marked as changed
+	 * @throws IllegalArgumentException if one of the elements can not be linked
+	 */
+	boolean linkAll(List<?> elements) {
+		int linked = 0;
+		boolean changed = false;
+		try {
+			for (; linked < elements.size(); linked++)
+				changed |= link(elements.get(linked));
+			return changed;
+		} catch (RuntimeException e) {
+			for (int i = 0; i < linked; i++)
+				unlink(elements.get(i));
+			throw e;
+		}
+	}
+
+	/**
+	 * Records the removal of an occurrence of the element, unlinking it if it was the last one
+	 * @param element removed element
+	 */
+	void unlink(Object element) {
+		if(!(element instanceof Observable))
+			return;
+		Observable observable = (Observable) element;
+		if(counts.computeIfPresent(observable, (key, count) -> count == 1 ? null : count - 1) == null)
+			owner.removeSubObservable(observable);
+	}
+
+}
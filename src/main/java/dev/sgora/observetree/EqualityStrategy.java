@@ -0,0 +1,83 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree;
+
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.function.BiPredicate;
+
+/**
+ * Strategy deciding whether a value set to a {@link SettableProperty} differs from the current one, and so whether the property is marked as changed.
+ * Comparing large values with {@code equals()} on every write can be costly - when they are immutable, comparing their identity is enough.
+ *
+ * @param <T> the type of the compared values
+ *
+ * @author Stanisław Góra
+ * @see SettableProperty#setEqualityStrategy(EqualityStrategy)
+ */
+@FunctionalInterface
+public interface EqualityStrategy<T> {
+
+	/**
+	 * Checks whether the new value is equal to the current one
+	 * @param current current value, can be {@code null}
+	 * @param updated value being set, can be {@code null}
+	 * @return {@code true} if the values are equal and the property should not be marked as changed
+	 */
+	boolean equal(T current, T updated);
+
+	/**
+	 * Returns the strategy comparing the values with {@code equals()}, treating two {@code null} values as equal. Used by default.
+	 * @param <T> the type of the compared values
+	 * @return the {@code equals()} strategy
+	 */
+	static <T> EqualityStrategy<T> equality() {
+		return Objects::equals;
+	}
+
+	/**
+	 * Returns the strategy comparing the references of the values
+	 * @param <T> the type of the compared values
+	 * @return the identity strategy
+	 */
+	static <T> EqualityStrategy<T> identity() {
+		return (current, updated) -> current == updated;
+	}
+
+	/**
+	 * Returns the strategy considering every value set as a change
+	 * @param <T> the type of the compared values
+	 * @return the always changed strategy
+	 */
+	static <T> EqualityStrategy<T> alwaysChanged() {
+		return (current, updated) -> false;
+	}
+
+	/**
+	 * Returns the strategy considering the values equal when the comparator returns 0. {@code null} values are only equal to each other.
+	 * @param comparator comparator of the values
+	 * @param <T> the type of the compared values
+	 * @return the comparator strategy
+	 */
+	static <T> EqualityStrategy<T> comparing(Comparator<? super T> comparator) {
+		Objects.requireNonNull(comparator);
+		return (current, updated) -> current == updated || current != null && updated != null && comparator.compare(current, updated) == 0;
+	}
+
+	/**
+	 * Returns the strategy backed by an existing predicate
+	 * @param predicate predicate returning {@code true} for equal values
+	 * @param <T> the type of the compared values
+	 * @return the predicate strategy
+	 */
+	static <T> EqualityStrategy<T> of(BiPredicate<? super T, ? super T> predicate) {
+		Objects.requireNonNull(predicate);
+		return predicate::test;
+	}
+
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable view of an {@code Observable} tree - its structure and the values of its properties - at the time it was taken.
+ * It can be read from any thread without locking while the tree itself keeps being modified.
+ *
+ * <p>
+ * The views are shared between the consecutive snapshots of a tree. Each {@code Observable} keeps its last view until it or one of its descendants changes,
+ * so a new snapshot only rebuilds the views of the changed {@code Observables} and their ancestors and takes time proportional to the changes since the previous one.
+ * The {@code Observables} shared by many parents have a single view shared by the views of their parents.
+ *
+ * <p>
+ * The value of an {@link IntProperty}, {@link LongProperty}, {@link DoubleProperty}, {@link BooleanProperty}, {@link SettableProperty} or {@link ComputedProperty}
+ * is the value it held, the value of a {@link SettableObservable} is the view of its {@code modelValue}. The values are not copied,
+ * so the view is only immutable as long as they are. The value of an {@link ObservableList} or {@link ObservableMap} is a read-only copy of its elements,
+ * taken by the first snapshot after it changes. That copy takes time proportional to the size of the collection, not to the change,
+ * so a large collection modified between most of the snapshots is better split into smaller ones.
+ * The children are kept in the order of {@link Observable#getChildren()}.
+ *
+ * <p>
+ * A snapshot has to be taken by the thread modifying the tree, or while the tree is not modified, e.g. right after {@link Observable#notifyListeners()}.
+ * It can then be handed to the readers through a {@code volatile} field. {@link ConcurrentObservable} trees, modified by many threads at once, cannot be frozen.
+ *
+ * @author Stanisław Góra
+ */
+public final class FrozenObservable {
+
+	private static final FrozenObservable[] NO_CHILDREN = {};
+
+	private final Class<? extends Observable> type;
+	private final Object value;
+	private final FrozenObservable[] children;
+
+	private FrozenObservable(Class<? extends Observable> type, Object value, FrozenObservable[] children) {
+		this.type = type;
+		this.value = value;
+		this.children = children;
+	}
+
+	/**
+	 * Takes an immutable snapshot of the tree, reusing the views of the {@code Observables} that have not changed since the previous one
+	 * @param root {@code Observable} the snapshot is taken from, all the {@code Observables} reachable through their children are included
+	 * @return the view of the {@code root}
+	 * @throws IllegalArgumentException if the {@code root} is a {@link ConcurrentObservable}
+	 * @throws IllegalStateException if the tree contains a cycle
+	 */
+	public static FrozenObservable of(Observable root) {
+		if(root instanceof ConcurrentObservable)
+			throw new IllegalArgumentException("ConcurrentObservable trees can not be frozen");
+		if(root.frozen != null)
+			return root.frozen;
+		long stamp = Observable.nextTraversalStamp();
+		TraversalStack stack = TraversalStack.acquire();
+		try {
+			push(root, stamp, stack);
+			while(!stack.isEmpty()) {
+				Observable observable = stack.peek();
+				// the slot 0 of a SettableObservable holds its modelValue, the children follow
+				int offset = observable instanceof SettableObservable ? 1 : 0;
+				int slot = stack.nextPosition();
+				if(slot < offset + observable.getChildCount()) {
+					Observable next = slot < offset ? ((SettableObservable<?>) observable).modelValue : observable.getChild(slot - offset);
+					if(next != null && next.frozen == null)
+						push(next, stamp, stack);
+					continue;
+				}
+				stack.pop();
+				observable.frozen = freeze(observable);
+			}
+		} finally {
+			stack.release();
+		}
+		return root.frozen;
+	}
+
+	private static void push(Observable observable, long stamp, TraversalStack stack) {
+		if(!observable.visit(stamp))
+			throw new IllegalStateException("Observable tree contains a cycle");
+		// a stale ComputedProperty might change its dependencies once recomputed
+		if(observable instanceof ComputedProperty)
+			((ComputedProperty<?>) observable).get();
+		stack.push(observable);
+	}
+
+	private static FrozenObservable freeze(Observable observable) {
+		int count = observable.getChildCount();
+		FrozenObservable[] children = count == 0 ? NO_CHILDREN : new FrozenObservable[count];
+		for (int i = 0; i < count; i++)
+			children[i] = observable.getChild(i).frozen;
+		return new FrozenObservable(observable.getClass(), valueOf(observable), children);
+	}
+
+	private static Object valueOf(Observable observable) {
+		if(observable instanceof IntProperty)
+			return ((IntProperty) observable).modelValue;
+		if(observable instanceof LongProperty)
+			return ((LongProperty) observable).modelValue;
+		if(observable instanceof DoubleProperty)
+			return ((DoubleProperty) observable).modelValue;
+		if(observable instanceof BooleanProperty)
+			return ((BooleanProperty) observable).modelValue;
+		if(observable instanceof SettableObservable) {
+			Observable modelValue = ((SettableObservable<?>) observable).modelValue;
+			return modelValue != null ? modelValue.frozen : null;
+		}
+		if(observable instanceof SettableProperty)
+			return ((SettableProperty<?>) observable).modelValue;
+		if(observable instanceof ComputedProperty)
+			return ((ComputedProperty<?>) observable).get();
+		if(observable instanceof ObservableList)
+			return ((ObservableList<?>) observable).copyElements();
+		if(observable instanceof ObservableMap)
+			return ((ObservableMap<?, ?>) observable).copyEntries();
+		return null;
+	}
+
+	/**
+	 * Returns the class of the {@code Observable} this view was taken of
+	 * @return the {@code Observable} class
+	 */
+	public Class<? extends Observable> getType() {
+		return type;
+	}
+
+	/**
+	 * Returns the value the {@code Observable} held, boxed for the primitive properties
+	 * @return the value of the {@code Observable}, {@code null} if it is not a property
+	 */
+	public Object getValue() {
+		return value;
+	}
+
+	/**
+	 * Returns the number of children of the {@code Observable}
+	 * @return the number of children
+	 */
+	public int getChildCount() {
+		return children.length;
+	}
+
+	/**
+	 * Returns the view of the child at the specified position
+	 * @param position position of the child, must be lower than {@link #getChildCount()}
+	 * @return the view of the child
+	 */
+	public FrozenObservable getChild(int position) {
+		return children[position];
+	}
+
+	/**
+	 * Returns the views of the children of the {@code Observable}
+	 * @return a read-only list of the views of the children
+	 */
+	public List<FrozenObservable> getChildren() {
+		return Collections.unmodifiableList(Arrays.asList(children));
+	}
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree;
+
+import java.io.Serializable;
+import java.util.function.IntSupplier;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * A primitive specialization of the {@link SettableProperty} holding an unboxed {@code int} {@link #modelValue} and notifying it's listeners when it is set.
+ * {@code ==} operator is used to determine if {@link #modelValue} was changed.
+ * It supports {@link #defaultValue} for the {@link #modelValue} that can be set and reset to.
+ *
+ * @author Stanisław Góra
+ * @see SettableProperty
+ */
+public class IntProperty extends Observable implements IntSupplier, Serializable {
+
+	/**
+	 * Current value of the encapsulated {@code int}
+	 */
+	protected int modelValue;
+	/**
+	 * Default value of the encapsulated {@code int}
+	 */
+	protected int defaultValue;
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Constructs a new {@code IntProperty} with {@code 0} {@link #modelValue}
+	 */
+	public IntProperty() {
+	}
+
+	/**
+	 * Constructs a new {@code IntProperty} with the specified {@link #modelValue}
+	 * @param modelValue a value to be set
+	 */
+	public IntProperty(int modelValue) {
+		this.modelValue = modelValue;
+	}
+
+	/**
+	 * Returns the current {@link #modelValue} of this {@code IntProperty}
+	 * @return the current {@link #modelValue}
+	 */
+	@Override
+	public int getAsInt() {
+		onValueRead();
+		return modelValue;
+	}
+
+	/**
+	 * Sets the {@link #modelValue} of this {@code IntProperty}
+	 * @param modelValue value to be set
+	 */
+	public void set(int modelValue) {
+		if(this.modelValue == modelValue)
+			return;
+		this.modelValue = modelValue;
+		onValueChanged();
+	}
+
+	/**
+	 * Sets the {@link #modelValue} and calls {@link #notifyListeners()}
+	 * @param modelValue value to be set
+	 */
+	public void setAndNotify(int modelValue) {
+		set(modelValue);
+		notifyListeners();
+	}
+
+	/**
+	 * Modifies the {@link #modelValue} of this {@code IntProperty} inline
+	 * @param operator operation to be performed on {@link #modelValue}
+	 */
+	public void modify(IntUnaryOperator operator) {
+		set(operator.applyAsInt(modelValue));
+	}
+
+	/**
+	 * Sets the {@link #modelValue} of this {@code IntProperty} to the {@link #defaultValue}
+	 */
+	public void resetToDefaultValue() {
+		set(defaultValue);
+	}
+
+	/**
+	 * Returns the {@link #defaultValue} of this {@code IntProperty}
+	 * @return the {@link #defaultValue} of this object
+	 */
+	public int getDefaultValue() {
+		return defaultValue;
+	}
+
+	/**
+	 * Sets the {@link #defaultValue} of this {@code IntProperty}
+	 * @param defaultValue  value to be set
+	 */
+	public void setDefaultValue(int defaultValue) {
+		this.defaultValue = defaultValue;
+	}
+
+	/**
+	 * Sets the {@link #defaultValue} of this {@code IntProperty} to be equal to the current {@link #modelValue}
+	 */
+	public void saveAsDefaultValue() {
+		setDefaultValue(modelValue);
+	}
+
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree;
+
+import dev.sgora.observetree.enums.ChangeType;
+import dev.sgora.observetree.listener.ListChangeListener;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A single change of a continuous range of the {@link ObservableList} elements, starting at the position {@link #getFrom()}.
+ * The {@link #getRemoved()} elements were replaced by the {@link #getAdded()} elements - for the {@link ChangeType#ADDED} changes there are no removed elements,
+ * for the {@link ChangeType#REMOVED} ones no added elements and the {@link ChangeType#REPLACED} ones have the same number of both.
+ *
+ * @param <E> the type of the list elements
+ *
+ * @author Stanisław Góra
+ * @see ListChangeListener
+ */
+public final class ListChange<E> {
+
+	private final ChangeType type;
+	private int from;
+	private final List<E> removed;
+	private final List<E> added;
+
+	/**
+	 * @param removed removed elements, owned by the change from now on
+	 * @param added added elements, owned by the change from now on
+	 */
+	ListChange(ChangeType type, int from, List<E> removed, List<E> added) {
+		this.type = type;
+		this.from = from;
+		this.removed = removed;
+		this.added = added;
+	}
+
+	/**
+	 * Extends this change with the next one if they make up a single continuous change of the same type
+	 * @return {@code true} if the next change was merged into this one
+	 */
+	boolean merge(ChangeType type, int from, List<E> removed, List<E> added) {
+		if(type != this.type || type == ChangeType.REPLACED)
+			return false;
+		if(type == ChangeType.ADDED && from == getTo()) {
+			this.added.addAll(added);
+			return true;
+		}
+		if(type == ChangeType.REMOVED && from == this.from) {
+			this.removed.addAll(removed);
+			return true;
+		}
+		if(type == ChangeType.REMOVED && from + removed.size() == this.from) {
+			this.removed.addAll(0, removed);
+			this.from = from;
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the type of this change
+	 * @return the type of this change
+	 */
+	public ChangeType getType() {
+		return type;
+	}
+
+	/**
+	 * Returns the position of the first changed element
+	 * @return the position the change starts at
+	 */
+	public int getFrom() {
+		return from;
+	}
+
+	/**
+	 * Returns the position following the last added element
+	 * @return the position the added elements end at
+	 */
+	public int getTo() {
+		return from + added.size();
+	}
+
+	/**
+	 * Returns the elements removed from the list
+	 * @return a read-only list of the removed elements
+	 */
+	public List<E> getRemoved() {
+		return Collections.unmodifiableList(removed);
+	}
+
+	/**
+	 * Returns the elements added to the list
+	 * @return a read-only list of the added elements
+	 */
+	public List<E> getAdded() {
+		return Collections.unmodifiableList(added);
+	}
+
+	@Override
+	public String toString() {
+		return type + " at " + from + ": " + removed + " -> " + added;
+	}
+
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree;
+
+import dev.sgora.observetree.listener.ChangeListener;
+
+/**
+ * Internal {@code ChangeListener} registered on behalf of another listener, e.g. a {@link dev.sgora.observetree.listener.ValueChangeListener}
+ * receiving the state of the {@code Observable} recorded by the notification - the values or the changes it consumed - or a weak one.
+ *
+ * <p>
+ * That state is overwritten by the next notification, so an {@link dev.sgora.observetree.enums.ListenerNotification#ASYNC} notification
+ * {@link #bind() binds} the invokers while the listeners are collected and runs the bound ones on the executor.
+ * The wrapped listener is reported by the {@link SlowListenerEvent} instead of the invoker.
+ *
+ * @author Stanisław Góra
+ * @see DispatchBuffer#dispatchAsync(AsyncDispatcher.TreeQueue)
+ */
+interface ListenerInvoker extends ChangeListener {
+
+	/**
+	 * Captures the state recorded by the current notification
+	 * @return listener invoking the wrapped one with the captured state
+	 */
+	ChangeListener bind();
+
+	/**
+	 * Returns the listener invoked by this one
+	 * @return the wrapped listener, {@code null} if it is no longer available
+	 */
+	Object getListener();
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree;
+
+import java.io.Serializable;
+import java.util.function.LongSupplier;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * A primitive specialization of the {@link SettableProperty} holding an unboxed {@code long} {@link #modelValue} and notifying it's listeners when it is set.
+ * {@code ==} operator is used to determine if {@link #modelValue} was changed.
+ * It supports {@link #defaultValue} for the {@link #modelValue} that can be set and reset to.
+ *
+ * @author Stanisław Góra
+ * @see SettableProperty
+ */
+public class LongProperty extends Observable implements LongSupplier, Serializable {
+
+	/**
+	 * Current value of the encapsulated {@code long}
+	 */
+	protected long modelValue;
+	/**
+	 * Default value of the encapsulated {@code long}
+	 */
+	protected long defaultValue;
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Constructs a new {@code LongProperty} with {@code 0} {@link #modelValue}
+	 */
+	public LongProperty() {
+	}
+
+	/**
+	 * Constructs a new {@code LongProperty} with the specified {@link #modelValue}
+	 * @param modelValue a value to be set
+	 */
+	public LongProperty(long modelValue) {
+		this.modelValue = modelValue;
+	}
+
+	/**
+	 * Returns the current {@link #modelValue} of this {@code LongProperty}
+	 * @return the current {@link #modelValue}
+	 */
+	@Override
+	public long getAsLong() {
+		onValueRead();
+		return modelValue;
+	}
+
+	/**
+	 * Sets the {@link #modelValue} of this {@code LongProperty}
+	 * @param modelValue value to be set
+	 */
+	public void set(long modelValue) {
+		if(this.modelValue == modelValue)
+			return;
+		this.modelValue = modelValue;
+		onValueChanged();
+	}
+
+	/**
+	 * Sets the {@link #modelValue} and calls {@link #notifyListeners()}
+	 * @param modelValue value to be set
+	 */
+	public void setAndNotify(long modelValue) {
+		set(modelValue);
+		notifyListeners();
+	}
+
+	/**
+	 * Modifies the {@link #modelValue} of this {@code LongProperty} inline
+	 * @param operator operation to be performed on {@link #modelValue}
+	 */
+	public void modify(LongUnaryOperator operator) {
+		set(operator.applyAsLong(modelValue));
+	}
+
+	/**
+	 * Sets the {@link #modelValue} of this {@code LongProperty} to the {@link #defaultValue}
+	 */
+	public void resetToDefaultValue() {
+		set(defaultValue);
+	}
+
+	/**
+	 * Returns the {@link #defaultValue} of this {@code LongProperty}
+	 * @return the {@link #defaultValue} of this object
+	 */
+	public long getDefaultValue() {
+		return defaultValue;
+	}
+
+	/**
+	 * Sets the {@link #defaultValue} of this {@code LongProperty}
+	 * @param defaultValue  value to be set
+	 */
+	public void setDefaultValue(long defaultValue) {
+		this.defaultValue = defaultValue;
+	}
+
+	/**
+	 * Sets the {@link #defaultValue} of this {@code LongProperty} to be equal to the current {@link #modelValue}
+	 */
+	public void saveAsDefaultValue() {
+		setDefaultValue(modelValue);
+	}
+
+}
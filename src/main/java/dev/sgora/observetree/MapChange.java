@@ -0,0 +1,73 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree;
+
+import dev.sgora.observetree.enums.ChangeType;
+import dev.sgora.observetree.listener.MapChangeListener;
+
+/**
+ * A change of a single {@link ObservableMap} entry. The {@link ChangeType#ADDED} changes have no old value and the {@link ChangeType#REMOVED} ones no new value.
+ *
+ * @param <K> the type of the map keys
+ * @param <V> the type of the map values
+ *
+ * @author Stanisław Góra
+ * @see MapChangeListener
+ */
+public final class MapChange<K, V> {
+
+	private final ChangeType type;
+	private final K key;
+	private final V oldValue;
+	private final V newValue;
+
+	MapChange(ChangeType type, K key, V oldValue, V newValue) {
+		this.type = type;
+		this.key = key;
+		this.oldValue = oldValue;
+		this.newValue = newValue;
+	}
+
+	/**
+	 * Returns the type of this change
+	 * @return the type of this change
+	 */
+	public ChangeType getType() {
+		return type;
+	}
+
+	/**
+	 * Returns the key of the changed entry
+	 * @return the key of the entry
+	 */
+	public K getKey() {
+		return key;
+	}
+
+	/**
+	 * Returns the value the key was mapped to before the change
+	 * @return the old value, {@code null} if the entry was added
+	 */
+	public V getOldValue() {
+		return oldValue;
+	}
+
+	/**
+	 * Returns the value the key is mapped to after the change
+	 * @return the new value, {@code null} if the entry was removed
+	 */
+	public V getNewValue() {
+		return newValue;
+	}
+
+	@Override
+	public String toString() {
+		return type + " " + key + ": " + oldValue + " -> " + newValue;
+	}
+
+}
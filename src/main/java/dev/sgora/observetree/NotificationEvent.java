@@ -0,0 +1,50 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event of a single notification pass, from collecting the listeners to invoking - or scheduling - the last one.
+ * Emitted as {@code dev.sgora.observetree.Notification}.
+ *
+ * @author Stanisław Góra
+ * @see Observable#notifyListeners()
+ */
+@Name("dev.sgora.observetree.Notification")
+@Label("Observable Notification")
+@Category("Observetree")
+@Description("Notification of the listeners of the changed Observables")
+final class NotificationEvent extends Event {
+
+	private static final EventType TYPE = EventType.getEventType(NotificationEvent.class);
+
+	@Label("Observable Type")
+	@Description("Class of the notified Observable, missing for deferred notifications of many Observables")
+	Class<?> observableType;
+
+	@Label("Nodes Visited")
+	int nodesVisited;
+
+	@Label("Listeners Fired")
+	int listenersFired;
+
+	/**
+	 * Checks whether any running recording has this event enabled, without allocating
+	 * @return {@code true} if the event should be created
+	 */
+	static boolean isTypeEnabled() {
+		return TYPE.isEnabled();
+	}
+
+}
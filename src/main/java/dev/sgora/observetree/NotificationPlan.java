@@ -0,0 +1,205 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree;
+
+import dev.sgora.observetree.listener.ListenerEntry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Internal precompiled notification of a single {@code Observable}, cached for trees whose structure rarely changes.
+ * It holds all the {@code Observables} visited by the notification in traversal order and all their listeners, deduplicated and sorted by priority,
+ * each with the {@code Observables} it is registered on. A notification is then a linear pass over the plan - the changed {@code Observables} are found
+ * and their listeners are taken in order, without building a set or sorting.
+ *
+ * <p>
+ * The plans of a tree are invalidated by its {@link TreeEpoch#structure() structure version} which is incremented on every structural or listener change in that tree.
+ * A plan is only built for the second notification made with no such change in between, so that frequently modified trees do not pay for it.
+ *
+ * @author Stanisław Góra
+ * @see Observable#notifyListeners()
+ */
+final class NotificationPlan {
+
+	private final long version;
+	/**
+	 * Visited {@code Observables} in traversal order, {@code null} for a placeholder recording the first notification
+	 */
+	private final Observable[] observables;
+	private final boolean[] changed;
+	/**
+	 * Unique listener entries sorted by priority, the {@code Observables} of the entry {@code i} are {@code owners[ownerStarts[i] .. ownerStarts[i + 1]]}
+	 */
+	private final ListenerEntry[] entries;
+	private final int[] ownerStarts;
+	private final int[] owners;
+	/**
+	 * Traversal paths of the {@code observables}, {@code null} if none of them has {@link ChangeSources}
+	 */
+	private final SourcePaths sourcePaths;
+
+	private NotificationPlan(long version, Observable[] observables, ListenerEntry[] entries, int[] ownerStarts, int[] owners, SourcePaths sourcePaths) {
+		this.version = version;
+		this.observables = observables;
+		this.changed = observables != null ? new boolean[observables.length] : null;
+		this.entries = entries;
+		this.ownerStarts = ownerStarts;
+		this.owners = owners;
+		this.sourcePaths = sourcePaths;
+	}
+
+	/**
+	 * Returns the plan to be used for the next notification of the {@code Observable}
+	 * @param source notified {@code Observable}
+	 * @param cached plan cached for the {@code source}, {@code null} if there is none
+	 * @return the plan to be cached, which is not {@link #isCompiled() compiled} if the structure has just changed
+	 */
+	static NotificationPlan of(Observable source, NotificationPlan cached) {
+		long current = source.structureVersion();
+		if(cached == null || cached.version != current)
+			return new NotificationPlan(current, null, null, null, null, null);
+		if(cached.isCompiled())
+			return cached;
+		return compile(source, current);
+	}
+
+	/**
+	 * Checks whether this plan can be used to collect the listeners
+	 * @return {@code false} if it is a placeholder
+	 */
+	boolean isCompiled() {
+		return observables != null;
+	}
+
+	/**
+	 * Resets the changed flag of the {@code Observables} of this plan and collects the listeners of the changed ones, in order
+	 * @param buffer buffer to collect the listeners into
+	 */
+	void collect(DispatchBuffer buffer) {
+		int changedCount = 0;
+		buffer.beginSources();
+		for (int i = 0; i < observables.length; i++) {
+			if(sourcePaths != null)
+				sourcePaths.enter(buffer, i);
+			if(observables[i].consumeChange(buffer)) {
+				changed[i] = true;
+				changedCount++;
+			}
+			if(sourcePaths != null)
+				sourcePaths.leave(buffer, i);
+		}
+		if(sourcePaths != null && sourcePaths.shared)
+			buffer.markSourcesShared();
+		if(changedCount == 0)
+			return;
+		for (int i = 0; i < entries.length; i++) {
+			for (int owner = ownerStarts[i]; owner < ownerStarts[i + 1]; owner++) {
+				if(changed[owners[owner]]) {
+					buffer.addOrdered(entries[i]);
+					break;
+				}
+			}
+		}
+		Arrays.fill(changed, false);
+	}
+
+	private static NotificationPlan compile(Observable source, long version) {
+		List<Observable> visited = new ArrayList<>();
+		List<Integer> visitedFrom = new ArrayList<>();
+		source.collectNotifiedObservables(visited, visitedFrom);
+		Map<ListenerEntry, Integer> positions = new HashMap<>();
+		List<ListenerEntry> entries = new ArrayList<>();
+		List<List<Integer>> entryOwners = new ArrayList<>();
+		for (int i = 0; i < visited.size(); i++) {
+			for (ListenerEntry entry : visited.get(i).getListenerEntries()) {
+				Integer position = positions.putIfAbsent(entry, entries.size());
+				if(position == null) {
+					position = entries.size();
+					entries.add(entry);
+					entryOwners.add(new ArrayList<>(1));
+				}
+				entryOwners.get(position).add(i);
+			}
+		}
+		// stable sort keeps the traversal order within a priority
+		Integer[] order = new Integer[entries.size()];
+		Arrays.setAll(order, i -> i);
+		Arrays.sort(order, (first, second) -> entries.get(first).compareTo(entries.get(second)));
+
+		ListenerEntry[] sortedEntries = new ListenerEntry[order.length];
+		int[] ownerStarts = new int[order.length + 1];
+		int[] owners = new int[entryOwners.stream().mapToInt(List::size).sum()];
+		int ownerCount = 0;
+		for (int i = 0; i < order.length; i++) {
+			sortedEntries[i] = entries.get(order[i]);
+			ownerStarts[i] = ownerCount;
+			for (int owner : entryOwners.get(order[i]))
+				owners[ownerCount++] = owner;
+		}
+		ownerStarts[order.length] = ownerCount;
+		return new NotificationPlan(version, visited.toArray(new Observable[0]), sortedEntries, ownerStarts, owners, SourcePaths.of(visited, visitedFrom));
+	}
+
+	/**
+	 * Traversal paths of a plan, passed to the {@link DispatchBuffer} so that the sources are linked like in a plain traversal
+	 */
+	private static final class SourcePaths {
+		private final int[] visitedFrom;
+		/**
+		 * Source links of the paths leading to the relatives of each {@code Observable}, recorded by the current notification
+		 */
+		private final int[] links;
+		private final int downwardsStart;
+		private final boolean shared;
+
+		private SourcePaths(int[] visitedFrom, int downwardsStart, boolean shared) {
+			this.visitedFrom = visitedFrom;
+			this.links = new int[visitedFrom.length];
+			this.downwardsStart = downwardsStart;
+			this.shared = shared;
+		}
+
+		void enter(DispatchBuffer buffer, int position) {
+			int from = visitedFrom[position];
+			buffer.setSourcePath(from >= 0 ? links[from] : -1, position >= downwardsStart);
+		}
+
+		void leave(DispatchBuffer buffer, int position) {
+			links[position] = buffer.getSourcePath();
+		}
+
+		static SourcePaths of(List<Observable> visited, List<Integer> visitedFrom) {
+			if(visited.stream().noneMatch(observable -> observable.getChangeSources() != null))
+				return null;
+			int downwardsStart = visitedFrom.subList(1, visitedFrom.size()).indexOf(-1) + 1;
+			Set<Observable> ancestors = Collections.newSetFromMap(new IdentityHashMap<>());
+			ancestors.addAll(visited.subList(0, downwardsStart));
+			Set<Observable> descendants = Collections.newSetFromMap(new IdentityHashMap<>());
+			descendants.addAll(visited.subList(downwardsStart, visited.size()));
+			// an Observable reachable by many paths is only linked to the first one
+			boolean shared = false;
+			for (Observable observable : ancestors)
+				shared |= countRelatives(observable.getChildren(), ancestors) > 1;
+			for (Observable observable : descendants)
+				shared |= countRelatives(observable.getParents(), descendants) > 1;
+			return new SourcePaths(visitedFrom.stream().mapToInt(Integer::intValue).toArray(), downwardsStart, shared);
+		}
+
+		private static long countRelatives(Set<Observable> relatives, Set<Observable> visited) {
+			return relatives.stream().filter(visited::contains).count();
+		}
+	}
+
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree;
+
+import dev.sgora.observetree.enums.ListenerNotification;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides when the changes gathered from the {@link ListenerNotification#COALESCED} {@code Observables} are delivered.
+ * It is called once for the first change made after the previous delivery and should arrange for the {@code flush} to be run later,
+ * <b>on a thread that is allowed to access the observed tree</b>.
+ * <p>This is a <i>functional interface</i> whose functional method is {@link #schedule(Runnable)}
+ *
+ * @author Stanisław Góra
+ * @see Observable#setCoalescingScheduler(NotificationScheduler)
+ */
+@FunctionalInterface
+public interface NotificationScheduler {
+
+	/**
+	 * Schedules the delivery of the gathered changes
+	 * @param flush action notifying the listeners of all the gathered changes at once
+	 */
+	void schedule(Runnable flush);
+
+	/**
+	 * Returns a scheduler that leaves the changes pending until {@link Observable#flushCoalescedNotifications()} is called,
+	 * for example on every tick of an application loop
+	 * @return manually driven scheduler
+	 */
+	static NotificationScheduler manual() {
+		return flush -> {};
+	}
+
+	/**
+	 * Returns a scheduler delivering all the changes made within a time window from the first one
+	 * @param executor executor running the delivery
+	 * @param window length of the time window
+	 * @param unit unit of the {@code window}
+	 * @return time window scheduler
+	 */
+	static NotificationScheduler delayed(ScheduledExecutorService executor, long window, TimeUnit unit) {
+		return flush -> executor.schedule(flush, window, unit);
+	}
+
+}
@@ -10,12 +10,14 @@ package dev.sgora.observetree;
 import dev.sgora.observetree.enums.ListenerNotification;
 import dev.sgora.observetree.enums.ListenerPriority;
 import dev.sgora.observetree.listener.ChangeListener;
+import dev.sgora.observetree.listener.ChangeSourceListener;
 import dev.sgora.observetree.listener.ListenerEntry;
+import dev.sgora.observetree.listener.ListenerList;
 
-import java.util.HashSet;
-import java.util.Optional;
+import java.util.List;
 import java.util.Set;
-import java.util.TreeSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Base {@code Observable} class that holds a list of listeners and notifies them when it changes.
@@ -29,15 +31,23 @@ import java.util.TreeSet;
  * Use {@link #notificationMethod} flag to configure whether {@link #notifyListeners()} should be called:
  * <ul>
  *     <li>automatically, immediately after a {@link #onValueChanged()} was called</li>
+ *     <li>automatically, with the listeners invoked asynchronously on the {@link #setAsyncExecutor(Executor) async executor}</li>
+ *     <li>automatically, once for all the changes gathered by the {@link #setCoalescingScheduler(NotificationScheduler) coalescing scheduler}</li>
  *     <li>manually, through {@link #notifyListeners()} (useful for complex multistage changes)</li>
  * </ul>
+ * Notifications can also be suspended for a group of changes with {@link #batch(Runnable)} or a {@link ChangeBatch}.
  *
  * <p>
  * {@code Observables} can create a tree structure.
  * For creating the relations use {@link #addSubObservable(Observable)}<br>
- * <b>Cycles are not supported.</b>
+ * <b>Cycles are not supported</b> - they can be rejected by enabling the {@link #setCycleDetection(boolean) cycle detection}.
+ * {@code Observables} shared by many parents are visited once per traversal.
  * <ul>
- *     <li>Calling {@link #onValueChanged()} marks the {@code Observable} and all its ancestors as changed</li>
+ *     <li>
+ *          Calling {@link #onValueChanged()} marks the {@code Observable} and all its ancestors as changed.
+ *          Each ancestor is visited at most once and the marking stops at ancestors that are already marked,
+ *          so repeated changes made between notifications do not traverse the tree again
+ *     </li>
  *     <li>
  *          Calling {@link #notifyListeners()}:
  *          <ul>
@@ -45,7 +55,8 @@ import java.util.TreeSet;
  *              <li>invokes the listeners of all descendant and ancestor {@code Observables} that are currently marked as changed</li>
  *          </ul>
  *          The listeners are called in order of their priority (globally) - first the listeners with the highest priority from all the {@code Observables} will be called, etc.
- *          The order at which the listeners with the same priority are called is undefined.
+ *          Listeners with the same priority registered on a single {@code Observable} are called in the order they were added,
+ *          otherwise the order at which the listeners with the same priority are called is undefined.
  *     </li>
  * </ul>
  *
@@ -68,10 +79,64 @@ public abstract class Observable {
 	 */
 	protected transient ListenerNotification notificationMethod = ListenerNotification.MANUAL;
 	private transient boolean valueChanged = false;
+	/**
+	 * Value of the tree {@link #epoch} at the time this {@code Observable} and all its ancestors were marked as changed
+	 */
+	private transient long propagatedEpoch;
+	/**
+	 * Counter of the tree this {@code Observable} belongs to, incremented whenever changed flags are reset or the tree grows.
+	 * Invalidates all the {@link #propagatedEpoch} values recorded before, as their ancestors might no longer be marked.
+	 * Created with the first change or relation.
+	 */
+	private transient TreeEpoch epoch;
 
-	private transient Set<ListenerEntry> listeners = new TreeSet<>();
-	private transient Set<Observable> parents = new HashSet<>();
-	private transient Set<Observable> children = new HashSet<>();
+	static final ListenerEntry[] NO_LISTENERS = {};
+	/**
+	 * Source of the {@link #visitStamp} values, a new one is drawn for each traversal of the tree
+	 */
+	private static final AtomicLong traversalEpoch = new AtomicLong();
+	private static volatile boolean cycleDetection;
+
+	/**
+	 * Stamp of the last traversal that visited this {@code Observable}, used to visit the {@code Observables} shared by many parents only once
+	 */
+	private transient long visitStamp;
+
+	private static volatile ObservableMetrics defaultMetrics = ObservableMetrics.NONE;
+	/**
+	 * Metrics installed for this {@code Observable}, {@code null} if the {@link #defaultMetrics} are used
+	 */
+	private transient ObservableMetrics metrics;
+	/**
+	 * Whether this {@code Observable} was changed directly, not only through its descendants
+	 */
+	private transient boolean changeOrigin;
+	/**
+	 * Source listeners state, {@code null} if there are none
+	 */
+	private transient ChangeSources changeSources;
+
+	/**
+	 * Allocated with the first listener, as most of the {@code Observables} in a tree have none
+	 */
+	private transient ListenerList listeners;
+	/**
+	 * Registry of the weak listeners, {@code null} if none was added
+	 */
+	private transient WeakListeners weakListeners;
+	/**
+	 * Compact relations of this {@code Observable} - see {@link ObservableLinks}
+	 */
+	private transient Object parents;
+	private transient Object children;
+	/**
+	 * Notification plan cached by {@link #notifyListeners()}, {@code null} before the first notification
+	 */
+	private transient NotificationPlan notificationPlan;
+	/**
+	 * Immutable view of this {@code Observable} reused by the next {@link FrozenObservable#of(Observable)}, {@code null} once it is stale
+	 */
+	transient FrozenObservable frozen;
 
 	/**
 	 * Adds the specified listener to the list of listeners with the default priority {@link ListenerPriority#NORMAL} (0).
@@ -79,7 +144,7 @@ public abstract class Observable {
 	 * @return {@code true} if the listener was successfully added. {@code false} if it was already present
 	 */
 	public boolean addListener(ChangeListener listener) {
-		return add(listeners, listener);
+		return add(listenerList(), listener);
 	}
 
 	/**
@@ -89,7 +154,7 @@ public abstract class Observable {
 	 * @return {@code true} if the listener was successfully added. {@code false} if it was already present
 	 */
 	public boolean addListener(ChangeListener listener, ListenerPriority priority) {
-		return add(listeners, listener, priority);
+		return add(listenerList(), listener, priority);
 	}
 
 	/**
@@ -99,7 +164,7 @@ public abstract class Observable {
 	 * @return {@code true} if the listener was successfully added. {@code false} if it was already present
 	 */
 	public boolean addListener(ChangeListener listener, int priority) {
-		return add(listeners, listener, priority);
+		return add(listenerList(), listener, priority);
 	}
 
 	/**
@@ -108,7 +173,159 @@ public abstract class Observable {
 	 * @return {@code true} if the listener was successfully removed. {@code false} if it was not found
 	 */
 	public boolean removeListener(ChangeListener listener) {
-		return remove(listeners, listener);
+		return listeners != null && remove(listeners, listener);
+	}
+
+	/**
+	 * Adds the specified listener to the list of listeners with the default priority {@link ListenerPriority#NORMAL} (0), holding it through a weak reference.
+	 * @param listener element to be added
+	 * @return {@code true} if the listener was successfully added. {@code false} if it was already present
+	 * @see #addWeakListener(ChangeListener, int)
+	 */
+	public boolean addWeakListener(ChangeListener listener) {
+		return addWeakListener(listener, ListenerPriority.NORMAL);
+	}
+
+	/**
+	 * Adds the specified listener to the list of listeners with the specified priority, holding it through a weak reference.
+	 * @param listener element to be added
+	 * @param priority priority of this listener
+	 * @return {@code true} if the listener was successfully added. {@code false} if it was already present
+	 * @see #addWeakListener(ChangeListener, int)
+	 */
+	public boolean addWeakListener(ChangeListener listener, ListenerPriority priority) {
+		return addWeakListener(listener, priority.value);
+	}
+
+	/**
+	 * Adds the specified listener to the list of listeners with the specified priority, holding it through a weak reference.
+	 * The listener does not prevent its subscriber from being garbage collected - after that it is removed automatically.
+	 * <b>The caller has to keep a strong reference to the listener for as long as it should be called</b>, so a lambda should be stored in a field of the subscriber.
+	 * It can be removed with {@link #removeListener(ChangeListener)} like any other listener.
+	 * @param listener element to be added
+	 * @param priority priority of this listener
+	 * @return {@code true} if the listener was successfully added. {@code false} if it was already present
+	 */
+	public boolean addWeakListener(ChangeListener listener, int priority) {
+		WeakListener weakListener = registerWeakListener(listenerList(), listener, false);
+		return weakListener != null && addListener(weakListener, priority);
+	}
+
+	/**
+	 * Returns the list holding the listeners of this {@code Observable}, creating it if needed
+	 * @return the listener list
+	 */
+	ListenerList listenerList() {
+		if(listeners == null)
+			listeners = new ListenerList();
+		return listeners;
+	}
+
+	/**
+	 * Creates a weak listener referencing the specified listener, unless it is already registered in the list either directly or weakly
+	 * @param listenerList list the listener is to be registered in
+	 * @param listener listener to be referenced
+	 * @param staticListener whether it is a static listener of a {@link SettableObservable}
+	 * @return the weak listener to be added to the list or {@code null} if the listener is already registered
+	 */
+	WeakListener registerWeakListener(ListenerList listenerList, ChangeListener listener, boolean staticListener) {
+		purgeWeakListeners();
+		if(listenerList.contains(listener) || weakListeners != null && weakListeners.find(listener, listenerList) != null)
+			return null;
+		if(weakListeners == null)
+			weakListeners = new WeakListeners();
+		return weakListeners.add(listener, this, listenerList, staticListener);
+	}
+
+	/**
+	 * Removes the weak listeners of this {@code Observable} whose listeners were garbage collected
+	 */
+	void purgeWeakListeners() {
+		if(weakListeners != null)
+			weakListeners.purge();
+	}
+
+	/**
+	 * Checks whether any weak listener was added to this {@code Observable}
+	 * @return {@code true} if it has a weak listener registry
+	 */
+	boolean hasWeakListeners() {
+		return weakListeners != null;
+	}
+
+	/**
+	 * Unregisters the weak listeners of a list that is being cleared
+	 * @param listenerList list being cleared
+	 */
+	void forgetWeakListeners(ListenerList listenerList) {
+		if(weakListeners != null && listenerList != null)
+			weakListeners.clear(listenerList);
+	}
+
+	/**
+	 * Returns the current snapshot of the listeners of this {@code Observable}
+	 * @return an array of all the listener entries
+	 */
+	ListenerEntry[] getListenerEntries() {
+		return listeners != null ? listeners.getEntries() : NO_LISTENERS;
+	}
+
+	/**
+	 * Adds the specified source listener to the list of listeners with the default priority {@link ListenerPriority#NORMAL} (0).
+	 * @param listener element to be added
+	 * @return {@code true} if the listener was successfully added. {@code false} if it was already present
+	 */
+	public boolean addSourceListener(ChangeSourceListener listener) {
+		return addSourceListener(listener, ListenerPriority.NORMAL);
+	}
+
+	/**
+	 * Adds the specified source listener to the list of listeners with the specified priority.
+	 * @param listener element to be added
+	 * @param priority priority of this listener
+	 * @return {@code true} if the listener was successfully added. {@code false} if it was already present
+	 */
+	public boolean addSourceListener(ChangeSourceListener listener, ListenerPriority priority) {
+		return addSourceListener(listener, priority.value);
+	}
+
+	/**
+	 * Adds the specified source listener to the list of listeners with the specified priority.
+	 * Source listeners are called together with the other listeners and additionally receive the {@code Observables} changed directly
+	 * - this {@code Observable} and its descendants whose changes are delivered by the notification.
+	 * @param listener element to be added
+	 * @param priority priority of this listener
+	 * @return {@code true} if the listener was successfully added. {@code false} if it was already present
+	 */
+	public boolean addSourceListener(ChangeSourceListener listener, int priority) {
+		ChangeSources sources = changeSources != null ? changeSources : new ChangeSources();
+		if(sources.listeners.containsKey(listener))
+			return false;
+		ChangeListener invoker = sources.invoker(listener);
+		if(!addListener(invoker, priority))
+			return false;
+		sources.listeners.put(listener, invoker);
+		changeSources = sources;
+		return true;
+	}
+
+	/**
+	 * Removes the specified source listener from the list of listeners.
+	 * @param listener element to be removed
+	 * @return {@code true} if the listener was successfully removed. {@code false} if it was not found
+	 */
+	public boolean removeSourceListener(ChangeSourceListener listener) {
+		ChangeListener invoker = changeSources != null ? changeSources.listeners.remove(listener) : null;
+		if(invoker == null)
+			return false;
+		removeListener(invoker);
+		if(changeSources.listeners.isEmpty())
+			changeSources = null;
+		return true;
+	}
+
+	ChangeSources getChangeSources() {
+		return changeSources;
 	}
 
 	/**
@@ -118,12 +335,69 @@ public abstract class Observable {
 	 * @param observable element to be inserted into the tree as a child of this {@code Observable}
 	 */
 	protected void addSubObservable(Observable observable) {
-		addChild(observable);
-		observable.addParent(this);
+		link(observable);
 		if(observable.isValueChanged())
 			observable.onValueChanged();
 	}
 
+	/**
+	 * Binds the specified {@code Observable} as a child of this {@code Observable} both ways, without propagating its change
+	 * @param observable element to be inserted into the tree as a child of this {@code Observable}
+	 */
+	void link(Observable observable) {
+		checkCycle(observable);
+		addChild(observable);
+		observable.addParent(this);
+		inheritMetrics(observable);
+	}
+
+	/**
+	 * Binds the specified {@code Observable} as a child of this {@code Observable} both ways, skipping the cycle check, the invalidation of the plans
+	 * and the views, and the metrics inheritance of {@link #link(Observable)}. Used to rebuild a tree restored by a {@link TreeSnapshot},
+	 * which has no plans, views, metrics or listeners yet. The {@code Observables} with overridden relation methods are still bound with {@code link}.
+	 * @param observable element to be inserted into the tree as a child of this {@code Observable}
+	 */
+	void attach(Observable observable) {
+		// the overridden methods keep the modelValues related and the tree locks merged
+		if(observable instanceof ConcurrentObservable || observable instanceof SettableObservable && ((SettableObservable<?>) observable).modelValue != null) {
+			link(observable);
+			return;
+		}
+		// an Observable with no parents can not be a child yet, so it is appended without a lookup
+		children = observable.parents == null ? ObservableLinks.append(children, observable) : ObservableLinks.link(children, observable);
+		observable.parents = ObservableLinks.link(observable.parents, this);
+		TreeEpoch current = epoch();
+		epoch = observable.epoch = observable.epoch == null ? current : TreeEpoch.merge(current, observable.epoch);
+	}
+
+	/**
+	 * Throws an exception if adding the specified child would create a cycle, provided that the {@link #setCycleDetection(boolean) cycle detection} is enabled.
+	 * Only the ancestors of this {@code Observable} are visited.
+	 * @param child {@code Observable} to be added as a child
+	 * @throws IllegalArgumentException if the {@code child} is this {@code Observable} or one of its ancestors
+	 */
+	void checkCycle(Observable child) {
+		if(!cycleDetection)
+			return;
+		long stamp = traversalEpoch.incrementAndGet();
+		TraversalStack stack = TraversalStack.acquire();
+		try {
+			stack.push(this);
+			while(!stack.isEmpty()) {
+				Observable observable = stack.pop();
+				if(observable == child)
+					throw new IllegalArgumentException("Adding the Observable as a child would create a cycle");
+				if(observable.visitStamp == stamp)
+					continue;
+				observable.visitStamp = stamp;
+				for (int i = 0; i < observable.getParentCount(); i++)
+					stack.push(observable.getParent(i));
+			}
+		} finally {
+			stack.release();
+		}
+	}
+
 	/**
 	 * Removes the specified {@code Observable} from the tree. This method is recommended for removing {@code Observable} relations
 	 * instead of plain {@link #removeParent(Observable)} and {@link #removeChild(Observable)} as it unbinds {@code Observables} both ways.
@@ -138,32 +412,279 @@ public abstract class Observable {
 	 * Marks the {@code Observable} and all its ancestors as changed. This method should be called inside a class extending {@code Observable} after a change was made.
 	 */
 	protected void onValueChanged() {
-		parents.forEach(Observable::onValueChanged);
-		valueChanged = true;
-		if (notificationMethod == ListenerNotification.AUTOMATIC) {
+		unfreeze();
+		changeOrigin = true;
+		int ancestorsVisited = markChanged() - 1;
+		ObservableMetrics currentMetrics = getMetrics();
+		if(currentMetrics != ObservableMetrics.NONE)
+			currentMetrics.onValueChanged(this, ancestorsVisited);
+	}
+
+	/**
+	 * Records a read of this {@code Observable} value, so that a {@link ComputedProperty} computing its value from it is recomputed after it changes.
+	 * This method should be called inside a class extending {@code Observable} whenever its value is read.
+	 */
+	protected void onValueRead() {
+		DependencyTracker.read(this);
+	}
+
+	/**
+	 * Marks the ancestors depth first, each of them after its own ancestors, so that they are dispatched from the top
+	 * @return the number of marked {@code Observables}
+	 */
+	private int markChanged() {
+		int marked = 0;
+		// all the ancestors belong to the same tree and share the epoch
+		long currentEpoch = epoch().get();
+		TraversalStack stack = TraversalStack.acquire();
+		try {
+			stack.push(this, currentEpoch);
+			while(!stack.isEmpty()) {
+				Observable observable = stack.peek();
+				Object links = observable.parents;
+				int position = stack.nextPosition();
+				if(position < ObservableLinks.size(links)) {
+					Observable parent = ObservableLinks.get(links, position);
+					if(!parent.isChangePropagated(currentEpoch))
+						stack.push(parent, currentEpoch);
+					continue;
+				}
+				observable.valueChanged = true;
+				observable.propagatedEpoch = stack.peekValue();
+				stack.pop();
+				marked++;
+				observable.dispatchChange();
+			}
+		} finally {
+			stack.release();
+		}
+		return marked;
+	}
+
+	/**
+	 * Notifies the listeners after a change was made, according to the {@link #notificationMethod}
+	 */
+	void dispatchChange() {
+		if(notificationMethod == ListenerNotification.MANUAL || ChangeBatch.defer(this))
+			return;
+		if (notificationMethod == ListenerNotification.AUTOMATIC || notificationMethod == ListenerNotification.ASYNC) {
 			notifyListeners();
+		} else if(notificationMethod == ListenerNotification.COALESCED) {
+			PendingNotifications.coalesce(this);
 		}
 	}
 
-	private void collectListeners(TreeTraverseDirection direction, Set<ListenerEntry> treeListeners) {
-		if(valueChanged) {
-			valueChanged = false;
-			treeListeners.addAll(listeners);
+	/**
+	 * Forces the next change of every {@code Observable} in this tree to be propagated to all its ancestors, even the ones already marked as changed
+	 */
+	void invalidatePropagation() {
+		epoch().advance();
+	}
+
+	/**
+	 * Invalidates the cached notification plans of this tree after its relations or listeners were modified
+	 */
+	private void structureChanged() {
+		epoch().structureChanged();
+	}
+
+	/**
+	 * Returns the structure version of this tree, which changes whenever its relations or listeners are modified
+	 * @return the structure version
+	 */
+	long structureVersion() {
+		return epoch().structure();
+	}
+
+	/**
+	 * Returns the queue of the {@link ListenerNotification#ASYNC} notifications of the tree of this {@code Observable}
+	 * @return the queue of the tree
+	 */
+	AsyncDispatcher.TreeQueue asyncQueue() {
+		return epoch().asyncQueue();
+	}
+
+	/**
+	 * Returns the counter shared by the tree of this {@code Observable}
+	 * @return the current tree epoch
+	 */
+	private TreeEpoch epoch() {
+		TreeEpoch current = epoch;
+		if(current == null)
+			epoch = current = new TreeEpoch();
+		else
+			epoch = current = current.resolve();
+		return current;
+	}
+
+	/**
+	 * Checks whether this {@code Observable} and all its ancestors are still marked as changed,
+	 * which allows the change propagation to stop here.
+	 * @param currentEpoch current value of the tree epoch
+	 */
+	private boolean isChangePropagated(long currentEpoch) {
+		return valueChanged && propagatedEpoch == currentEpoch;
+	}
+
+	/**
+	 * Visits this {@code Observable} and all its ancestors or descendants once, in depth first pre-order
+	 * @param direction direction of the walk
+	 * @param stamp stamp of this traversal
+	 * @param buffer buffer to collect the listeners of the changed {@code Observables} into, {@code null} to only reset their changed flag
+	 * @param visited list to record the visited {@code Observables} into instead, {@code null} if they should not be recorded
+	 * @param visitedFrom list to record the position of the {@code Observable} each one was visited from into, {@code -1} for this one
+	 */
+	private void traverse(TreeTraverseDirection direction, long stamp, DispatchBuffer buffer, List<Observable> visited, List<Integer> visitedFrom) {
+		boolean downwards = direction == TreeTraverseDirection.DOWN;
+		TraversalStack stack = TraversalStack.acquire();
+		try {
+			// each Observable is pushed with the source link of the path leading to it or the position it is visited from
+			stack.push(this, -1);
+			while(!stack.isEmpty()) {
+				int link = (int) stack.peekValue();
+				Observable observable = stack.pop();
+				if(observable.visitStamp == stamp) {
+					if(buffer != null && link >= 0)
+						buffer.markSourcesShared();
+					continue;
+				}
+				observable.visitStamp = stamp;
+				if(visited != null) {
+					visited.add(observable);
+					visitedFrom.add(link);
+					link = visited.size() - 1;
+				} else if(buffer != null) {
+					buffer.setSourcePath(link, downwards);
+					observable.collectListeners(buffer);
+					link = buffer.getSourcePath();
+				} else {
+					observable.resetChanged();
+				}
+				Object relatives = downwards ? observable.children : observable.parents;
+				for (int i = ObservableLinks.size(relatives) - 1; i >= 0; i--) {
+					Observable relative = ObservableLinks.get(relatives, i);
+					if(relative.visitStamp != stamp)
+						stack.push(relative, link);
+					else if(buffer != null && link >= 0)
+						buffer.markSourcesShared();
+				}
+			}
+		} finally {
+			stack.release();
 		}
-		Set<Observable> relatives = direction == TreeTraverseDirection.UP ? parents : children;
-		relatives.forEach(observable -> observable.collectListeners(direction, treeListeners));
 	}
 
+	/**
+	 * Draws the stamp for a new traversal of the tree
+	 * @return unique traversal stamp
+	 */
+	static long nextTraversalStamp() {
+		return traversalEpoch.incrementAndGet();
+	}
+
+	/**
+	 * Marks this {@code Observable} as visited by the traversal
+	 * @param stamp stamp of the traversal
+	 * @return {@code false} if it was already visited by this traversal
+	 */
+	boolean visit(long stamp) {
+		if(visitStamp == stamp)
+			return false;
+		visitStamp = stamp;
+		return true;
+	}
+
+	/**
+	 * Returns whether this {@code Observable} was last visited by the traversal
+	 * @param stamp stamp of the traversal
+	 * @return {@code true} if it was marked by {@link #visit(long)} with the {@code stamp}
+	 */
+	boolean isVisited(long stamp) {
+		return visitStamp == stamp;
+	}
+
+	private void collectListeners(DispatchBuffer buffer) {
+		if(consumeChange(buffer) && listeners != null)
+			buffer.addAll(listeners.getEntries());
+	}
+
+	/**
+	 * Resets the changed flag of this {@code Observable} visited by a notification
+	 * @param buffer buffer of the notification
+	 * @return {@code true} if it was changed and its listeners should be invoked
+	 */
+	boolean consumeChange(DispatchBuffer buffer) {
+		buffer.nodeTraversed();
+		if(!valueChanged)
+			return false;
+		valueChanged = false;
+		onChangeConsumed();
+		collectSources(buffer);
+		return true;
+	}
+
+
 	/**
 	 * Invokes the listeners of all descendant and ancestor {@code Observables} that are currently marked as changed. Resets the changed flag.
 	 * The listeners are called in order of their priority (globally) - first the listeners with the highest priority from all the {@code Observables} will be called, etc.
-	 * The order at which the listeners with the same priority are called is undefined.
+	 * Listeners with the same priority registered on a single {@code Observable} are called in the order they were added.
+	 * The listeners are collected into reusable per-thread buffers, so that the notification itself does not allocate.
+	 * Once the tree and its listeners stay unchanged between two notifications, the traversal is compiled into a cached {@link NotificationPlan}.
+	 * If a {@link ChangeBatch} is open on the current thread, the notification is deferred until it is closed.
 	 */
 	public void notifyListeners() {
-		Set<ListenerEntry> treeListeners = new TreeSet<>();
-		collectListeners(TreeTraverseDirection.UP, treeListeners);
-		collectListeners(TreeTraverseDirection.DOWN, treeListeners);
-		treeListeners.forEach(entry -> entry.listener.call());
+		if(ChangeBatch.defer(this))
+			return;
+		purgeWeakListeners();
+		DispatchBuffer buffer = DispatchBuffer.acquire();
+		buffer.measure(this, getMetrics());
+		notificationPlan = NotificationPlan.of(this, notificationPlan);
+		if(notificationPlan.isCompiled()) {
+			invalidatePropagation();
+			notificationPlan.collect(buffer);
+		} else {
+			collectChangedListeners(buffer);
+		}
+		if(notificationMethod == ListenerNotification.ASYNC)
+			buffer.dispatchAsync(asyncQueue());
+		else
+			buffer.dispatch();
+	}
+
+	/**
+	 * Collects the listeners of all descendant and ancestor {@code Observables} that are currently marked as changed and resets their changed flag
+	 * @param buffer buffer to collect the listeners into
+	 */
+	void collectChangedListeners(DispatchBuffer buffer) {
+		invalidatePropagation();
+		buffer.beginSources();
+		// the Observable itself is the only one visited in both directions, so it needs a separate stamp for each
+		long stamp = traversalEpoch.addAndGet(2);
+		traverse(TreeTraverseDirection.UP, stamp - 1, buffer, null, null);
+		traverse(TreeTraverseDirection.DOWN, stamp, buffer, null, null);
+	}
+
+	/**
+	 * Records all the {@code Observables} visited by {@link #collectChangedListeners(DispatchBuffer)}, in the same order
+	 * @param visited list to record the {@code Observables} into
+	 * @param visitedFrom list to record the position of the {@code Observable} each one was visited from into,
+	 *                    {@code -1} for this one, visited first towards the ancestors and then towards the descendants
+	 */
+	void collectNotifiedObservables(List<Observable> visited, List<Integer> visitedFrom) {
+		long stamp = traversalEpoch.addAndGet(2);
+		traverse(TreeTraverseDirection.UP, stamp - 1, null, visited, visitedFrom);
+		traverse(TreeTraverseDirection.DOWN, stamp, null, visited, visitedFrom);
+	}
+
+	/**
+	 * Runs the changes inside a {@link ChangeBatch}, deferring all the notifications made on the current thread until they are complete.
+	 * Can be nested.
+	 * @param changes action making the changes
+	 */
+	public static void batch(Runnable changes) {
+		try (ChangeBatch batch = ChangeBatch.open()) {
+			changes.run();
+		}
 	}
 
 	/**
@@ -171,14 +692,20 @@ public abstract class Observable {
 	 * @param observable element to copy the listeners to
 	 */
 	public void copyListeners(Observable observable) {
-		listeners.forEach(listener -> observable.add(observable.listeners, listener.listener, listener.priority));
+		if(listeners == null)
+			return;
+		for (ListenerEntry entry : listeners.getEntries())
+			observable.addListener(entry.listener, entry.priority);
 	}
 
 	/**
 	 * Removes all the listeners from this {@code Observable}
 	 */
 	public void clearListeners() {
-		listeners.clear();
+		forgetWeakListeners(listeners);
+		listeners = null;
+		changeSources = null;
+		structureChanged();
 	}
 
 
@@ -188,12 +715,14 @@ public abstract class Observable {
 	 * @param traverseTree whether to set all descendant and ancestor as unchanged
 	 */
 	public void setUnchanged(boolean traverseTree) {
+		invalidatePropagation();
 		if(!traverseTree) {
-			valueChanged = false;
+			resetChanged();
 			return;
 		}
-		setUnchanged(TreeTraverseDirection.UP);
-		setUnchanged(TreeTraverseDirection.DOWN);
+		long stamp = traversalEpoch.addAndGet(2);
+		traverse(TreeTraverseDirection.UP, stamp - 1, null, null, null);
+		traverse(TreeTraverseDirection.DOWN, stamp, null, null, null);
 	}
 
 
@@ -205,58 +734,111 @@ public abstract class Observable {
 		return valueChanged;
 	}
 
-	private void setUnchanged(TreeTraverseDirection direction) {
-		valueChanged = false;
-		Set<Observable> relatives = direction == TreeTraverseDirection.UP ? parents : children;
-		relatives.forEach(relative -> relative.setUnchanged(direction));
+	private void resetChanged() {
+		changeOrigin = false;
+		if(valueChanged) {
+			valueChanged = false;
+			onChangeConsumed();
+		}
+	}
+
+	/**
+	 * Marks this {@code Observable} as changed directly or - if the {@code origin} flag is {@code false} - clears the mark
+	 * @param origin whether the {@code Observable} was changed directly
+	 */
+	void setChangeOrigin(boolean origin) {
+		changeOrigin = origin;
 	}
 
 	/**
-	 * Utility method used internally that contains logic associated with adding a {@code listener} to a specified {@code set}
-	 * @param listenerSet set to operate onto
+	 * Records this {@code Observable} for the source listeners after its change was consumed by a notification
+	 * @param buffer buffer of the notification
+	 */
+	void collectSources(DispatchBuffer buffer) {
+		boolean origin = consumeChangeOrigin();
+		if(origin || changeSources != null)
+			buffer.addSource(this, origin, changeSources != null);
+	}
+
+	/**
+	 * Clears the mark set by {@link #setChangeOrigin(boolean)}
+	 * @return {@code true} if the {@code Observable} was marked as changed directly
+	 */
+	boolean consumeChangeOrigin() {
+		if(!changeOrigin)
+			return false;
+		changeOrigin = false;
+		return true;
+	}
+
+	/**
+	 * Called when the changed flag of this {@code Observable} is reset, either by a notification - before any listener is invoked - or by {@link #setUnchanged(boolean)}
+	 */
+	void onChangeConsumed() {
+	}
+
+	/**
+	 * Utility method used internally that contains logic associated with adding a {@code listener} to a specified {@code list}
+	 * @param listenerList list to operate onto
 	 * @param listener element to be added
 	 * @return {@code true} if the listener was successfully added. {@code false} if it was already present
 	 */
-	protected boolean add(Set<ListenerEntry> listenerSet, ChangeListener listener) {
-		return add(listenerSet, listener, ListenerPriority.NORMAL);
+	protected boolean add(ListenerList listenerList, ChangeListener listener) {
+		return add(listenerList, listener, ListenerPriority.NORMAL);
 	}
 
 	/**
-	 * Utility method used internally that contains logic associated with adding a {@code listener} to a specified {@code set}
-	 * @param listenerSet set to operate onto
+	 * Utility method used internally that contains logic associated with adding a {@code listener} to a specified {@code list}
+	 * @param listenerList list to operate onto
 	 * @param listener element to be added
 	 * @param priority priority of this listener
 	 * @return {@code true} if the listener was successfully added. {@code false} if it was already present
 	 */
-	protected boolean add(Set<ListenerEntry> listenerSet, ChangeListener listener, ListenerPriority priority) {
-		return add(listenerSet, listener, priority.value);
+	protected boolean add(ListenerList listenerList, ChangeListener listener, ListenerPriority priority) {
+		return add(listenerList, listener, priority.value);
 	}
 
 	/**
-	 * Utility method used internally that contains logic associated with adding a {@code listener} to a specified {@code set}
-	 * @param listenerSet set to operate onto
+	 * Utility method used internally that contains logic associated with adding a {@code listener} to a specified {@code list}
+	 * @param listenerList list to operate onto
 	 * @param listener element to be added
 	 * @param priority priority of this listener
 	 * @return {@code true} if the listener was successfully added. {@code false} if it was already present
 	 */
-	protected boolean add(Set<ListenerEntry> listenerSet, ChangeListener listener, int priority) {
-		if(listenerSet.stream().noneMatch(entry -> entry.listener == listener)) {
-			listenerSet.add(new ListenerEntry(listener, priority));
-			return true;
-		}
-		return false;
+	protected boolean add(ListenerList listenerList, ChangeListener listener, int priority) {
+		boolean added = listenerList.add(listener, priority);
+		if(added)
+			structureChanged();
+		ObservableMetrics currentMetrics = getMetrics();
+		if(added && currentMetrics != ObservableMetrics.NONE)
+			currentMetrics.onListenerAdded(this, listener);
+		return added;
 	}
 
 	/**
-	 * Utility method used internally that contains logic associated with removing a {@code listener} from a specified {@code set}
-	 * @param listenerSet set to operate onto
+	 * Utility method used internally that contains logic associated with removing a {@code listener} from a specified {@code list}
+	 * @param listenerList list to operate onto
 	 * @param listener element to be removed
 	 * @return {@code true} if the listener was successfully removed. {@code false} if it was not found
 	 */
-	protected boolean remove(Set<ListenerEntry> listenerSet, ChangeListener listener) {
-		Optional<ListenerEntry> optional = listenerSet.stream().filter(entry -> entry.listener == listener).findFirst();
-		optional.ifPresent(listenerSet::remove);
-		return optional.isPresent();
+	protected boolean remove(ListenerList listenerList, ChangeListener listener) {
+		boolean removed = listenerList.remove(listener);
+		if(weakListeners != null) {
+			if(removed && listener instanceof WeakListener) {
+				weakListeners.remove((WeakListener) listener);
+			} else if(!removed) {
+				WeakListener weakListener = weakListeners.find(listener, listenerList);
+				removed = weakListener != null && listenerList.remove(weakListener);
+				if(removed)
+					weakListeners.remove(weakListener);
+			}
+		}
+		if(removed)
+			structureChanged();
+		ObservableMetrics currentMetrics = getMetrics();
+		if(removed && currentMetrics != ObservableMetrics.NONE)
+			currentMetrics.onListenerRemoved(this, listener);
+		return removed;
 	}
 
 	/**
@@ -266,7 +848,10 @@ public abstract class Observable {
 	 * @return {@code true} if the {@code Observable} was successfully added. {@code false} if it was already present
 	 */
 	protected boolean addParent(Observable observable) {
-		return parents.add(observable);
+		epoch = TreeEpoch.merge(epoch(), observable.epoch());
+		int size = ObservableLinks.size(parents);
+		parents = ObservableLinks.link(parents, observable);
+		return linksChanged(size, parents);
 	}
 
 	/**
@@ -276,7 +861,9 @@ public abstract class Observable {
 	 * @return {@code true} if the {@code Observable} was successfully removed. {@code false} if it was not found
 	 */
 	protected boolean removeParent(Observable observable) {
-		return parents.remove(observable);
+		int size = ObservableLinks.size(parents);
+		parents = ObservableLinks.unlink(parents, observable);
+		return linksChanged(size, parents);
 	}
 
 
@@ -287,7 +874,13 @@ public abstract class Observable {
 	 * @return {@code true} if the {@code Observable} was successfully added. {@code false} if it was already present
 	 */
 	protected boolean addChild(Observable observable) {
-		return children.add(observable);
+		epoch = TreeEpoch.merge(epoch(), observable.epoch());
+		int size = ObservableLinks.size(children);
+		children = ObservableLinks.link(children, observable);
+		if(!linksChanged(size, children))
+			return false;
+		unfreeze();
+		return true;
 	}
 
 	/**
@@ -297,23 +890,101 @@ public abstract class Observable {
 	 * @return {@code true} if the {@code Observable} was successfully removed. {@code false} if it was not found
 	 */
 	protected boolean removeChild(Observable observable) {
-		return children.remove(observable);
+		int size = ObservableLinks.size(children);
+		children = ObservableLinks.unlink(children, observable);
+		if(!linksChanged(size, children))
+			return false;
+		unfreeze();
+		return true;
+	}
+
+	/**
+	 * Drops the immutable views of this {@code Observable} and its ancestors, so that the next {@link FrozenObservable#of(Observable)} rebuilds them.
+	 * The walk stops at the {@code Observables} with no view, as the views of their ancestors have already been dropped.
+	 */
+	void unfreeze() {
+		if(frozen == null)
+			return;
+		frozen = null;
+		TraversalStack stack = TraversalStack.acquire();
+		try {
+			stack.push(this);
+			while(!stack.isEmpty()) {
+				Observable observable = stack.pop();
+				for (int i = 0; i < observable.getParentCount(); i++) {
+					Observable parent = observable.getParent(i);
+					if(parent.frozen != null) {
+						parent.frozen = null;
+						stack.push(parent);
+					}
+				}
+			}
+		} finally {
+			stack.release();
+		}
+	}
+
+	/**
+	 * Invalidates the cached notification plans if the relations were modified
+	 * @param previousSize number of the relations before the modification
+	 * @param links current relations
+	 * @return {@code true} if the relations were modified
+	 */
+	private boolean linksChanged(int previousSize, Object links) {
+		if(ObservableLinks.size(links) == previousSize)
+			return false;
+		structureChanged();
+		return true;
 	}
 
 	/**
 	 * Returns parents of this {@code Observable}
-	 * @return a set containing all the parents of this object
+	 * @return a read-only set containing all the parents of this object
 	 */
 	public Set<Observable> getParents() {
-		return parents;
+		return ObservableLinks.view(() -> parents);
 	}
 
 	/**
 	 * Returns children of this {@code Observable}
-	 * @return a set containing all the children of this object
+	 * @return a read-only set containing all the children of this object
 	 */
 	public Set<Observable> getChildren() {
-		return children;
+		return ObservableLinks.view(() -> children);
+	}
+
+	/**
+	 * Returns the number of parents of this {@code Observable}
+	 * @return the number of parents
+	 */
+	int getParentCount() {
+		return ObservableLinks.size(parents);
+	}
+
+	/**
+	 * Returns the parent at the specified position
+	 * @param position position of the parent, must be lower than {@link #getParentCount()}
+	 * @return the parent at the specified position
+	 */
+	Observable getParent(int position) {
+		return ObservableLinks.get(parents, position);
+	}
+
+	/**
+	 * Returns the number of children of this {@code Observable}, allowing them to be iterated by {@link #getChild(int)} without allocation
+	 * @return the number of children
+	 */
+	int getChildCount() {
+		return ObservableLinks.size(children);
+	}
+
+	/**
+	 * Returns the child at the specified position
+	 * @param position position of the child, must be lower than {@link #getChildCount()}
+	 * @return the child at the specified position
+	 */
+	Observable getChild(int position) {
+		return ObservableLinks.get(children, position);
 	}
 
 	/**
@@ -332,6 +1003,106 @@ public abstract class Observable {
 		this.notificationMethod = notificationMethod;
 	}
 
+	/**
+	 * Enables or disables the check rejecting the {@link #addSubObservable(Observable)} calls that would create a cycle.
+	 * The check visits all the ancestors of the parent, so it is disabled by default.
+	 * @param enabled whether the cycles should be detected
+	 */
+	public static void setCycleDetection(boolean enabled) {
+		cycleDetection = enabled;
+	}
+
+	/**
+	 * Returns the metrics this {@code Observable} reports to
+	 * @return the metrics installed for this {@code Observable} or the {@link #getDefaultMetrics() default ones}
+	 */
+	public ObservableMetrics getMetrics() {
+		ObservableMetrics installed = metrics;
+		return installed != null ? installed : defaultMetrics;
+	}
+
+	/**
+	 * Installs the metrics for this {@code Observable} and all its descendants.
+	 * {@code Observables} added later with {@link #addSubObservable(Observable)} inherit them unless they have their own metrics installed.
+	 * @param metrics metrics to be used, {@code null} to use the {@link #getDefaultMetrics() default ones}
+	 */
+	public void setMetrics(ObservableMetrics metrics) {
+		TraversalStack stack = TraversalStack.acquire();
+		try {
+			stack.push(this);
+			while(!stack.isEmpty()) {
+				Observable observable = stack.pop();
+				if(observable.metrics == metrics)
+					continue;
+				observable.metrics = metrics;
+				for (int i = 0; i < observable.getChildCount(); i++)
+					stack.push(observable.getChild(i));
+			}
+		} finally {
+			stack.release();
+		}
+	}
+
+	/**
+	 * Passes the metrics installed for this {@code Observable} to a newly added child
+	 * @param child added child
+	 */
+	void inheritMetrics(Observable child) {
+		if(metrics != null && child.metrics == null)
+			child.setMetrics(metrics);
+	}
+
+	/**
+	 * Returns the metrics used by the {@code Observables} without their own metrics installed
+	 * @return the default metrics
+	 */
+	public static ObservableMetrics getDefaultMetrics() {
+		return defaultMetrics;
+	}
+
+	/**
+	 * Sets the metrics used by the {@code Observables} without their own metrics installed. By default the metrics are disabled.
+	 * @param metrics metrics to be used, {@link ObservableMetrics#NONE} to disable them
+	 */
+	public static void setDefaultMetrics(ObservableMetrics metrics) {
+		defaultMetrics = metrics;
+	}
+
+	/**
+	 * Sets the executor used to invoke the listeners of the {@link ListenerNotification#ASYNC} {@code Observables}.
+	 * By default a new virtual thread is started for each listener if they are supported by the runtime, otherwise a cached pool of daemon threads is used.
+	 * @param executor executor to be used
+	 */
+	public static void setAsyncExecutor(Executor executor) {
+		AsyncDispatcher.setExecutor(executor);
+	}
+
+	/**
+	 * Returns the executor used to invoke the listeners of the {@link ListenerNotification#ASYNC} {@code Observables}
+	 * @return the current async executor
+	 */
+	public static Executor getAsyncExecutor() {
+		return AsyncDispatcher.getExecutor();
+	}
+
+	/**
+	 * Sets the scheduler deciding when the changes of the {@link ListenerNotification#COALESCED} {@code Observables} are delivered.
+	 * By default they are delivered on the next {@link #flushCoalescedNotifications()} call.
+	 * @param scheduler scheduler to be used
+	 * @see NotificationScheduler
+	 */
+	public static void setCoalescingScheduler(NotificationScheduler scheduler) {
+		PendingNotifications.setScheduler(scheduler);
+	}
+
+	/**
+	 * Notifies the listeners of all the changes gathered from the {@link ListenerNotification#COALESCED} {@code Observables} at once.
+	 * Every listener is called at most once, in order of their priority (globally).
+	 */
+	public static void flushCoalescedNotifications() {
+		PendingNotifications.coalesced.flush();
+	}
+
 	private enum TreeTraverseDirection {
 		UP, DOWN
 	}
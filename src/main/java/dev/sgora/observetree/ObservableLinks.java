@@ -0,0 +1,205 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Supplier;
+
+/**
+ * Internal identity set of {@code Observable} relations kept in a compact form, as most of the {@code Observables} have at most one parent and no children.
+ * The relations of a single {@code Observable} are stored in one field that holds:
+ * <ul>
+ *     <li>{@code null} - when there are no relations</li>
+ *     <li>the related {@code Observable} itself - when there is exactly one</li>
+ *     <li>an {@code ObservableLinks} array - when there are more, indexed by identity once it grows past a threshold</li>
+ * </ul>
+ * The static methods operate on such a field and return its updated value. All of them allow indexed iteration without allocation.
+ *
+ * @author Stanisław Góra
+ */
+final class ObservableLinks {
+
+	private static final int INDEX_THRESHOLD = 8;
+
+	private Observable[] elements;
+	private int size;
+	private Map<Observable, Integer> index;
+	/**
+	 * Number of the leading elements added to the {@link #index}, the others are added by the next lookup
+	 */
+	private int indexed;
+
+	private ObservableLinks(Observable first, Observable second) {
+		elements = new Observable[] {first, second, null, null};
+		size = 2;
+	}
+
+	/**
+	 * Adds the {@code Observable} to the relations
+	 * @param links current relations
+	 * @param observable element to be added
+	 * @return updated relations
+	 */
+	static Object link(Object links, Observable observable) {
+		if(links == null)
+			return observable;
+		if(links instanceof Observable)
+			return links == observable ? links : new ObservableLinks((Observable) links, observable);
+		((ObservableLinks) links).add(observable);
+		return links;
+	}
+
+	/**
+	 * Adds the {@code Observable} that is known not to be one of the relations yet, without looking it up
+	 * @param links current relations
+	 * @param observable element to be added
+	 * @return updated relations
+	 */
+	static Object append(Object links, Observable observable) {
+		if(links == null)
+			return observable;
+		if(links instanceof Observable)
+			return new ObservableLinks((Observable) links, observable);
+		((ObservableLinks) links).append(observable);
+		return links;
+	}
+
+	/**
+	 * Removes the {@code Observable} from the relations. The last element takes its place
+	 * @param links current relations
+	 * @param observable element to be removed
+	 * @return updated relations
+	 */
+	static Object unlink(Object links, Observable observable) {
+		if(links == null || links instanceof Observable)
+			return links == observable ? null : links;
+		ObservableLinks array = (ObservableLinks) links;
+		array.remove(observable);
+		return array.size == 1 ? array.elements[0] : array;
+	}
+
+	/**
+	 * Returns the number of relations
+	 * @param links current relations
+	 * @return the number of relations
+	 */
+	static int size(Object links) {
+		if(links == null)
+			return 0;
+		return links instanceof Observable ? 1 : ((ObservableLinks) links).size;
+	}
+
+	/**
+	 * Returns the relation at the specified position
+	 * @param links current relations
+	 * @param position position of the element, must be lower than {@link #size(Object)}
+	 * @return element at the specified position
+	 */
+	static Observable get(Object links, int position) {
+		return links instanceof Observable ? (Observable) links : ((ObservableLinks) links).elements[position];
+	}
+
+	/**
+	 * Checks if the {@code Observable} is one of the relations
+	 * @param links current relations
+	 * @param observable element to be found
+	 * @return {@code true} if the element is present
+	 */
+	static boolean contains(Object links, Object observable) {
+		if(links == null || links instanceof Observable)
+			return links == observable;
+		return ((ObservableLinks) links).indexOf(observable) >= 0;
+	}
+
+	/**
+	 * Creates a read-only {@link java.util.Set} view of the relations
+	 * @param links supplier of the current relations
+	 * @return a live view of the relations
+	 */
+	static AbstractSet<Observable> view(Supplier<Object> links) {
+		return new AbstractSet<>() {
+			@Override
+			public boolean contains(Object o) {
+				return ObservableLinks.contains(links.get(), o);
+			}
+
+			@Override
+			public int size() {
+				return ObservableLinks.size(links.get());
+			}
+
+			@Override
+			public Iterator<Observable> iterator() {
+				Object current = links.get();
+				return new Iterator<>() {
+					private int position;
+
+					@Override
+					public boolean hasNext() {
+						return position < ObservableLinks.size(current);
+					}
+
+					@Override
+					public Observable next() {
+						if(!hasNext())
+							throw new NoSuchElementException();
+						return get(current, position++);
+					}
+				};
+			}
+		};
+	}
+
+	private void add(Observable observable) {
+		if(indexOf(observable) < 0)
+			append(observable);
+	}
+
+	private void append(Observable observable) {
+		if(size == elements.length)
+			elements = Arrays.copyOf(elements, size * 2);
+		elements[size++] = observable;
+	}
+
+	private void remove(Observable observable) {
+		int position = indexOf(observable);
+		if(position < 0)
+			return;
+		Observable last = elements[--size];
+		elements[position] = last;
+		elements[size] = null;
+		if(index != null) {
+			index.remove(observable);
+			if(last != observable)
+				index.put(last, position);
+			indexed = size;
+		}
+	}
+
+	private int indexOf(Object observable) {
+		if(index == null && size > INDEX_THRESHOLD)
+			index = new IdentityHashMap<>(size * 2);
+		if(index != null) {
+			for (; indexed < size; indexed++)
+				index.put(elements[indexed], indexed);
+			Integer position = index.get(observable);
+			return position != null ? position : -1;
+		}
+		for (int i = 0; i < size; i++) {
+			if(elements[i] == observable)
+				return i;
+		}
+		return -1;
+	}
+
+}
@@ -0,0 +1,483 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree;
+
+import dev.sgora.observetree.enums.ChangeType;
+import dev.sgora.observetree.enums.ListenerPriority;
+import dev.sgora.observetree.listener.ChangeListener;
+import dev.sgora.observetree.listener.ListChangeListener;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * An {@code Observable} list of elements, notifying its listeners when elements are added, removed or replaced.
+ * Every modification - including the bulk ones like {@link #addAll(Collection)}, {@link #removeIf(Predicate)} or {@link #sort(Comparator)} - marks the list as changed once.
+ * The elements that are {@code Observables} are added as its sub-observables for as long as they are contained, so their changes are propagated through the list.
+ *
+ * <p>
+ * Besides the regular {@link ChangeListener ChangeListeners}, {@link ListChangeListener ListChangeListeners} can be registered
+ * to receive the ranges of the elements changed since the previous notification. They are called together with the other listeners, in order of their priority,
+ * but only if elements were added, removed or replaced - not for the changes of the {@code Observable} elements themselves.
+ * The changes are only recorded while there are such listeners, so the modifications of a list without them take no more than the modifications of an {@code ArrayList}.
+ *
+ * @param <E> the type of the list elements
+ *
+ * @author Stanisław Góra
+ * @see ListChange
+ * @see ObservableMap
+ */
+public class ObservableList<E> extends Observable implements Iterable<E> {
+
+	private final List<E> elements;
+	private final List<E> view;
+	private final ElementLinks links = new ElementLinks(this);
+
+	/**
+	 * Registered list listeners mapped to the {@code ChangeListeners} invoking them, {@code null} if there are none
+	 */
+	private Map<ListChangeListener<E>, ChangeListener> listListeners;
+	/**
+	 * Changes made since the last notification and the ones delivered by it, tracked only while there are list listeners
+	 */
+	private List<ListChange<E>> pendingChanges;
+	private List<ListChange<E>> notifiedChanges = Collections.emptyList();
+
+	/**
+	 * Constructs a new, empty {@code ObservableList}
+	 */
+	public ObservableList() {
+		elements = new ArrayList<>();
+		view = Collections.unmodifiableList(elements);
+	}
+
+	/**
+	 * Constructs a new {@code ObservableList} containing the specified elements. It is marked as changed if one of them is.
+	 * @param elements elements to be contained, in the order they are returned by the collection iterator
+	 */
+	public ObservableList(Collection<? extends E> elements) {
+		this.elements = new ArrayList<>(elements);
+		view = Collections.unmodifiableList(this.elements);
+		if(links.linkAll(this.elements))
+			onValueChanged();
+	}
+
+	/**
+	 * Returns the number of elements in this list
+	 * @return the number of elements
+	 */
+	public int size() {
+		onValueRead();
+		return elements.size();
+	}
+
+	/**
+	 * Checks if this list contains no elements
+	 * @return {@code true} if this list is empty
+	 */
+	public boolean isEmpty() {
+		onValueRead();
+		return elements.isEmpty();
+	}
+
+	/**
+	 * Returns the element at the specified position
+	 * @param index position of the element
+	 * @return the element at the specified position
+	 * @throws IndexOutOfBoundsException if the index is out of range
+	 */
+	public E get(int index) {
+		onValueRead();
+		return elements.get(index);
+	}
+
+	/**
+	 * Checks if this list contains the specified element, according to {@code equals()}
+	 * @param element element to be found
+	 * @return {@code true} if this list contains the element
+	 */
+	public boolean contains(Object element) {
+		onValueRead();
+		return elements.contains(element);
+	}
+
+	/**
+	 * Returns the position of the first occurrence of the specified element, according to {@code equals()}
+	 * @param element element to be found
+	 * @return the position of the element, {@code -1} if this list does not contain it
+	 */
+	public int indexOf(Object element) {
+		onValueRead();
+		return elements.indexOf(element);
+	}
+
+	/**
+	 * Returns a read-only view of the elements of this list
+	 * @return a live, read-only list of the elements
+	 */
+	public List<E> asList() {
+		onValueRead();
+		return view;
+	}
+
+	/**
+	 * Copies the elements, e.g. for a {@link FrozenObservable}. It takes time proportional to the size of the list.
+	 * @return a read-only copy of the elements
+	 */
+	List<E> copyElements() {
+		return Collections.unmodifiableList(new ArrayList<>(elements));
+	}
+
+	/**
+	 * Returns a read-only iterator over the elements of this list
+	 * @return an iterator over the elements in order
+	 */
+	@Override
+	public Iterator<E> iterator() {
+		return asList().iterator();
+	}
+
+	/**
+	 * Appends the element to the end of this list
+	 * @param element element to be added
+	 */
+	public void add(E element) {
+		add(elements.size(), element);
+	}
+
+	/**
+	 * Inserts the element at the specified position, shifting the following elements
+	 * @param index position the element is inserted at
+	 * @param element element to be added
+	 * @throws IndexOutOfBoundsException if the index is out of range
+	 * @throws IllegalArgumentException if the element can not be added as a sub-observable, e.g. it would create a cycle - the list is then not modified
+	 */
+	public void add(int index, E element) {
+		Objects.checkIndex(index, elements.size() + 1);
+		links.link(element);
+		elements.add(index, element);
+		record(ChangeType.ADDED, index, null, Collections.singletonList(element));
+		onValueChanged();
+	}
+
+	/**
+	 * Appends all the elements to the end of this list
+	 * @param added elements to be added, in the order they are returned by the collection iterator
+	 * @return {@code true} if this list was changed
+	 */
+	public boolean addAll(Collection<? extends E> added) {
+		return addAll(elements.size(), added);
+	}
+
+	/**
+	 * Inserts all the elements at the specified position, shifting the following elements
+	 * @param index position the first element is inserted at
+	 * @param added elements to be added, in the order they are returned by the collection iterator
+	 * @return {@code true} if this list was changed
+	 * @throws IndexOutOfBoundsException if the index is out of range
+	 * @throws IllegalArgumentException if one of the elements can not be added as a sub-observable, e.g. it would create a cycle - the list is then not modified
+	 */
+	public boolean addAll(int index, Collection<? extends E> added) {
+		Objects.checkIndex(index, elements.size() + 1);
+		List<E> copy = new ArrayList<>(added);
+		if(copy.isEmpty())
+			return false;
+		links.linkAll(copy);
+		elements.addAll(index, copy);
+		record(ChangeType.ADDED, index, null, copy);
+		onValueChanged();
+		return true;
+	}
+
+	/**
+	 * Replaces the element at the specified position. The list is not changed if the elements are equal according to {@code equals()}
+	 * @param index position of the replaced element
+	 * @param element element to be set
+	 * @return the replaced element
+	 * @throws IndexOutOfBoundsException if the index is out of range
+	 * @throws IllegalArgumentException if the element can not be added as a sub-observable, e.g. it would create a cycle - the list is then not modified
+	 */
+	public E set(int index, E element) {
+		E previous = elements.get(index);
+		if(Objects.equals(previous, element))
+			return previous;
+		links.link(element);
+		elements.set(index, element);
+		links.unlink(previous);
+		record(ChangeType.REPLACED, index, Collections.singletonList(previous), Collections.singletonList(element));
+		onValueChanged();
+		return previous;
+	}
+
+	/**
+	 * Replaces all the elements of this list. The {@code Observable} elements contained both before and after stay linked.
+	 * @param replacing elements to be contained, in the order they are returned by the collection iterator
+	 * @return {@code true} if this list was changed
+	 * @throws IllegalArgumentException if one of the elements can not be added as a sub-observable, e.g. it would create a cycle - the list is then not modified
+	 */
+	public boolean setAll(Collection<? extends E> replacing) {
+		List<E> copy = new ArrayList<>(replacing);
+		if(elements.equals(copy))
+			return false;
+		links.linkAll(copy);
+		List<E> removed = new ArrayList<>(elements);
+		elements.clear();
+		elements.addAll(copy);
+		for (E element : removed)
+			links.unlink(element);
+		record(ChangeType.REMOVED, 0, removed, null);
+		record(ChangeType.ADDED, 0, null, copy);
+		onValueChanged();
+		return true;
+	}
+
+	/**
+	 * Removes the element at the specified position, shifting the following elements
+	 * @param index position of the removed element
+	 * @return the removed element
+	 * @throws IndexOutOfBoundsException if the index is out of range
+	 */
+	public E remove(int index) {
+		E removed = elements.remove(index);
+		links.unlink(removed);
+		record(ChangeType.REMOVED, index, Collections.singletonList(removed), null);
+		onValueChanged();
+		return removed;
+	}
+
+	/**
+	 * Removes the first occurrence of the element, according to {@code equals()}
+	 * @param element element to be removed
+	 * @return {@code true} if this list contained the element
+	 */
+	public boolean remove(Object element) {
+		int index = elements.indexOf(element);
+		if(index < 0)
+			return false;
+		remove(index);
+		return true;
+	}
+
+	/**
+	 * Removes all the elements matching the filter. Each continuous range of the removed elements is reported as a single change.
+	 * @param filter predicate returning {@code true} for the elements to be removed
+	 * @return {@code true} if any element was removed
+	 */
+	public boolean removeIf(Predicate<? super E> filter) {
+		int size = elements.size();
+		// the filter is applied first, so that the list is not modified if it throws
+		BitSet matched = new BitSet(size);
+		for (int i = 0; i < size; i++) {
+			if(filter.test(elements.get(i)))
+				matched.set(i);
+		}
+		if(matched.isEmpty())
+			return false;
+		int kept = 0;
+		List<E> run = null;
+		for (int i = 0; i < size; i++) {
+			E element = elements.get(i);
+			if(matched.get(i)) {
+				if(run == null)
+					run = new ArrayList<>();
+				run.add(element);
+				links.unlink(element);
+				continue;
+			}
+			if(run != null) {
+				record(ChangeType.REMOVED, kept, run, null);
+				run = null;
+			}
+			elements.set(kept++, element);
+		}
+		if(run != null)
+			record(ChangeType.REMOVED, kept, run, null);
+		elements.subList(kept, size).clear();
+		onValueChanged();
+		return true;
+	}
+
+	/**
+	 * Removes all the elements of this list
+	 */
+	public void clear() {
+		if(elements.isEmpty())
+			return;
+		List<E> removed = new ArrayList<>(elements);
+		elements.clear();
+		for (E element : removed)
+			links.unlink(element);
+		record(ChangeType.REMOVED, 0, removed, null);
+		onValueChanged();
+	}
+
+	/**
+	 * Sorts the elements of this list. The range of the elements that were moved is reported as a single replacement.
+	 * @param comparator comparator of the elements, {@code null} to use their natural ordering
+	 */
+	public void sort(Comparator<? super E> comparator) {
+		Object[] before = elements.toArray();
+		elements.sort(comparator);
+		int first = 0;
+		int last = before.length - 1;
+		while(first <= last && before[first] == elements.get(first))
+			first++;
+		if(first > last)
+			return;
+		while(before[last] == elements.get(last))
+			last--;
+		if(pendingChanges != null) {
+			List<E> moved = new ArrayList<>(last - first + 1);
+			for (int i = first; i <= last; i++)
+				moved.add(cast(before[i]));
+			record(ChangeType.REPLACED, first, moved, new ArrayList<>(elements.subList(first, last + 1)));
+		}
+		onValueChanged();
+	}
+
+	@SuppressWarnings("unchecked")
+	private E cast(Object element) {
+		return (E) element;
+	}
+
+	/**
+	 * Records a change for the list listeners, merging it with the previous one if they make up a single continuous change
+	 * @param removed removed elements, {@code null} if there are none
+	 * @param added added elements, {@code null} if there are none
+	 */
+	private void record(ChangeType type, int from, List<E> removed, List<E> added) {
+		if(pendingChanges == null)
+			return;
+		List<E> removedElements = removed != null ? removed : Collections.emptyList();
+		List<E> addedElements = added != null ? added : Collections.emptyList();
+		if(!pendingChanges.isEmpty() && pendingChanges.get(pendingChanges.size() - 1).merge(type, from, removedElements, addedElements))
+			return;
+		// the change owns its lists, so that the following changes can be merged into them
+		pendingChanges.add(new ListChange<>(type, from, new ArrayList<>(removedElements), new ArrayList<>(addedElements)));
+	}
+
+	/**
+	 * Adds the specified list listener to the list of listeners with the default priority {@link ListenerPriority#NORMAL} (0).
+	 * @param listener element to be added
+	 * @return {@code true} if the listener was successfully added. {@code false} if it was already present
+	 */
+	public boolean addListListener(ListChangeListener<E> listener) {
+		return addListListener(listener, ListenerPriority.NORMAL);
+	}
+
+	/**
+	 * Adds the specified list listener to the list of listeners with the specified priority.
+	 * @param listener element to be added
+	 * @param priority priority of this listener
+	 * @return {@code true} if the listener was successfully added. {@code false} if it was already present
+	 */
+	public boolean addListListener(ListChangeListener<E> listener, ListenerPriority priority) {
+		return addListListener(listener, priority.value);
+	}
+
+	/**
+	 * Adds the specified list listener to the list of listeners with the specified priority.
+	 * The changes are recorded from the moment the first list listener is added.
+	 * @param listener element to be added
+	 * @param priority priority of this listener
+	 * @return {@code true} if the listener was successfully added. {@code false} if it was already present
+	 */
+	public boolean addListListener(ListChangeListener<E> listener, int priority) {
+		if(listListeners == null) {
+			listListeners = new IdentityHashMap<>();
+			pendingChanges = new ArrayList<>();
+		} else if(listListeners.containsKey(listener)) {
+			return false;
+		}
+		ChangeListener invoker = new ListInvoker(listener);
+		if(!addListener(invoker, priority))
+			return false;
+		listListeners.put(listener, invoker);
+		return true;
+	}
+
+	/**
+	 * Removes the specified list listener from the list of listeners.
+	 * @param listener element to be removed
+	 * @return {@code true} if the listener was successfully removed. {@code false} if it was not found
+	 */
+	public boolean removeListListener(ListChangeListener<E> listener) {
+		ChangeListener invoker = listListeners != null ? listListeners.remove(listener) : null;
+		if(invoker == null)
+			return false;
+		removeListener(invoker);
+		if(listListeners.isEmpty())
+			stopTrackingChanges();
+		return true;
+	}
+
+	@Override
+	public void clearListeners() {
+		super.clearListeners();
+		stopTrackingChanges();
+	}
+
+	private void stopTrackingChanges() {
+		listListeners = null;
+		pendingChanges = null;
+		notifiedChanges = Collections.emptyList();
+	}
+
+	/**
+	 * Hands the recorded changes over to the list listeners invoked by this notification
+	 */
+	@Override
+	void onChangeConsumed() {
+		if(pendingChanges == null)
+			return;
+		notifiedChanges = Collections.unmodifiableList(pendingChanges);
+		pendingChanges = new ArrayList<>();
+	}
+
+	/**
+	 * Invokes a list listener with the changes delivered by the last notification, if there were any
+	 */
+	private final class ListInvoker implements ListenerInvoker {
+		private final ListChangeListener<E> listener;
+
+		private ListInvoker(ListChangeListener<E> listener) {
+			this.listener = listener;
+		}
+
+		@Override
+		public void call() {
+			invoke(notifiedChanges);
+		}
+
+		@Override
+		public ChangeListener bind() {
+			List<ListChange<E>> changes = notifiedChanges;
+			return () -> invoke(changes);
+		}
+
+		@Override
+		public Object getListener() {
+			return listener;
+		}
+
+		private void invoke(List<ListChange<E>> changes) {
+			if(!changes.isEmpty())
+				listener.call(changes);
+		}
+	}
+
+}
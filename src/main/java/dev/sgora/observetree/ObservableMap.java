@@ -0,0 +1,370 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree;
+
+import dev.sgora.observetree.enums.ChangeType;
+import dev.sgora.observetree.enums.ListenerPriority;
+import dev.sgora.observetree.listener.ChangeListener;
+import dev.sgora.observetree.listener.MapChangeListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiPredicate;
+
+/**
+ * An {@code Observable} map, notifying its listeners when entries are added, removed or replaced. The entries are kept in the order they were added.
+ * Every modification - including the bulk ones like {@link #putAll(Map)} or {@link #removeIf(BiPredicate)} - marks the map as changed once.
+ * The values that are {@code Observables} are added as its sub-observables for as long as they are contained, so their changes are propagated through the map.
+ *
+ * <p>
+ * Besides the regular {@link ChangeListener ChangeListeners}, {@link MapChangeListener MapChangeListeners} can be registered
+ * to receive the entries changed since the previous notification. They are called together with the other listeners, in order of their priority,
+ * but only if entries were added, removed or replaced - not for the changes of the {@code Observable} values themselves.
+ * The changes of a key are coalesced, e.g. an entry added and then removed before the notification is not reported.
+ * The changes are only recorded while there are such listeners.
+ *
+ * @param <K> the type of the map keys
+ * @param <V> the type of the map values
+ *
+ * @author Stanisław Góra
+ * @see MapChange
+ * @see ObservableList
+ */
+public class ObservableMap<K, V> extends Observable {
+
+	private final Map<K, V> entries = new LinkedHashMap<>();
+	private final Map<K, V> view = Collections.unmodifiableMap(entries);
+	private final ElementLinks links = new ElementLinks(this);
+
+	/**
+	 * Registered map listeners mapped to the {@code ChangeListeners} invoking them, {@code null} if there are none
+	 */
+	private Map<MapChangeListener<K, V>, ChangeListener> mapListeners;
+	/**
+	 * Changes of each key made since the last notification and the ones delivered by it, tracked only while there are map listeners
+	 */
+	private Map<K, MapChange<K, V>> pendingChanges;
+	private Collection<MapChange<K, V>> notifiedChanges = Collections.emptyList();
+
+	/**
+	 * Constructs a new, empty {@code ObservableMap}
+	 */
+	public ObservableMap() {
+	}
+
+	/**
+	 * Constructs a new {@code ObservableMap} containing the specified entries. It is marked as changed if one of the values is.
+	 * @param entries entries to be contained
+	 */
+	public ObservableMap(Map<? extends K, ? extends V> entries) {
+		this.entries.putAll(entries);
+		boolean changed = false;
+		for (V value : this.entries.values())
+			changed |= links.link(value);
+		if(changed)
+			onValueChanged();
+	}
+
+	/**
+	 * Returns the number of entries in this map
+	 * @return the number of entries
+	 */
+	public int size() {
+		onValueRead();
+		return entries.size();
+	}
+
+	/**
+	 * Checks if this map contains no entries
+	 * @return {@code true} if this map is empty
+	 */
+	public boolean isEmpty() {
+		onValueRead();
+		return entries.isEmpty();
+	}
+
+	/**
+	 * Returns the value the key is mapped to
+	 * @param key key of the entry
+	 * @return the value of the entry, {@code null} if this map does not contain the key
+	 */
+	public V get(Object key) {
+		onValueRead();
+		return entries.get(key);
+	}
+
+	/**
+	 * Checks if this map contains an entry with the specified key
+	 * @param key key to be found
+	 * @return {@code true} if this map contains the key
+	 */
+	public boolean containsKey(Object key) {
+		onValueRead();
+		return entries.containsKey(key);
+	}
+
+	/**
+	 * Returns a read-only view of the entries of this map
+	 * @return a live, read-only map of the entries
+	 */
+	public Map<K, V> asMap() {
+		onValueRead();
+		return view;
+	}
+
+	/**
+	 * Copies the entries, e.g. for a {@link FrozenObservable}. It takes time proportional to the size of the map.
+	 * @return a read-only copy of the entries
+	 */
+	Map<K, V> copyEntries() {
+		return Collections.unmodifiableMap(new LinkedHashMap<>(entries));
+	}
+
+	/**
+	 * Maps the key to the value. The map is not changed if the key is already mapped to an equal value according to {@code equals()}
+	 * @param key key of the entry
+	 * @param value value to be set
+	 * @return the previous value of the key, {@code null} if it was not contained
+	 * @throws IllegalArgumentException if the value can not be added as a sub-observable, e.g. it would create a cycle - the map is then not modified
+	 */
+	public V put(K key, V value) {
+		boolean contained = entries.containsKey(key);
+		V previous = entries.get(key);
+		if(contained && Objects.equals(previous, value))
+			return previous;
+		putEntry(key, value, contained, previous);
+		onValueChanged();
+		return previous;
+	}
+
+	/**
+	 * Maps all the keys to their values
+	 * @param added entries to be put
+	 * @return {@code true} if this map was changed
+	 * @throws IllegalArgumentException if one of the values can not be added as a sub-observable, the entries put before it are kept
+	 */
+	public boolean putAll(Map<? extends K, ? extends V> added) {
+		boolean changed = false;
+		try {
+			for (Map.Entry<? extends K, ? extends V> entry : added.entrySet()) {
+				K key = entry.getKey();
+				boolean contained = entries.containsKey(key);
+				V previous = entries.get(key);
+				if(contained && Objects.equals(previous, entry.getValue()))
+					continue;
+				putEntry(key, entry.getValue(), contained, previous);
+				changed = true;
+			}
+		} finally {
+			// the entries put before a value that could not be linked are kept
+			if(changed)
+				onValueChanged();
+		}
+		return changed;
+	}
+
+	private void putEntry(K key, V value, boolean contained, V previous) {
+		links.link(value);
+		entries.put(key, value);
+		if(contained)
+			links.unlink(previous);
+		record(key, contained ? ChangeType.REPLACED : ChangeType.ADDED, previous, value);
+	}
+
+	/**
+	 * Removes the entry with the specified key
+	 * @param key key of the entry
+	 * @return the removed value, {@code null} if this map did not contain the key
+	 */
+	@SuppressWarnings("unchecked")
+	public V remove(Object key) {
+		if(!entries.containsKey(key))
+			return null;
+		V removed = entries.remove(key);
+		links.unlink(removed);
+		record((K) key, ChangeType.REMOVED, removed, null);
+		onValueChanged();
+		return removed;
+	}
+
+	/**
+	 * Removes all the entries matching the filter
+	 * @param filter predicate returning {@code true} for the keys and values of the entries to be removed
+	 * @return {@code true} if any entry was removed
+	 */
+	public boolean removeIf(BiPredicate<? super K, ? super V> filter) {
+		// the filter is applied first, so that the map is not modified if it throws
+		List<K> matched = new ArrayList<>();
+		for (Map.Entry<K, V> entry : entries.entrySet()) {
+			if(filter.test(entry.getKey(), entry.getValue()))
+				matched.add(entry.getKey());
+		}
+		if(matched.isEmpty())
+			return false;
+		for (K key : matched) {
+			V removed = entries.remove(key);
+			links.unlink(removed);
+			record(key, ChangeType.REMOVED, removed, null);
+		}
+		onValueChanged();
+		return true;
+	}
+
+	/**
+	 * Removes all the entries of this map
+	 */
+	public void clear() {
+		if(entries.isEmpty())
+			return;
+		for (Iterator<Map.Entry<K, V>> iterator = entries.entrySet().iterator(); iterator.hasNext(); ) {
+			Map.Entry<K, V> entry = iterator.next();
+			iterator.remove();
+			links.unlink(entry.getValue());
+			record(entry.getKey(), ChangeType.REMOVED, entry.getValue(), null);
+		}
+		onValueChanged();
+	}
+
+	/**
+	 * Records a change for the map listeners, coalescing it with the previous change of the key
+	 * @param oldValue value before the change, ignored if the entry is added
+	 * @param newValue value after the change, ignored if the entry is removed
+	 */
+	private void record(K key, ChangeType type, V oldValue, V newValue) {
+		if(pendingChanges == null)
+			return;
+		MapChange<K, V> previous = pendingChanges.remove(key);
+		if(previous != null) {
+			boolean existedBefore = previous.getType() != ChangeType.ADDED;
+			boolean existsAfter = type != ChangeType.REMOVED;
+			oldValue = previous.getOldValue();
+			if(!existedBefore && !existsAfter || existedBefore && existsAfter && Objects.equals(oldValue, newValue))
+				return;
+			type = existedBefore ? existsAfter ? ChangeType.REPLACED : ChangeType.REMOVED : ChangeType.ADDED;
+		}
+		pendingChanges.put(key, new MapChange<>(type, key, type != ChangeType.ADDED ? oldValue : null, type != ChangeType.REMOVED ? newValue : null));
+	}
+
+	/**
+	 * Adds the specified map listener to the list of listeners with the default priority {@link ListenerPriority#NORMAL} (0).
+	 * @param listener element to be added
+	 * @return {@code true} if the listener was successfully added. {@code false} if it was already present
+	 */
+	public boolean addMapListener(MapChangeListener<K, V> listener) {
+		return addMapListener(listener, ListenerPriority.NORMAL);
+	}
+
+	/**
+	 * Adds the specified map listener to the list of listeners with the specified priority.
+	 * @param listener element to be added
+	 * @param priority priority of this listener
+	 * @return {@code true} if the listener was successfully added. {@code false} if it was already present
+	 */
+	public boolean addMapListener(MapChangeListener<K, V> listener, ListenerPriority priority) {
+		return addMapListener(listener, priority.value);
+	}
+
+	/**
+	 * Adds the specified map listener to the list of listeners with the specified priority.
+	 * The changes are recorded from the moment the first map listener is added.
+	 * @param listener element to be added
+	 * @param priority priority of this listener
+	 * @return {@code true} if the listener was successfully added. {@code false} if it was already present
+	 */
+	public boolean addMapListener(MapChangeListener<K, V> listener, int priority) {
+		if(mapListeners == null) {
+			mapListeners = new IdentityHashMap<>();
+			pendingChanges = new LinkedHashMap<>();
+		} else if(mapListeners.containsKey(listener)) {
+			return false;
+		}
+		ChangeListener invoker = new MapInvoker(listener);
+		if(!addListener(invoker, priority))
+			return false;
+		mapListeners.put(listener, invoker);
+		return true;
+	}
+
+	/**
+	 * Removes the specified map listener from the list of listeners.
+	 * @param listener element to be removed
+	 * @return {@code true} if the listener was successfully removed. {@code false} if it was not found
+	 */
+	public boolean removeMapListener(MapChangeListener<K, V> listener) {
+		ChangeListener invoker = mapListeners != null ? mapListeners.remove(listener) : null;
+		if(invoker == null)
+			return false;
+		removeListener(invoker);
+		if(mapListeners.isEmpty())
+			stopTrackingChanges();
+		return true;
+	}
+
+	@Override
+	public void clearListeners() {
+		super.clearListeners();
+		stopTrackingChanges();
+	}
+
+	private void stopTrackingChanges() {
+		mapListeners = null;
+		pendingChanges = null;
+		notifiedChanges = Collections.emptyList();
+	}
+
+	/**
+	 * Hands the recorded changes over to the map listeners invoked by this notification
+	 */
+	@Override
+	void onChangeConsumed() {
+		if(pendingChanges == null)
+			return;
+		notifiedChanges = Collections.unmodifiableCollection(pendingChanges.values());
+		pendingChanges = new LinkedHashMap<>();
+	}
+
+	/**
+	 * Invokes a map listener with the changes delivered by the last notification, if there were any
+	 */
+	private final class MapInvoker implements ListenerInvoker {
+		private final MapChangeListener<K, V> listener;
+
+		private MapInvoker(MapChangeListener<K, V> listener) {
+			this.listener = listener;
+		}
+
+		@Override
+		public void call() {
+			invoke(notifiedChanges);
+		}
+
+		@Override
+		public ChangeListener bind() {
+			Collection<MapChange<K, V>> changes = notifiedChanges;
+			return () -> invoke(changes);
+		}
+
+		@Override
+		public Object getListener() {
+			return listener;
+		}
+
+		private void invoke(Collection<MapChange<K, V>> changes) {
+			if(!changes.isEmpty())
+				listener.call(changes);
+		}
+	}
+
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree;
+
+import dev.sgora.observetree.listener.ChangeListener;
+
+/**
+ * Instrumentation hook called by the {@code Observables} at fixed points of the change propagation and the listener dispatch.
+ * Implementations can feed the reported values into a metrics registry, e.g. to find the trees that notify too often or traverse too much.
+ * All the methods are empty by default. They are called synchronously, so they should be cheap and must not modify the tree.
+ *
+ * <p>
+ * Metrics can be installed for all the {@code Observables} with {@link Observable#setDefaultMetrics(ObservableMetrics)}
+ * or for a single tree with {@link Observable#setMetrics(ObservableMetrics)}.
+ * When the installed metrics are {@link #NONE} the values are not measured at all.
+ *
+ * @author Stanisław Góra
+ */
+public interface ObservableMetrics {
+
+	/**
+	 * Metrics ignoring all the events, installed by default
+	 */
+	ObservableMetrics NONE = new ObservableMetrics() {};
+
+	/**
+	 * Called after a change was made and propagated to the ancestors
+	 * @param source {@code Observable} that was changed
+	 * @param ancestorsVisited number of the ancestors marked as changed by the propagation
+	 */
+	default void onValueChanged(Observable source, int ancestorsVisited) {
+	}
+
+	/**
+	 * Called after the listeners of a notification were invoked or - for asynchronous notifications - scheduled
+	 * @param source {@code Observable} whose listeners were notified, {@code null} for the deferred notifications of many {@code Observables}
+	 * @param nodesTraversed number of the {@code Observables} visited while collecting the listeners
+	 * @param listenersCollected number of the listeners collected, including duplicates registered on several {@code Observables}
+	 * @param listenersInvoked number of the listeners invoked
+	 * @param nanos wall time of the whole notification in nanoseconds
+	 */
+	default void onNotification(Observable source, int nodesTraversed, int listenersCollected, int listenersInvoked, long nanos) {
+	}
+
+	/**
+	 * Called after a listener was added
+	 * @param observable {@code Observable} the listener was added to
+	 * @param listener added listener
+	 */
+	default void onListenerAdded(Observable observable, ChangeListener listener) {
+	}
+
+	/**
+	 * Called after a listener was removed
+	 * @param observable {@code Observable} the listener was removed from
+	 * @param listener removed listener
+	 */
+	default void onListenerRemoved(Observable observable, ChangeListener listener) {
+	}
+
+}
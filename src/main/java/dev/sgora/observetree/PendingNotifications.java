@@ -0,0 +1,105 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree;
+
+import dev.sgora.observetree.enums.ListenerNotification;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Internal set of changed {@code Observables} whose notification was deferred.
+ * {@link #flush()} notifies all of them with a single dispatch, so that every listener is called at most once and in global priority order.
+ * Only the {@code Observables} reporting to different {@link ObservableMetrics} are dispatched separately,
+ * as are the {@link ListenerNotification#ASYNC} ones, whose listeners are invoked on the async executor in the queue of their tree.
+ *
+ * @author Stanisław Góra
+ */
+final class PendingNotifications {
+
+	/**
+	 * Changes gathered from the {@link ListenerNotification#COALESCED} {@code Observables}
+	 */
+	static final PendingNotifications coalesced = new PendingNotifications();
+	private static volatile NotificationScheduler scheduler = NotificationScheduler.manual();
+
+	private final Set<Observable> observables = Collections.newSetFromMap(new IdentityHashMap<>());
+
+	/**
+	 * Adds the {@code Observable} to the set
+	 * @param observable changed element
+	 * @return {@code true} if it is the first pending element
+	 */
+	synchronized boolean add(Observable observable) {
+		return observables.add(observable) && observables.size() == 1;
+	}
+
+	/**
+	 * Notifies the listeners of all the pending {@code Observables} that are still marked as changed.
+	 * The {@code Observables} reporting to different {@link ObservableMetrics} are dispatched separately, each measured against their own metrics.
+	 * The listeners of the {@link ListenerNotification#ASYNC} ones are invoked asynchronously, like by their own {@link Observable#notifyListeners()},
+	 * and are grouped by their tree, so that the notifications of each tree stay in order.
+	 */
+	void flush() {
+		List<Observable> changed;
+		synchronized (this) {
+			if(observables.isEmpty())
+				return;
+			changed = new ArrayList<>(observables);
+			observables.clear();
+		}
+		while(!changed.isEmpty()) {
+			ObservableMetrics metrics = changed.get(0).getMetrics();
+			AsyncDispatcher.TreeQueue queue = asyncQueue(changed.get(0));
+			List<Observable> group = new ArrayList<>();
+			for (Iterator<Observable> iterator = changed.iterator(); iterator.hasNext(); ) {
+				Observable observable = iterator.next();
+				if(observable.getMetrics() == metrics && asyncQueue(observable) == queue) {
+					group.add(observable);
+					iterator.remove();
+				}
+			}
+			dispatch(group, metrics, queue);
+		}
+	}
+
+	private static AsyncDispatcher.TreeQueue asyncQueue(Observable observable) {
+		return observable.getNotificationMethod() == ListenerNotification.ASYNC ? observable.asyncQueue() : null;
+	}
+
+	private static void dispatch(List<Observable> changed, ObservableMetrics metrics, AsyncDispatcher.TreeQueue queue) {
+		DispatchBuffer buffer = DispatchBuffer.acquire();
+		buffer.measure(changed.size() == 1 ? changed.get(0) : null, metrics);
+		for (Observable observable : changed) {
+			if(observable.isValueChanged())
+				observable.collectChangedListeners(buffer);
+		}
+		if(queue != null)
+			buffer.dispatchAsync(queue);
+		else
+			buffer.dispatch();
+	}
+
+	/**
+	 * Adds the {@code Observable} to the {@link #coalesced} set and schedules its flush if needed
+	 * @param observable changed element
+	 */
+	static void coalesce(Observable observable) {
+		if(coalesced.add(observable))
+			scheduler.schedule(coalesced::flush);
+	}
+
+	static void setScheduler(NotificationScheduler scheduler) {
+		PendingNotifications.scheduler = scheduler;
+	}
+
+}
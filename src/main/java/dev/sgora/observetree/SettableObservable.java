@@ -10,9 +10,10 @@ package dev.sgora.observetree;
 import dev.sgora.observetree.enums.ListenerPriority;
 import dev.sgora.observetree.listener.ChangeListener;
 import dev.sgora.observetree.listener.ListenerEntry;
+import dev.sgora.observetree.listener.ListenerList;
 
-import java.util.Set;
-import java.util.TreeSet;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 
 /**
  * Extends the functionality of the {@link SettableProperty} for {@link #modelValue} extending {@link Observable}.
@@ -26,7 +27,7 @@ import java.util.TreeSet;
  */
 public class SettableObservable<T extends Observable> extends SettableProperty<T> {
 
-	private transient Set<ListenerEntry> staticListeners = new TreeSet<>();
+	private transient ListenerList staticListeners = new ListenerList();
 
 	/**
 	 * Constructs a new, empty {@code SettableObservable} with {@code null} {@link #modelValue}
@@ -74,6 +75,40 @@ public class SettableObservable<T extends Observable> extends SettableProperty<T
 		return added;
 	}
 
+	/**
+	 * Adds the specified listener to the list of static listeners with the default priority {@link ListenerPriority#NORMAL} (0), holding it through a weak reference.
+	 * @param listener element to be added
+	 * @return {@code true} if the listener was successfully added. {@code false} if it was already present
+	 * @see Observable#addWeakListener(ChangeListener, int)
+	 */
+	public boolean addWeakStaticListener(ChangeListener listener) {
+		return addWeakStaticListener(listener, ListenerPriority.NORMAL);
+	}
+
+	/**
+	 * Adds the specified listener to the list of static listeners with the specified priority, holding it through a weak reference.
+	 * @param listener element to be added
+	 * @param priority priority of this listener
+	 * @return {@code true} if the listener was successfully added. {@code false} if it was already present
+	 * @see Observable#addWeakListener(ChangeListener, int)
+	 */
+	public boolean addWeakStaticListener(ChangeListener listener, ListenerPriority priority) {
+		return addWeakStaticListener(listener, priority.value);
+	}
+
+	/**
+	 * Adds the specified listener to the list of static listeners with the specified priority, holding it through a weak reference.
+	 * Once its subscriber is garbage collected it is removed from this {@code SettableObservable} and its {@link #modelValue}.
+	 * @param listener element to be added
+	 * @param priority priority of this listener
+	 * @return {@code true} if the listener was successfully added. {@code false} if it was already present
+	 * @see Observable#addWeakListener(ChangeListener, int)
+	 */
+	public boolean addWeakStaticListener(ChangeListener listener, int priority) {
+		WeakListener weakListener = registerWeakListener(staticListeners, listener, true);
+		return weakListener != null && addStaticListener(weakListener, priority);
+	}
+
 	/**
 	 * Removes the specified static listener from the list of listeners.
 	 * @param listener element to be removed
@@ -127,10 +162,22 @@ public class SettableObservable<T extends Observable> extends SettableProperty<T
 			getParents().forEach(parent -> parent.removeSubObservable(this.modelValue));
 		}
 		if(modelValue != null) {
-			staticListeners.forEach(listener -> modelValue.addListener(listener.listener, listener.priority));
+			for (ListenerEntry entry : staticListeners.getEntries())
+				modelValue.addListener(entry.listener, entry.priority);
 			getParents().forEach(parent -> parent.addSubObservable(modelValue));
 		}
 		super.set(modelValue);
 	}
 
+	/**
+	 * Restores the static listener storage, which is not initialized by the default deserialization
+	 * @param in stream to read the object from
+	 * @throws IOException if reading the stream fails
+	 * @throws ClassNotFoundException if a class of the serialized object cannot be found
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		staticListeners = new ListenerList();
+	}
+
 }
@@ -7,15 +7,26 @@
 
 package dev.sgora.observetree;
 
+import dev.sgora.observetree.enums.ListenerPriority;
+import dev.sgora.observetree.listener.ChangeListener;
+import dev.sgora.observetree.listener.ValueChangeListener;
+
 import java.io.Serializable;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
 import java.util.function.UnaryOperator;
 
 /**
  * A wrapper class that encapsulates another object - {@link #modelValue} - and notifies it's listeners when it is set.
- * {@code equals()} method is used to determine if {@link #defaultValue} was changed.
+ * {@code equals()} method is used by default to determine if {@link #modelValue} was changed - it can be replaced with {@link #setEqualityStrategy(EqualityStrategy)}.
  * It supports {@link #defaultValue} for the {@link #modelValue} that can be set and reset to.
  *
  * <p>
+ * Besides the regular {@link ChangeListener ChangeListeners}, {@link ValueChangeListener ValueChangeListeners} can be registered
+ * to receive the {@link #modelValue} from before and after the change. They are called together with the other listeners, in order of their priority.
+ *
+ * <p>
  * Note that the type of this {@link SettableProperty} needs to be serializable for this object to be serialized.
  * It is only not required to allow for more flexible usage.
  *
@@ -37,6 +48,21 @@ public class SettableProperty<T> extends Observable implements Serializable {
 
 	private static final long serialVersionUID = 1L;
 
+	/**
+	 * Registered value listeners mapped to the {@code ChangeListeners} invoking them, {@code null} if there are none
+	 */
+	private transient Map<ValueChangeListener<? super T>, ChangeListener> valueListeners;
+	/**
+	 * {@link #modelValue} at the time of the last and the previous notification, tracked only while there are value listeners
+	 */
+	private transient T notifiedValue;
+	private transient T previousValue;
+	/**
+	 * Strategy comparing the set values, {@code null} for the default {@link EqualityStrategy#equality()}.
+	 * It is not serialized, so deserialized properties use the default one.
+	 */
+	private transient EqualityStrategy<? super T> equalityStrategy;
+
 	/**
 	 * Constructs a new, empty {@code SettableProperty} with {@code null} {@link #modelValue}
 	 */
@@ -64,6 +90,7 @@ public class SettableProperty<T> extends Observable implements Serializable {
 	 * @return the current {@link #modelValue}
 	 */
 	public T get() {
+		onValueRead();
 		return modelValue;
 	}
 
@@ -72,12 +99,28 @@ public class SettableProperty<T> extends Observable implements Serializable {
 	 * @param modelValue value to be set
 	 */
 	public void set(T modelValue) {
-		if(this.modelValue.equals(modelValue))
+		if(equalityStrategy != null ? equalityStrategy.equal(this.modelValue, modelValue) : Objects.equals(this.modelValue, modelValue))
 			return;
 		this.modelValue = modelValue;
 		onValueChanged();
 	}
 
+	/**
+	 * Returns the strategy used by {@link #set(Object)} to determine if the {@link #modelValue} was changed
+	 * @return the current equality strategy
+	 */
+	public EqualityStrategy<? super T> getEqualityStrategy() {
+		return equalityStrategy != null ? equalityStrategy : EqualityStrategy.equality();
+	}
+
+	/**
+	 * Sets the strategy used by {@link #set(Object)} to determine if the {@link #modelValue} was changed
+	 * @param equalityStrategy strategy to be used, {@code null} to use the default {@link EqualityStrategy#equality()}
+	 */
+	public void setEqualityStrategy(EqualityStrategy<? super T> equalityStrategy) {
+		this.equalityStrategy = equalityStrategy;
+	}
+
 	/**
 	 * Sets the {@link #modelValue} and calls {@link #notifyListeners()}
 	 * @param modelValue value to be set
@@ -95,6 +138,113 @@ public class SettableProperty<T> extends Observable implements Serializable {
 		set(operator.apply(modelValue));
 	}
 
+	/**
+	 * Adds the specified value listener to the list of listeners with the default priority {@link ListenerPriority#NORMAL} (0).
+	 * @param listener element to be added
+	 * @return {@code true} if the listener was successfully added. {@code false} if it was already present
+	 */
+	public boolean addValueListener(ValueChangeListener<? super T> listener) {
+		return addValueListener(listener, ListenerPriority.NORMAL);
+	}
+
+	/**
+	 * Adds the specified value listener to the list of listeners with the specified priority.
+	 * @param listener element to be added
+	 * @param priority priority of this listener
+	 * @return {@code true} if the listener was successfully added. {@code false} if it was already present
+	 */
+	public boolean addValueListener(ValueChangeListener<? super T> listener, ListenerPriority priority) {
+		return addValueListener(listener, priority.value);
+	}
+
+	/**
+	 * Adds the specified value listener to the list of listeners with the specified priority.
+	 * The values are tracked from the moment the first value listener is added.
+	 * @param listener element to be added
+	 * @param priority priority of this listener
+	 * @return {@code true} if the listener was successfully added. {@code false} if it was already present
+	 */
+	public boolean addValueListener(ValueChangeListener<? super T> listener, int priority) {
+		if(valueListeners == null) {
+			valueListeners = new IdentityHashMap<>();
+			notifiedValue = modelValue;
+			previousValue = modelValue;
+		} else if(valueListeners.containsKey(listener)) {
+			return false;
+		}
+		ChangeListener invoker = new ValueInvoker(listener);
+		if(!addListener(invoker, priority))
+			return false;
+		valueListeners.put(listener, invoker);
+		return true;
+	}
+
+	/**
+	 * Removes the specified value listener from the list of listeners.
+	 * @param listener element to be removed
+	 * @return {@code true} if the listener was successfully removed. {@code false} if it was not found
+	 */
+	public boolean removeValueListener(ValueChangeListener<? super T> listener) {
+		ChangeListener invoker = valueListeners != null ? valueListeners.remove(listener) : null;
+		if(invoker == null)
+			return false;
+		removeListener(invoker);
+		if(valueListeners.isEmpty())
+			stopTrackingValues();
+		return true;
+	}
+
+	@Override
+	public void clearListeners() {
+		super.clearListeners();
+		stopTrackingValues();
+	}
+
+	private void stopTrackingValues() {
+		valueListeners = null;
+		notifiedValue = null;
+		previousValue = null;
+	}
+
+	/**
+	 * Moves the tracked values forward, so that the value listeners invoked by this notification receive all the changes made since the previous one
+	 */
+	@Override
+	void onChangeConsumed() {
+		if(valueListeners == null)
+			return;
+		previousValue = notifiedValue;
+		notifiedValue = modelValue;
+	}
+
+	/**
+	 * Invokes a value listener with the values tracked by the last notification
+	 */
+	private final class ValueInvoker implements ListenerInvoker {
+		private final ValueChangeListener<? super T> listener;
+
+		private ValueInvoker(ValueChangeListener<? super T> listener) {
+			this.listener = listener;
+		}
+
+		@Override
+		public void call() {
+			listener.call(previousValue, notifiedValue);
+		}
+
+		@Override
+		public ChangeListener bind() {
+			T previous = previousValue;
+			T current = notifiedValue;
+			return () -> listener.call(previous, current);
+		}
+
+		@Override
+		public Object getListener() {
+			return listener;
+		}
+	}
+
 	/**
 	 * Sets the {@link #modelValue} of this {@code SettableProperty} to the {@link #defaultValue}.
 	 * If the {@link #defaultValue} is {@code null} no action will be performed.
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree;
+
+import dev.sgora.observetree.listener.ChangeListener;
+import dev.sgora.observetree.listener.ListenerEntry;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight Recorder event of a single listener call that took longer than the threshold - 10 ms unless configured otherwise.
+ * Emitted as {@code dev.sgora.observetree.SlowListener}, its threshold can be changed with the recording settings,
+ * e.g. {@code dev.sgora.observetree.SlowListener#threshold=1 ms}.
+ *
+ * @author Stanisław Góra
+ */
+@Name("dev.sgora.observetree.SlowListener")
+@Label("Slow Observable Listener")
+@Category("Observetree")
+@Description("Listener call that exceeded the threshold")
+@Threshold("10 ms")
+final class SlowListenerEvent extends Event {
+
+	private static final EventType TYPE = EventType.getEventType(SlowListenerEvent.class);
+
+	@Label("Listener Class")
+	Class<?> listenerClass;
+
+	@Label("Priority")
+	int priority;
+
+	/**
+	 * Checks whether any running recording has this event enabled, without allocating
+	 * @return {@code true} if the listener calls should be timed
+	 */
+	static boolean isTypeEnabled() {
+		return TYPE.isEnabled();
+	}
+
+	/**
+	 * Calls the listener and records it if the call exceeded the threshold
+	 * @param entry listener to be called
+	 */
+	static void call(ListenerEntry entry) {
+		call(entry, entry.listener);
+	}
+
+	/**
+	 * Calls the listener on behalf of the entry and records it if the call exceeded the threshold
+	 * @param entry entry to be recorded
+	 * @param listener listener to be called, e.g. the {@link ListenerInvoker#bind() bound} entry listener
+	 */
+	static void call(ListenerEntry entry, ChangeListener listener) {
+		SlowListenerEvent event = new SlowListenerEvent();
+		event.begin();
+		listener.call();
+		event.end();
+		if(event.shouldCommit()) {
+			event.listenerClass = listenerClass(entry.listener);
+			event.priority = entry.priority;
+			event.commit();
+		}
+	}
+
+	/**
+	 * Returns the class of the listener registered by the user, unwrapping the internal {@link ListenerInvoker ListenerInvokers}
+	 */
+	private static Class<?> listenerClass(ChangeListener listener) {
+		if(listener instanceof ListenerInvoker) {
+			Object wrapped = ((ListenerInvoker) listener).getListener();
+			if(wrapped != null)
+				return wrapped.getClass();
+		}
+		return listener.getClass();
+	}
+
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Buffered binary input of a {@link TreeSnapshot}, refilled from a channel whenever its buffer runs out.
+ * {@link ValueCodec ValueCodecs} use it to read the values written with the matching {@link SnapshotOutput} methods.
+ *
+ * @author Stanisław Góra
+ * @see SnapshotOutput
+ */
+public final class SnapshotInput {
+
+	private static final int BUFFER_CAPACITY = 64 * 1024;
+
+	private final ReadableByteChannel channel;
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_CAPACITY);
+
+	SnapshotInput(ReadableByteChannel channel) {
+		this.channel = channel;
+		buffer.limit(0);
+	}
+
+	/**
+	 * Reads a single byte
+	 * @return the read value
+	 * @throws IOException if reading from the channel fails or the snapshot ends
+	 */
+	public byte getByte() throws IOException {
+		ensureRemaining(Byte.BYTES);
+		return buffer.get();
+	}
+
+	/**
+	 * Reads a {@code boolean} written as a single byte
+	 * @return the read value
+	 * @throws IOException if reading from the channel fails or the snapshot ends
+	 */
+	public boolean getBoolean() throws IOException {
+		return getByte() != 0;
+	}
+
+	/**
+	 * Reads an {@code int}
+	 * @return the read value
+	 * @throws IOException if reading from the channel fails or the snapshot ends
+	 */
+	public int getInt() throws IOException {
+		ensureRemaining(Integer.BYTES);
+		return buffer.getInt();
+	}
+
+	/**
+	 * Reads an {@code int} written with {@link SnapshotOutput#putVarInt(int)}
+	 * @return the read value
+	 * @throws IOException if reading from the channel fails or the snapshot ends
+	 */
+	public int getVarInt() throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+			byte part = getByte();
+			value |= (part & 0x7F) << shift;
+			if(part >= 0)
+				return value;
+		}
+		throw new IOException("Corrupted snapshot: invalid variable length int");
+	}
+
+	/**
+	 * Reads a {@code long}
+	 * @return the read value
+	 * @throws IOException if reading from the channel fails or the snapshot ends
+	 */
+	public long getLong() throws IOException {
+		ensureRemaining(Long.BYTES);
+		return buffer.getLong();
+	}
+
+	/**
+	 * Reads a {@code double}
+	 * @return the read value
+	 * @throws IOException if reading from the channel fails or the snapshot ends
+	 */
+	public double getDouble() throws IOException {
+		ensureRemaining(Double.BYTES);
+		return buffer.getDouble();
+	}
+
+	/**
+	 * Reads a byte array preceded by its length
+	 * @return the read value
+	 * @throws IOException if reading from the channel fails or the snapshot ends
+	 */
+	public byte[] getBytes() throws IOException {
+		int length = getVarInt();
+		if(length < 0)
+			throw new IOException("Corrupted snapshot: negative array length " + length);
+		byte[] value = new byte[length];
+		int read = 0;
+		while(read < length) {
+			if(!buffer.hasRemaining())
+				fill();
+			int chunk = Math.min(buffer.remaining(), length - read);
+			buffer.get(value, read, chunk);
+			read += chunk;
+		}
+		return value;
+	}
+
+	/**
+	 * Reads a string encoded in UTF-8, preceded by its encoded length
+	 * @return the read value
+	 * @throws IOException if reading from the channel fails or the snapshot ends
+	 */
+	public String getString() throws IOException {
+		return new String(getBytes(), StandardCharsets.UTF_8);
+	}
+
+	private void ensureRemaining(int bytes) throws IOException {
+		while(buffer.remaining() < bytes)
+			fill();
+	}
+
+	private void fill() throws IOException {
+		buffer.compact();
+		int read = channel.read(buffer);
+		buffer.flip();
+		if(read < 0)
+			throw new EOFException("Unexpected end of the snapshot");
+	}
+
+}
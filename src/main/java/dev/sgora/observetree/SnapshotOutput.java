@@ -0,0 +1,145 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Buffered binary output of a {@link TreeSnapshot}, written to a channel whenever its buffer fills up.
+ * {@link ValueCodec ValueCodecs} use it to write the values of the {@code SettableProperties}.
+ *
+ * @author Stanisław Góra
+ * @see SnapshotInput
+ */
+public final class SnapshotOutput {
+
+	private static final int BUFFER_CAPACITY = 64 * 1024;
+
+	private final WritableByteChannel channel;
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_CAPACITY);
+
+	SnapshotOutput(WritableByteChannel channel) {
+		this.channel = channel;
+	}
+
+	/**
+	 * Writes a single byte
+	 * @param value value to be written
+	 * @throws IOException if writing to the channel fails
+	 */
+	public void putByte(byte value) throws IOException {
+		ensureRemaining(Byte.BYTES);
+		buffer.put(value);
+	}
+
+	/**
+	 * Writes a {@code boolean} as a single byte
+	 * @param value value to be written
+	 * @throws IOException if writing to the channel fails
+	 */
+	public void putBoolean(boolean value) throws IOException {
+		putByte(value ? (byte) 1 : 0);
+	}
+
+	/**
+	 * Writes an {@code int}
+	 * @param value value to be written
+	 * @throws IOException if writing to the channel fails
+	 */
+	public void putInt(int value) throws IOException {
+		ensureRemaining(Integer.BYTES);
+		buffer.putInt(value);
+	}
+
+	/**
+	 * Writes a non-negative {@code int} in a variable length encoding, taking a single byte for the values lower than 128
+	 * @param value value to be written
+	 * @throws IOException if writing to the channel fails
+	 */
+	public void putVarInt(int value) throws IOException {
+		ensureRemaining(Integer.BYTES + 1);
+		while((value & ~0x7F) != 0) {
+			buffer.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		buffer.put((byte) value);
+	}
+
+	/**
+	 * Writes a {@code long}
+	 * @param value value to be written
+	 * @throws IOException if writing to the channel fails
+	 */
+	public void putLong(long value) throws IOException {
+		ensureRemaining(Long.BYTES);
+		buffer.putLong(value);
+	}
+
+	/**
+	 * Writes a {@code double}
+	 * @param value value to be written
+	 * @throws IOException if writing to the channel fails
+	 */
+	public void putDouble(double value) throws IOException {
+		ensureRemaining(Double.BYTES);
+		buffer.putDouble(value);
+	}
+
+	/**
+	 * Writes a byte array preceded by its length
+	 * @param value value to be written
+	 * @throws IOException if writing to the channel fails
+	 */
+	public void putBytes(byte[] value) throws IOException {
+		putVarInt(value.length);
+		int written = 0;
+		while(written < value.length) {
+			if(!buffer.hasRemaining())
+				flush();
+			int length = Math.min(buffer.remaining(), value.length - written);
+			buffer.put(value, written, length);
+			written += length;
+		}
+	}
+
+	/**
+	 * Writes a string encoded in UTF-8, preceded by its encoded length
+	 * @param value value to be written
+	 * @throws IOException if writing to the channel fails
+	 */
+	public void putString(String value) throws IOException {
+		putBytes(value.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Writes the buffered bytes to the channel
+	 * @throws IOException if writing to the channel fails
+	 */
+	void flush() throws IOException {
+		buffer.flip();
+		while(buffer.hasRemaining())
+			channel.write(buffer);
+		buffer.clear();
+	}
+
+	/**
+	 * Drops the buffered bytes that were not yet written to the channel
+	 */
+	void discard() {
+		buffer.clear();
+	}
+
+	private void ensureRemaining(int bytes) throws IOException {
+		if(buffer.remaining() < bytes)
+			flush();
+	}
+
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree;
+
+import java.util.Arrays;
+
+/**
+ * Internal reusable explicit stack for walking the {@code Observable} tree with plain loops instead of recursion,
+ * so that the depth of the tree is not limited by the thread stack size.
+ * Along with each {@code Observable} it keeps the position of the next relative to be visited and a value recorded when it was pushed.
+ * Stacks are kept per thread like the {@link DispatchBuffer DispatchBuffers} and a walk started from inside another one gets a separate, nested stack.
+ *
+ * @author Stanisław Góra
+ */
+final class TraversalStack {
+
+	private static final int INITIAL_CAPACITY = 16;
+	/**
+	 * Stacks grown past this capacity by a very deep tree are not retained after the walk
+	 */
+	private static final int RETAINED_CAPACITY = 4096;
+	private static final ThreadLocal<TraversalStack> threadStacks = ThreadLocal.withInitial(TraversalStack::new);
+
+	private TraversalStack nested;
+	private boolean inUse;
+
+	private Observable[] observables = new Observable[INITIAL_CAPACITY];
+	private int[] positions = new int[INITIAL_CAPACITY];
+	private long[] values = new long[INITIAL_CAPACITY];
+	private int size;
+
+	/**
+	 * Returns a free stack for the current thread
+	 * @return empty stack to be released with {@link #release()}
+	 */
+	static TraversalStack acquire() {
+		TraversalStack stack = threadStacks.get();
+		while(stack.inUse) {
+			if(stack.nested == null)
+				stack.nested = new TraversalStack();
+			stack = stack.nested;
+		}
+		stack.inUse = true;
+		return stack;
+	}
+
+	/**
+	 * Pushes the {@code Observable} onto the stack
+	 * @param observable element to be pushed
+	 */
+	void push(Observable observable) {
+		push(observable, 0);
+	}
+
+	/**
+	 * Pushes the {@code Observable} onto the stack along with a value
+	 * @param observable element to be pushed
+	 * @param value value recorded with the element, returned by {@link #peekValue()}
+	 */
+	void push(Observable observable, long value) {
+		if(size == observables.length) {
+			observables = Arrays.copyOf(observables, size * 2);
+			positions = Arrays.copyOf(positions, size * 2);
+			values = Arrays.copyOf(values, size * 2);
+		}
+		observables[size] = observable;
+		positions[size] = 0;
+		values[size] = value;
+		size++;
+	}
+
+	/**
+	 * Removes the top {@code Observable} from the stack
+	 * @return the removed element
+	 */
+	Observable pop() {
+		Observable observable = observables[--size];
+		observables[size] = null;
+		return observable;
+	}
+
+	/**
+	 * Returns the top {@code Observable} of the stack
+	 * @return the top element
+	 */
+	Observable peek() {
+		return observables[size - 1];
+	}
+
+	/**
+	 * Returns the value recorded with the top {@code Observable}
+	 * @return the value passed to {@link #push(Observable, long)}
+	 */
+	long peekValue() {
+		return values[size - 1];
+	}
+
+	/**
+	 * Returns the position of the next relative of the top {@code Observable} to be visited and advances it
+	 * @return the position, starting from 0
+	 */
+	int nextPosition() {
+		return positions[size - 1]++;
+	}
+
+	boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Clears the stack and makes it available for the next walk on this thread
+	 */
+	void release() {
+		Arrays.fill(observables, 0, size, null);
+		size = 0;
+		if(observables.length > RETAINED_CAPACITY) {
+			observables = new Observable[INITIAL_CAPACITY];
+			positions = new int[INITIAL_CAPACITY];
+			values = new long[INITIAL_CAPACITY];
+		}
+		inUse = false;
+	}
+
+}
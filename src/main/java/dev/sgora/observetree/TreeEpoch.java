@@ -0,0 +1,122 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree;
+
+/**
+ * Internal counter shared by all the {@code Observables} of a single tree, incremented whenever their changed flags are reset or the tree grows.
+ * Along with it the tree keeps a structure version, incremented whenever its relations or listeners are modified, which invalidates the {@link NotificationPlan NotificationPlans}.
+ * Keeping them per tree means that the activity in one tree does not invalidate the state recorded in the others.
+ * The counter also holds the queue of the {@link dev.sgora.observetree.enums.ListenerNotification#ASYNC} notifications of the tree.
+ *
+ * <p>
+ * Linking two trees merges their counters, union-find style - the smaller one forwards to the bigger one and the {@code Observables}
+ * pointing to it follow the forwarding lazily. Unlinking does not split the counter, the separated trees only invalidate each other more often.
+ *
+ * @author Stanisław Góra
+ * @see Observable#addSubObservable(Observable)
+ */
+final class TreeEpoch {
+
+	/**
+	 * Counter this one was merged into, {@code null} if it is still in use
+	 */
+	private TreeEpoch merged;
+	private int rank;
+	private long value;
+	private long structure;
+	private AsyncDispatcher.TreeQueue asyncQueue;
+
+	/**
+	 * Returns the counter currently shared by the tree
+	 * @return this counter or the one it was merged into
+	 */
+	TreeEpoch resolve() {
+		if(merged == null)
+			return this;
+		TreeEpoch root = merged;
+		while(root.merged != null)
+			root = root.merged;
+		// compress the path so that the next lookups are direct
+		TreeEpoch epoch = this;
+		while(epoch.merged != root) {
+			TreeEpoch next = epoch.merged;
+			epoch.merged = root;
+			epoch = next;
+		}
+		return root;
+	}
+
+	/**
+	 * Returns the current value of the counter
+	 * @return the current value
+	 */
+	long get() {
+		return value;
+	}
+
+	/**
+	 * Increments the counter, invalidating all the values recorded before
+	 */
+	void advance() {
+		value++;
+	}
+
+	/**
+	 * Returns the current structure version of the tree
+	 * @return the structure version
+	 */
+	long structure() {
+		return structure;
+	}
+
+	/**
+	 * Increments the structure version, invalidating all the plans compiled before
+	 */
+	void structureChanged() {
+		structure++;
+	}
+
+	/**
+	 * Returns the queue of the asynchronous notifications of the tree
+	 * @return the queue of the tree
+	 */
+	AsyncDispatcher.TreeQueue asyncQueue() {
+		if(asyncQueue == null)
+			asyncQueue = new AsyncDispatcher.TreeQueue();
+		return asyncQueue;
+	}
+
+	/**
+	 * Merges the counters of two trees being linked and advances the result
+	 * @param first counter of one of the trees
+	 * @param second counter of the other tree
+	 * @return the counter shared by the linked tree
+	 */
+	static TreeEpoch merge(TreeEpoch first, TreeEpoch second) {
+		first = first.resolve();
+		second = second.resolve();
+		if(first == second) {
+			first.advance();
+			return first;
+		}
+		if(first.rank < second.rank) {
+			TreeEpoch swapped = first;
+			first = second;
+			second = swapped;
+		} else if(first.rank == second.rank) {
+			first.rank++;
+		}
+		second.merged = first;
+		// the values recorded against either counter have to be invalidated
+		first.value = Math.max(first.value, second.value) + 1;
+		first.structure = Math.max(first.structure, second.structure) + 1;
+		first.asyncQueue = AsyncDispatcher.TreeQueue.merge(first.asyncQueue, second.asyncQueue);
+		return first;
+	}
+
+}
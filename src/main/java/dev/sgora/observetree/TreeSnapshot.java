@@ -0,0 +1,638 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Compact binary snapshot of a whole {@code Observable} tree - its structure and the values of its properties - written to and read from NIO channels.
+ * Restoring a snapshot builds a new tree with the same relations and values, with no listeners and no changes marked.
+ *
+ * <p>
+ * Every {@code Observable} is written once, in depth first pre-order, and the {@code Observables} shared by many parents are written as references.
+ * Only the shared {@code Observables} are indexed, so a tree without them is written and read in a single linear pass.
+ * The values of the {@link IntProperty}, {@link LongProperty}, {@link DoubleProperty} and {@link BooleanProperty} are written unboxed,
+ * the {@link SettableObservable SettableObservables} are written along with their {@code modelValue} {@code Observable}
+ * and the values of the other {@link SettableProperty SettableProperties} are written by the {@link ValueCodec ValueCodecs}.
+ *
+ * <p>
+ * Codecs of the {@code String}, boxed primitive and {@code byte[]} values are registered by default, the others have to be registered
+ * with {@link #registerValue(Class, ValueCodec)}. The property classes of the library are supported by default,
+ * other {@code Observable} classes - e.g. the ones grouping the properties of a model - have to be registered with {@link #registerNode(Class, Supplier)}.
+ * The children their factories create - e.g. the properties a model creates in its constructor - are filled in with the written values instead of being
+ * created again, matched by their position, so they have to be created in the order they were added to the written tree.
+ * A snapshot can only be read by a {@code TreeSnapshot} with the same classes registered.
+ *
+ * @author Stanisław Góra
+ * @see ValueCodec
+ */
+public final class TreeSnapshot {
+
+	private static final int MAGIC = 0x4F42534E;
+	private static final byte FORMAT_VERSION = 1;
+	private static final int MAX_TYPES = 126;
+
+	private static final int NULL_NODE = 0;
+	private static final int NODE_REFERENCE = 1;
+	private static final int FIRST_NODE_TYPE = 2;
+	/**
+	 * Flag of the node type tag marking the {@code Observables} that can be referenced later
+	 */
+	private static final int SHARED_NODE = 0x80;
+	private static final byte NULL_VALUE = 0;
+
+	private final List<Class<?>> nodeTypes = new ArrayList<>();
+	private final List<Supplier<? extends Observable>> nodeFactories = new ArrayList<>();
+	private final Map<Class<?>, Integer> nodeTypeIndexes = new HashMap<>();
+	private final List<Class<?>> valueTypes = new ArrayList<>();
+	private final List<ValueCodec<?>> valueCodecs = new ArrayList<>();
+	/**
+	 * Indexes of the registered value types, including the resolved subtypes
+	 */
+	private final Map<Class<?>, Integer> valueTypeIndexes = new HashMap<>();
+
+	/**
+	 * Constructs a new {@code TreeSnapshot} supporting the property classes of the library and the {@code String}, boxed primitive and {@code byte[]} values
+	 */
+	public TreeSnapshot() {
+		registerNode(SettableProperty.class, SettableProperty::new);
+		registerNode(SettableObservable.class, SettableObservable::new);
+		registerNode(IntProperty.class, IntProperty::new);
+		registerNode(LongProperty.class, LongProperty::new);
+		registerNode(DoubleProperty.class, DoubleProperty::new);
+		registerNode(BooleanProperty.class, BooleanProperty::new);
+		for (BuiltInCodec codec : BuiltInCodec.values())
+			addValueType(codec.type, codec);
+	}
+
+	/**
+	 * Registers an {@code Observable} class that can be written and restored. Only the instances of exactly this class are matched.
+	 * If it extends one of the property classes, its value is written as well.
+	 * @param type class of the {@code Observables}
+	 * @param factory factory creating the restored {@code Observables}, it can create their children as well
+	 * @param <O> the type of the {@code Observables}
+	 * @return this {@code TreeSnapshot}
+	 * @throws IllegalStateException if too many classes were registered
+	 */
+	public <O extends Observable> TreeSnapshot registerNode(Class<O> type, Supplier<? extends O> factory) {
+		Objects.requireNonNull(factory);
+		Integer index = nodeTypeIndexes.get(type);
+		if(index != null) {
+			nodeFactories.set(index, factory);
+			return this;
+		}
+		if(nodeTypes.size() == MAX_TYPES)
+			throw new IllegalStateException("At most " + MAX_TYPES + " node types can be registered");
+		nodeTypeIndexes.put(type, nodeTypes.size());
+		nodeTypes.add(type);
+		nodeFactories.add(factory);
+		return this;
+	}
+
+	/**
+	 * Registers the codec of the {@code SettableProperty} values of the specified type and its subtypes
+	 * @param type class of the values
+	 * @param codec codec of the values
+	 * @param <T> the type of the values
+	 * @return this {@code TreeSnapshot}
+	 * @throws IllegalStateException if too many codecs were registered
+	 */
+	public <T> TreeSnapshot registerValue(Class<T> type, ValueCodec<? super T> codec) {
+		addValueType(type, codec);
+		return this;
+	}
+
+	private void addValueType(Class<?> type, ValueCodec<?> codec) {
+		Objects.requireNonNull(codec);
+		int index = valueTypes.indexOf(type);
+		if(index >= 0) {
+			valueCodecs.set(index, codec);
+			return;
+		}
+		if(valueTypes.size() == MAX_TYPES)
+			throw new IllegalStateException("At most " + MAX_TYPES + " value types can be registered");
+		// resolved subtypes might now match the new type more closely
+		valueTypeIndexes.clear();
+		valueTypes.add(type);
+		valueCodecs.add(codec);
+	}
+
+	/**
+	 * Writes the snapshot of the tree to a file, replacing its content
+	 * @param root {@code Observable} the snapshot is taken from, all the {@code Observables} reachable through their children are written
+	 * @param file file to be written
+	 * @throws IOException if writing the file fails
+	 * @throws IllegalArgumentException if the tree contains an {@code Observable} class or a value type that is not registered
+	 */
+	public void write(Observable root, Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			write(root, channel);
+		}
+	}
+
+	/**
+	 * Writes the snapshot of the tree to a channel
+	 * @param root {@code Observable} the snapshot is taken from, all the {@code Observables} reachable through their children are written
+	 * @param channel channel to be written to, it is not closed
+	 * @throws IOException if writing to the channel fails
+	 * @throws IllegalArgumentException if the tree contains an {@code Observable} class or a value type that is not registered
+	 */
+	public void write(Observable root, WritableByteChannel channel) throws IOException {
+		Objects.requireNonNull(root);
+		SnapshotOutput output = new SnapshotOutput(channel);
+		writeHeader(output);
+		Map<Observable, Integer> ids = new IdentityHashMap<>();
+		Set<Observable> modelValues = findModelValues(root);
+		writeNode(root, false, output, ids, modelValues);
+		// the slot 0 of a SettableObservable holds its modelValue, the children follow
+		TraversalStack stack = TraversalStack.acquire();
+		try {
+			stack.push(root);
+			while(!stack.isEmpty()) {
+				Observable observable = stack.peek();
+				int offset = modelSlots(observable);
+				int slot = stack.nextPosition();
+				if(slot >= offset + observable.getChildCount()) {
+					stack.pop();
+					continue;
+				}
+				boolean modelSlot = slot < offset;
+				Observable next = modelSlot ? ((SettableObservable<?>) observable).modelValue : observable.getChild(slot - offset);
+				if(writeNode(next, modelSlot, output, ids, modelValues))
+					stack.push(next);
+			}
+		} finally {
+			stack.release();
+		}
+		output.flush();
+	}
+
+	/**
+	 * Reads a snapshot of a tree from a file
+	 * @param file file to be read
+	 * @return the restored root {@code Observable}
+	 * @throws IOException if reading the file fails or it is not a valid snapshot
+	 */
+	public Observable read(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			return read(channel);
+		}
+	}
+
+	/**
+	 * Reads a snapshot of a tree from a channel
+	 * @param channel channel to be read from, it is not closed
+	 * @return the restored root {@code Observable}
+	 * @throws IOException if reading from the channel fails or it is not a valid snapshot
+	 */
+	@SuppressWarnings("unchecked")
+	public Observable read(ReadableByteChannel channel) throws IOException {
+		SnapshotInput input = new SnapshotInput(channel);
+		if(input.getInt() != MAGIC)
+			throw new IOException("Not an Observable tree snapshot");
+		byte version = input.getByte();
+		if(version != FORMAT_VERSION)
+			throw new IOException("Unsupported snapshot format version " + version);
+		Supplier<? extends Observable>[] factories = readNodeTypes(input);
+		ValueCodec<?>[] codecs = readValueTypes(input);
+
+		List<Observable> shared = new ArrayList<>();
+		int rootTag = readTag(input);
+		if(rootTag < FIRST_NODE_TYPE)
+			throw new IOException("Corrupted snapshot: missing root");
+		Observable root = readNode(rootTag, null, input, factories, codecs, shared);
+		boolean modelValuesSet = false;
+		// the stack values hold the number of slots and, in the upper half, the number of children created by the factory
+		TraversalStack stack = TraversalStack.acquire();
+		try {
+			stack.push(root, slotsValue(root, input));
+			while(!stack.isEmpty()) {
+				Observable parent = stack.peek();
+				long value = stack.peekValue();
+				int slots = (int) value;
+				int created = (int) (value >>> Integer.SIZE);
+				int offset = modelSlots(parent);
+				int slot = stack.nextPosition();
+				if(slot >= slots) {
+					if(slots - offset < created)
+						throw mismatch(parent);
+					stack.pop();
+					continue;
+				}
+				boolean modelSlot = slot < offset;
+				// the modelValue set and the children linked by the constructor are filled in instead of created
+				Observable existing;
+				if(modelSlot)
+					existing = ((SettableObservable<?>) parent).modelValue;
+				else
+					existing = slot - offset < created ? parent.getChild(slot - offset) : null;
+				int tag = readTag(input);
+				Observable child;
+				if(tag == NULL_NODE)
+					child = null;
+				else if(tag == NODE_REFERENCE)
+					child = readReference(input, shared);
+				else
+					child = readNode(tag, existing, input, factories, codecs, shared);
+				if(existing != null) {
+					if(child != existing)
+						throw mismatch(parent);
+				} else if(modelSlot) {
+					if(child != null) {
+						((SettableObservable<Observable>) parent).set(child);
+						modelValuesSet = true;
+					}
+				} else if(child != null) {
+					parent.attach(child);
+				} else {
+					throw new IOException("Corrupted snapshot: missing child");
+				}
+				if(tag >= FIRST_NODE_TYPE)
+					stack.push(child, slotsValue(child, input));
+			}
+		} finally {
+			stack.release();
+		}
+		// setting the modelValues has marked the SettableObservables as changed
+		if(modelValuesSet || root.isValueChanged())
+			root.setUnchanged(true);
+		return root;
+	}
+
+	private static long slotsValue(Observable observable, SnapshotInput input) throws IOException {
+		int slots = input.getVarInt();
+		if(slots < modelSlots(observable))
+			throw new IOException("Corrupted snapshot: invalid slot count " + slots);
+		return (long) observable.getChildCount() << Integer.SIZE | slots;
+	}
+
+	private static IOException mismatch(Observable observable) {
+		return new IOException("Children created by the factory of " + observable.getClass().getName() + " do not match the snapshot");
+	}
+
+	private static int modelSlots(Observable observable) {
+		return observable instanceof SettableObservable ? 1 : 0;
+	}
+
+	private void writeHeader(SnapshotOutput output) throws IOException {
+		output.putInt(MAGIC);
+		output.putByte(FORMAT_VERSION);
+		writeTypes(output);
+	}
+
+	/**
+	 * Writes the names of the registered {@code Observable} classes and value types, read back with {@link #readNodeTypes(SnapshotInput)} and {@link #readValueTypes(SnapshotInput)}
+	 */
+	void writeTypes(SnapshotOutput output) throws IOException {
+		output.putInt(nodeTypes.size());
+		for (Class<?> type : nodeTypes)
+			output.putString(type.getName());
+		output.putInt(valueTypes.size());
+		for (Class<?> type : valueTypes)
+			output.putString(type.getName());
+	}
+
+	@SuppressWarnings("unchecked")
+	Supplier<? extends Observable>[] readNodeTypes(SnapshotInput input) throws IOException {
+		int count = readTypeCount(input);
+		Supplier<? extends Observable>[] factories = new Supplier[count];
+		Map<String, Supplier<? extends Observable>> registered = new HashMap<>();
+		for (int i = 0; i < nodeTypes.size(); i++)
+			registered.put(nodeTypes.get(i).getName(), nodeFactories.get(i));
+		for (int i = 0; i < count; i++) {
+			String name = input.getString();
+			factories[i] = registered.get(name);
+			if(factories[i] == null)
+				throw new IOException("Observable class " + name + " of the snapshot is not registered");
+		}
+		return factories;
+	}
+
+	ValueCodec<?>[] readValueTypes(SnapshotInput input) throws IOException {
+		int count = readTypeCount(input);
+		ValueCodec<?>[] codecs = new ValueCodec[count];
+		Map<String, ValueCodec<?>> registered = new HashMap<>();
+		for (int i = 0; i < valueTypes.size(); i++)
+			registered.put(valueTypes.get(i).getName(), valueCodecs.get(i));
+		for (int i = 0; i < count; i++) {
+			String name = input.getString();
+			codecs[i] = registered.get(name);
+			if(codecs[i] == null)
+				throw new IOException("Value type " + name + " of the snapshot has no registered codec");
+		}
+		return codecs;
+	}
+
+	/**
+	 * Checks whether the types read from a header are exactly the ones registered now, in the same order
+	 */
+	boolean matchesTypes(Supplier<? extends Observable>[] factories, ValueCodec<?>[] codecs) {
+		if(factories.length != nodeFactories.size() || codecs.length != valueCodecs.size())
+			return false;
+		for (int i = 0; i < factories.length; i++) {
+			if(factories[i] != nodeFactories.get(i))
+				return false;
+		}
+		for (int i = 0; i < codecs.length; i++) {
+			if(codecs[i] != valueCodecs.get(i))
+				return false;
+		}
+		return true;
+	}
+
+	private static int readTypeCount(SnapshotInput input) throws IOException {
+		int count = input.getInt();
+		if(count < 0 || count > MAX_TYPES)
+			throw new IOException("Corrupted snapshot: invalid type count " + count);
+		return count;
+	}
+
+	/**
+	 * Finds the {@code modelValues} of the {@code SettableObservables} in the tree, which are reached both as their {@code modelValue} and as a child of their parents
+	 */
+	private static Set<Observable> findModelValues(Observable root) {
+		Set<Observable> modelValues = Collections.newSetFromMap(new IdentityHashMap<>());
+		long stamp = Observable.nextTraversalStamp();
+		TraversalStack stack = TraversalStack.acquire();
+		try {
+			stack.push(root);
+			while(!stack.isEmpty()) {
+				Observable observable = stack.pop();
+				if(!observable.visit(stamp))
+					continue;
+				if(observable instanceof SettableObservable) {
+					Observable modelValue = ((SettableObservable<?>) observable).modelValue;
+					if(modelValue != null && modelValues.add(modelValue))
+						stack.push(modelValue);
+				}
+				for (int i = 0; i < observable.getChildCount(); i++)
+					stack.push(observable.getChild(i));
+			}
+		} finally {
+			stack.release();
+		}
+		return modelValues;
+	}
+
+	/**
+	 * @param modelSlot whether the {@code Observable} is written as the {@code modelValue} of a {@code SettableObservable}
+	 * @return {@code true} if the {@code Observable} was written for the first time and its slots follow
+	 */
+	private boolean writeNode(Observable observable, boolean modelSlot, SnapshotOutput output, Map<Observable, Integer> ids, Set<Observable> modelValues) throws IOException {
+		if(observable == null) {
+			output.putByte((byte) NULL_NODE);
+			return false;
+		}
+		// only the Observables with many parents or held by a SettableObservable can be reached again
+		boolean shared = modelSlot || observable.getParentCount() > 1 || !modelValues.isEmpty() && modelValues.contains(observable);
+		if(shared) {
+			Integer id = ids.putIfAbsent(observable, ids.size());
+			if(id != null) {
+				output.putByte((byte) NODE_REFERENCE);
+				output.putVarInt(id);
+				return false;
+			}
+		}
+		int type = nodeTypeIndex(observable);
+		output.putByte((byte) ((FIRST_NODE_TYPE + type) | (shared ? SHARED_NODE : 0)));
+		writeValues(observable, output);
+		output.putVarInt(modelSlots(observable) + observable.getChildCount());
+		return true;
+	}
+
+	private static int readTag(SnapshotInput input) throws IOException {
+		return Byte.toUnsignedInt(input.getByte());
+	}
+
+	private static Observable readReference(SnapshotInput input, List<Observable> shared) throws IOException {
+		int id = input.getVarInt();
+		if(id < 0 || id >= shared.size())
+			throw new IOException("Corrupted snapshot: invalid node reference " + id);
+		return shared.get(id);
+	}
+
+	/**
+	 * @param tag node type tag
+	 * @param existing {@code Observable} created by the factory of its parent, whose values are read instead of creating a new one, {@code null} if there is none
+	 * @param shared restored {@code Observables} that can be referenced, the read one is appended if it is marked as shared
+	 * @return the restored {@code Observable}, or {@code null} if the {@code existing} one is of a different class
+	 */
+	private Observable readNode(int tag, Observable existing, SnapshotInput input, Supplier<? extends Observable>[] factories, ValueCodec<?>[] codecs, List<Observable> shared) throws IOException {
+		int type = (tag & ~SHARED_NODE) - FIRST_NODE_TYPE;
+		if(type < 0 || type >= factories.length)
+			throw new IOException("Corrupted snapshot: invalid node type " + type);
+		Observable observable;
+		if(existing == null) {
+			observable = factories[type].get();
+		} else {
+			Integer index = nodeTypeIndexes.get(existing.getClass());
+			if(index == null || nodeFactories.get(index) != factories[type])
+				return null;
+			observable = existing;
+		}
+		readValues(observable, input, codecs);
+		if((tag & SHARED_NODE) != 0)
+			shared.add(observable);
+		return observable;
+	}
+
+	/**
+	 * @throws IllegalArgumentException if the {@code Observable} class is not registered
+	 */
+	int nodeTypeIndex(Observable observable) {
+		Integer type = nodeTypeIndexes.get(observable.getClass());
+		if(type == null)
+			throw new IllegalArgumentException("Observable class " + observable.getClass().getName() + " is not registered");
+		return type;
+	}
+
+	/**
+	 * Checks whether the {@code Observable} holds values written by {@link #writeValues(Observable, SnapshotOutput)}
+	 */
+	static boolean hasValues(Observable observable) {
+		return observable instanceof IntProperty || observable instanceof LongProperty || observable instanceof DoubleProperty || observable instanceof BooleanProperty
+				|| observable instanceof SettableProperty && !(observable instanceof SettableObservable);
+	}
+
+	void writeValues(Observable observable, SnapshotOutput output) throws IOException {
+		if(observable instanceof IntProperty) {
+			IntProperty property = (IntProperty) observable;
+			output.putInt(property.modelValue);
+			output.putInt(property.defaultValue);
+		} else if(observable instanceof LongProperty) {
+			LongProperty property = (LongProperty) observable;
+			output.putLong(property.modelValue);
+			output.putLong(property.defaultValue);
+		} else if(observable instanceof DoubleProperty) {
+			DoubleProperty property = (DoubleProperty) observable;
+			output.putDouble(property.modelValue);
+			output.putDouble(property.defaultValue);
+		} else if(observable instanceof BooleanProperty) {
+			BooleanProperty property = (BooleanProperty) observable;
+			output.putBoolean(property.modelValue);
+			output.putBoolean(property.defaultValue);
+		} else if(observable instanceof SettableProperty && !(observable instanceof SettableObservable)) {
+			SettableProperty<?> property = (SettableProperty<?>) observable;
+			writeValue(property.modelValue, output);
+			writeValue(property.defaultValue, output);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	static void readValues(Observable observable, SnapshotInput input, ValueCodec<?>[] codecs) throws IOException {
+		if(observable instanceof IntProperty) {
+			IntProperty property = (IntProperty) observable;
+			property.modelValue = input.getInt();
+			property.defaultValue = input.getInt();
+		} else if(observable instanceof LongProperty) {
+			LongProperty property = (LongProperty) observable;
+			property.modelValue = input.getLong();
+			property.defaultValue = input.getLong();
+		} else if(observable instanceof DoubleProperty) {
+			DoubleProperty property = (DoubleProperty) observable;
+			property.modelValue = input.getDouble();
+			property.defaultValue = input.getDouble();
+		} else if(observable instanceof BooleanProperty) {
+			BooleanProperty property = (BooleanProperty) observable;
+			property.modelValue = input.getBoolean();
+			property.defaultValue = input.getBoolean();
+		} else if(observable instanceof SettableProperty && !(observable instanceof SettableObservable)) {
+			SettableProperty<Object> property = (SettableProperty<Object>) observable;
+			property.modelValue = readValue(input, codecs);
+			property.defaultValue = readValue(input, codecs);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void writeValue(Object value, SnapshotOutput output) throws IOException {
+		if(value == null) {
+			output.putByte(NULL_VALUE);
+			return;
+		}
+		int type = valueTypeIndex(value.getClass());
+		output.putByte((byte) (type + 1));
+		((ValueCodec<Object>) valueCodecs.get(type)).write(value, output);
+	}
+
+	private static Object readValue(SnapshotInput input, ValueCodec<?>[] codecs) throws IOException {
+		int tag = Byte.toUnsignedInt(input.getByte());
+		if(tag == NULL_VALUE)
+			return null;
+		if(tag > codecs.length)
+			throw new IOException("Corrupted snapshot: invalid value type " + (tag - 1));
+		return codecs[tag - 1].read(input);
+	}
+
+	private int valueTypeIndex(Class<?> type) {
+		Integer index = valueTypeIndexes.get(type);
+		if(index != null)
+			return index;
+		index = valueTypes.indexOf(type);
+		for (int i = 0; index < 0 && i < valueTypes.size(); i++) {
+			if(valueTypes.get(i).isAssignableFrom(type))
+				index = i;
+		}
+		if(index < 0)
+			throw new IllegalArgumentException("No ValueCodec registered for " + type.getName());
+		valueTypeIndexes.put(type, index);
+		return index;
+	}
+
+	/**
+	 * Codecs of the value types supported by default
+	 */
+	private enum BuiltInCodec implements ValueCodec<Object> {
+		STRING(String.class) {
+			@Override
+			public void write(Object value, SnapshotOutput output) throws IOException {
+				output.putString((String) value);
+			}
+
+			@Override
+			public Object read(SnapshotInput input) throws IOException {
+				return input.getString();
+			}
+		},
+		INTEGER(Integer.class) {
+			@Override
+			public void write(Object value, SnapshotOutput output) throws IOException {
+				output.putInt((Integer) value);
+			}
+
+			@Override
+			public Object read(SnapshotInput input) throws IOException {
+				return input.getInt();
+			}
+		},
+		LONG(Long.class) {
+			@Override
+			public void write(Object value, SnapshotOutput output) throws IOException {
+				output.putLong((Long) value);
+			}
+
+			@Override
+			public Object read(SnapshotInput input) throws IOException {
+				return input.getLong();
+			}
+		},
+		DOUBLE(Double.class) {
+			@Override
+			public void write(Object value, SnapshotOutput output) throws IOException {
+				output.putDouble((Double) value);
+			}
+
+			@Override
+			public Object read(SnapshotInput input) throws IOException {
+				return input.getDouble();
+			}
+		},
+		BOOLEAN(Boolean.class) {
+			@Override
+			public void write(Object value, SnapshotOutput output) throws IOException {
+				output.putBoolean((Boolean) value);
+			}
+
+			@Override
+			public Object read(SnapshotInput input) throws IOException {
+				return input.getBoolean();
+			}
+		},
+		BYTES(byte[].class) {
+			@Override
+			public void write(Object value, SnapshotOutput output) throws IOException {
+				output.putBytes((byte[]) value);
+			}
+
+			@Override
+			public Object read(SnapshotInput input) throws IOException {
+				return input.getBytes();
+			}
+		};
+
+		private final Class<?> type;
+
+		BuiltInCodec(Class<?> type) {
+			this.type = type;
+		}
+	}
+
+}
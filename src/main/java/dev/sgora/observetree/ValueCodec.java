@@ -0,0 +1,39 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree;
+
+import java.io.IOException;
+
+/**
+ * Binary encoding of the {@link SettableProperty} values of a single type, used by the {@link TreeSnapshot}.
+ * {@code null} values are handled by the snapshot itself and are never passed to the codec.
+ *
+ * @param <T> the type of the encoded values
+ *
+ * @author Stanisław Góra
+ * @see TreeSnapshot#registerValue(Class, ValueCodec)
+ */
+public interface ValueCodec<T> {
+
+	/**
+	 * Writes the value
+	 * @param value value to be written, not {@code null}
+	 * @param output output of the snapshot
+	 * @throws IOException if writing the snapshot fails
+	 */
+	void write(T value, SnapshotOutput output) throws IOException;
+
+	/**
+	 * Reads a value written by {@link #write(Object, SnapshotOutput)}
+	 * @param input input of the snapshot
+	 * @return the read value
+	 * @throws IOException if reading the snapshot fails
+	 */
+	T read(SnapshotInput input) throws IOException;
+
+}
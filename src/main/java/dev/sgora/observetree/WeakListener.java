@@ -0,0 +1,90 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree;
+
+import dev.sgora.observetree.listener.ChangeListener;
+import dev.sgora.observetree.listener.ListenerList;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+
+/**
+ * Internal {@code ChangeListener} holding the actual listener through a {@link WeakReference}.
+ * Once the listener is garbage collected the {@code WeakListener} removes itself from its {@code Observable} -
+ * either when it is called by a synchronous notification or when it is polled from the reference queue of its {@link WeakListeners}.
+ *
+ * @author Stanisław Góra
+ * @see Observable#addWeakListener(ChangeListener)
+ */
+final class WeakListener extends WeakReference<ChangeListener> implements ListenerInvoker {
+
+	private final Observable owner;
+	/**
+	 * List of the {@link #owner} this listener is registered in
+	 */
+	final ListenerList listenerList;
+	private final boolean staticListener;
+	/**
+	 * Identity hash of the referenced listener and the next weak listener in the same {@link WeakListeners} slot
+	 */
+	final int hash;
+	WeakListener next;
+
+	/**
+	 * @param listener listener to be referenced
+	 * @param collected queue of the owner the weak listener is enqueued to once the listener is collected
+	 * @param owner {@code Observable} the listener is registered on
+	 * @param listenerList list the listener is registered in
+	 * @param staticListener whether it is a static listener of a {@link SettableObservable}
+	 */
+	WeakListener(ChangeListener listener, ReferenceQueue<ChangeListener> collected, Observable owner, ListenerList listenerList, boolean staticListener) {
+		super(listener, collected);
+		this.owner = owner;
+		this.listenerList = listenerList;
+		this.staticListener = staticListener;
+		this.hash = System.identityHashCode(listener);
+	}
+
+	@Override
+	public void call() {
+		ChangeListener listener = get();
+		if(listener != null)
+			listener.call();
+		else
+			remove();
+	}
+
+	/**
+	 * Returns a listener that does not remove this one, as it is run on the async executor instead of the thread notifying the owner
+	 * @return the listener calling the referenced one if it was not collected
+	 */
+	@Override
+	public ChangeListener bind() {
+		return () -> {
+			ChangeListener listener = get();
+			if(listener != null)
+				listener.call();
+		};
+	}
+
+	@Override
+	public Object getListener() {
+		return get();
+	}
+
+	/**
+	 * Removes this weak listener from its owner
+	 */
+	void remove() {
+		if(staticListener)
+			((SettableObservable<?>) owner).removeStaticListener(this);
+		else
+			owner.removeListener(this);
+	}
+
+}
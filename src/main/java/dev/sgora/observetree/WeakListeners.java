@@ -0,0 +1,144 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree;
+
+import dev.sgora.observetree.listener.ChangeListener;
+import dev.sgora.observetree.listener.ListenerList;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+
+/**
+ * Internal registry of the {@link WeakListener WeakListeners} of a single {@code Observable}.
+ * It indexes them by the identity of the listener they reference, so that they are found in constant expected time like the listeners held directly,
+ * and owns the reference queue they are enqueued to once their listeners are garbage collected.
+ * The queue is only drained by its {@code Observable}, so that the stale listeners are never removed from a different tree.
+ *
+ * @author Stanisław Góra
+ * @see Observable#addWeakListener(ChangeListener)
+ */
+final class WeakListeners {
+
+	private static final int INITIAL_CAPACITY = 8;
+
+	private final ReferenceQueue<ChangeListener> collected = new ReferenceQueue<>();
+	/**
+	 * Hash table of the weak listeners chained by {@link WeakListener#next}
+	 */
+	private WeakListener[] table = new WeakListener[INITIAL_CAPACITY];
+	private int size;
+
+	/**
+	 * Creates and registers a weak listener referencing the specified listener
+	 * @param listener listener to be referenced
+	 * @param owner {@code Observable} the listener is registered on
+	 * @param listenerList list the listener is registered in
+	 * @param staticListener whether it is a static listener of a {@link SettableObservable}
+	 * @return the registered weak listener
+	 */
+	WeakListener add(ChangeListener listener, Observable owner, ListenerList listenerList, boolean staticListener) {
+		if(size >= table.length)
+			resize();
+		WeakListener weakListener = new WeakListener(listener, collected, owner, listenerList, staticListener);
+		int slot = slot(weakListener.hash);
+		weakListener.next = table[slot];
+		table[slot] = weakListener;
+		size++;
+		return weakListener;
+	}
+
+	/**
+	 * Finds the weak listener referencing the specified listener
+	 * @param listener referenced listener
+	 * @param listenerList list the weak listener is registered in
+	 * @return the weak listener or {@code null} if not found
+	 */
+	WeakListener find(ChangeListener listener, ListenerList listenerList) {
+		for (WeakListener weakListener = table[slot(System.identityHashCode(listener))]; weakListener != null; weakListener = weakListener.next) {
+			if(weakListener.listenerList == listenerList && weakListener.get() == listener)
+				return weakListener;
+		}
+		return null;
+	}
+
+	/**
+	 * Unregisters the weak listener, if it is registered
+	 * @param weakListener weak listener to be removed
+	 */
+	void remove(WeakListener weakListener) {
+		int slot = slot(weakListener.hash);
+		WeakListener previous = null;
+		for (WeakListener current = table[slot]; current != null; previous = current, current = current.next) {
+			if(current != weakListener)
+				continue;
+			if(previous == null)
+				table[slot] = current.next;
+			else
+				previous.next = current.next;
+			current.next = null;
+			size--;
+			return;
+		}
+	}
+
+	/**
+	 * Unregisters all the weak listeners of the specified list
+	 * @param listenerList list that was cleared
+	 */
+	void clear(ListenerList listenerList) {
+		for (int slot = 0; slot < table.length; slot++) {
+			WeakListener previous = null;
+			WeakListener current = table[slot];
+			while(current != null) {
+				WeakListener next = current.next;
+				if(current.listenerList == listenerList) {
+					if(previous == null)
+						table[slot] = next;
+					else
+						previous.next = next;
+					current.next = null;
+					size--;
+				} else {
+					previous = current;
+				}
+				current = next;
+			}
+		}
+	}
+
+	/**
+	 * Removes all the weak listeners whose listeners were garbage collected
+	 */
+	void purge() {
+		Reference<? extends ChangeListener> reference;
+		while((reference = collected.poll()) != null) {
+			WeakListener weakListener = (WeakListener) reference;
+			remove(weakListener);
+			weakListener.remove();
+		}
+	}
+
+	private int slot(int hash) {
+		return (hash ^ (hash >>> 16)) & (table.length - 1);
+	}
+
+	private void resize() {
+		WeakListener[] previous = table;
+		table = new WeakListener[previous.length * 2];
+		for (WeakListener chain : previous) {
+			while(chain != null) {
+				WeakListener next = chain.next;
+				int slot = slot(chain.hash);
+				chain.next = table[slot];
+				table[slot] = chain;
+				chain = next;
+			}
+		}
+	}
+
+}
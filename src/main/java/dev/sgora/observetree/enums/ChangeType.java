@@ -0,0 +1,35 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree.enums;
+
+import dev.sgora.observetree.ListChange;
+import dev.sgora.observetree.MapChange;
+
+/**
+ * A utility enum defining the kinds of the element changes of the observable collections
+ *
+ * @author Stanisław Góra
+ * @see ListChange
+ * @see MapChange
+ */
+public enum ChangeType {
+
+	/**
+	 * Elements were added
+	 */
+	ADDED,
+	/**
+	 * Elements were removed
+	 */
+	REMOVED,
+	/**
+	 * Elements were replaced with other ones
+	 */
+	REPLACED
+
+}
@@ -24,5 +24,16 @@ public enum ListenerNotification {
 	/**
 	 * Immediately after a {@link Observable#onValueChanged()} was called
 	 */
-	AUTOMATIC
+	AUTOMATIC,
+	/**
+	 * Immediately after a {@link Observable#onValueChanged()} was called, with the listeners invoked asynchronously on the {@link Observable#getAsyncExecutor() async executor}.
+	 * Listeners with a higher priority complete before the ones with a lower priority are started
+	 * and a listener is never invoked concurrently with itself.
+	 */
+	ASYNC,
+	/**
+	 * Once for all the changes made until the {@link Observable#setCoalescingScheduler(dev.sgora.observetree.NotificationScheduler) coalescing scheduler}
+	 * runs the delivery - or {@link Observable#flushCoalescedNotifications()} is called - with a single dispatch of all the changed {@code Observables}
+	 */
+	COALESCED
 }
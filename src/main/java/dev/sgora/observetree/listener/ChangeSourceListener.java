@@ -0,0 +1,30 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree.listener;
+
+import dev.sgora.observetree.Observable;
+import dev.sgora.observetree.enums.ListenerPriority;
+
+import java.util.Set;
+
+/**
+ * Represents a listener that subscribes to the changes of {@link Observable} and receives the {@code Observables} the changes were made to
+ * <p>This is a <i>functional interface</i> whose functional method is {@link #call(Set)}
+ *
+ * @author Stanisław Góra
+ * @see ListenerPriority
+ */
+@FunctionalInterface
+public interface ChangeSourceListener {
+	/**
+	 * Gets called whenever the subscribed {@link Observable} is changed.
+	 * @param sources read-only set of the subscribed {@code Observable} and its descendants that were changed directly
+	 *                and whose changes are delivered by this notification
+	 */
+	void call(Set<Observable> sources);
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree.listener;
+
+import dev.sgora.observetree.ListChange;
+import dev.sgora.observetree.ObservableList;
+import dev.sgora.observetree.enums.ListenerPriority;
+
+import java.util.List;
+
+/**
+ * Represents a listener that subscribes to the changes of an {@link ObservableList} and receives the ranges of its elements that were changed
+ * <p>This is a <i>functional interface</i> whose functional method is {@link #call(List)}
+ *
+ * @param <E> the type of the list elements
+ *
+ * @author Stanisław Góra
+ * @see ListenerPriority
+ */
+@FunctionalInterface
+public interface ListChangeListener<E> {
+	/**
+	 * Gets called whenever the subscribed {@link ObservableList} is changed.
+	 * All the changes made since the previous notification are delivered by a single call.
+	 * @param changes read-only list of the changes in the order they were made, the positions of each of them are relative to the list after the preceding ones
+	 */
+	void call(List<ListChange<E>> changes);
+}
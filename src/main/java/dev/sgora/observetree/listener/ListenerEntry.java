@@ -25,6 +25,10 @@ public class ListenerEntry implements Comparable<ListenerEntry> {
 	 * Listener priority
 	 */
 	public final int priority;
+	/**
+	 * Position in which the entry was added, used to keep the entries with the same priority in order
+	 */
+	final long sequence;
 
 	/**
 	 * Constructs new listener entry object
@@ -32,8 +36,13 @@ public class ListenerEntry implements Comparable<ListenerEntry> {
 	 * @param priority listener priority
 	 */
 	public ListenerEntry(ChangeListener listener, int priority) {
+		this(listener, priority, 0);
+	}
+
+	ListenerEntry(ChangeListener listener, int priority, long sequence) {
 		this.listener = listener;
 		this.priority = priority;
+		this.sequence = sequence;
 	}
 
 	/**
@@ -61,12 +70,12 @@ public class ListenerEntry implements Comparable<ListenerEntry> {
 
 	/**
 	 * Compares the specified object with this {@code ListenerEntry}. It sorts the objects in a descending order according to their {@link #priority}.
+	 * <i>Note: this ordering is inconsistent with equals</i> - entries with the same priority are considered equal, which allows stable sorting.
 	 * @param o {@code ListenerEntry} to which this {@code ListenerEntry} is to be compared
-	 * @return -1 or 1 as this {@code ListenerEntry} should be placed before or behind {@code o} or 0 if the objects are equal.
+	 * @return a negative integer, zero, or a positive integer as this {@code ListenerEntry} should be placed before, together or behind {@code o}
 	 */
 	@Override
 	public int compareTo(ListenerEntry o) {
-		int order = priority >= o.priority ? -1 : 1;
-		return this.equals(o) ? 0 : order;
+		return Integer.compare(o.priority, priority);
 	}
 }
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree.listener;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Collection of {@link ListenerEntry ListenerEntries} sorted in a descending order of their priority, used by the {@code Observables} to keep their listeners.
+ * Entries with the same priority are kept in the order they were added.
+ * Subclasses keeping additional lists of listeners, like the static listeners of a {@link dev.sgora.observetree.SettableObservable}, pass them to the protected
+ * {@code add} and {@code remove} methods of {@link dev.sgora.observetree.Observable}, which took a {@code Set<ListenerEntry>} before this class replaced it.
+ * A snapshot returned by {@link #getEntries()} is never modified and can be safely iterated while listeners are being added or removed.
+ *
+ * <p>
+ * Small lists are kept as a copy-on-write array. Past a threshold the entries are indexed by listener identity,
+ * so that adding and removing a listener runs in constant expected time, and the sorted snapshot is rebuilt on the next read.
+ *
+ * @author Stanisław Góra
+ * @see ListenerEntry
+ */
+public final class ListenerList {
+
+	private static final int INDEX_THRESHOLD = 8;
+	private static final ListenerEntry[] EMPTY = {};
+	private static final Comparator<ListenerEntry> ORDER = Comparator.<ListenerEntry>naturalOrder().thenComparingLong(entry -> entry.sequence);
+
+	/**
+	 * Sorted snapshot of the entries, {@code null} if it needs to be rebuilt from the {@link #index}
+	 */
+	private ListenerEntry[] entries = EMPTY;
+	private Map<ChangeListener, ListenerEntry> index;
+	private long nextSequence;
+
+	/**
+	 * Adds the specified listener with the specified priority behind all the entries with the same or higher priority.
+	 * @param listener element to be added
+	 * @param priority priority of this listener
+	 * @return {@code true} if the listener was successfully added. {@code false} if it was already present
+	 */
+	public boolean add(ChangeListener listener, int priority) {
+		ListenerEntry entry = new ListenerEntry(listener, priority, nextSequence);
+		if(index != null) {
+			if(index.putIfAbsent(listener, entry) != null)
+				return false;
+			entries = null;
+		} else {
+			if(indexOf(listener) >= 0)
+				return false;
+			insert(entry);
+			if(entries.length > INDEX_THRESHOLD)
+				buildIndex();
+		}
+		nextSequence++;
+		return true;
+	}
+
+	/**
+	 * Removes the specified listener
+	 * @param listener element to be removed
+	 * @return {@code true} if the listener was successfully removed. {@code false} if it was not found
+	 */
+	public boolean remove(ChangeListener listener) {
+		if(index != null) {
+			if(index.remove(listener) == null)
+				return false;
+			entries = null;
+			return true;
+		}
+		int position = indexOf(listener);
+		if(position < 0)
+			return false;
+		ListenerEntry[] updated = Arrays.copyOf(entries, entries.length - 1);
+		System.arraycopy(entries, position + 1, updated, position, updated.length - position);
+		entries = updated;
+		return true;
+	}
+
+	/**
+	 * Checks whether the specified listener is present
+	 * @param listener element to be found
+	 * @return {@code true} if the listener was added and not removed since
+	 */
+	public boolean contains(ChangeListener listener) {
+		return index != null ? index.containsKey(listener) : indexOf(listener) >= 0;
+	}
+
+	/**
+	 * Removes all the listeners
+	 */
+	public void clear() {
+		entries = EMPTY;
+		index = null;
+	}
+
+	/**
+	 * Returns the current, sorted snapshot of the entries. <i>The returned array must not be modified.</i>
+	 * @return an array of all the entries
+	 */
+	public ListenerEntry[] getEntries() {
+		if(entries == null) {
+			ListenerEntry[] sorted = index.values().toArray(EMPTY);
+			Arrays.sort(sorted, ORDER);
+			entries = sorted;
+		}
+		return entries;
+	}
+
+	/**
+	 * Returns the number of listeners
+	 * @return the number of listeners
+	 */
+	public int size() {
+		return index != null ? index.size() : entries.length;
+	}
+
+	/**
+	 * Checks if there are no listeners
+	 * @return {@code true} if there are no listeners
+	 */
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	private void insert(ListenerEntry entry) {
+		int position = insertionPoint(entry.priority);
+		ListenerEntry[] updated = new ListenerEntry[entries.length + 1];
+		System.arraycopy(entries, 0, updated, 0, position);
+		updated[position] = entry;
+		System.arraycopy(entries, position, updated, position + 1, entries.length - position);
+		entries = updated;
+	}
+
+	private void buildIndex() {
+		index = new IdentityHashMap<>(entries.length * 2);
+		for (ListenerEntry entry : entries)
+			index.put(entry.listener, entry);
+	}
+
+	private int indexOf(ChangeListener listener) {
+		for (int i = 0; i < entries.length; i++) {
+			if(entries[i].listener == listener)
+				return i;
+		}
+		return -1;
+	}
+
+	private int insertionPoint(int priority) {
+		int low = 0;
+		int high = entries.length;
+		while(low < high) {
+			int middle = (low + high) >>> 1;
+			if(entries[middle].priority >= priority)
+				low = middle + 1;
+			else
+				high = middle;
+		}
+		return low;
+	}
+
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree.listener;
+
+import dev.sgora.observetree.MapChange;
+import dev.sgora.observetree.ObservableMap;
+import dev.sgora.observetree.enums.ListenerPriority;
+
+import java.util.Collection;
+
+/**
+ * Represents a listener that subscribes to the changes of an {@link ObservableMap} and receives the entries that were changed
+ * <p>This is a <i>functional interface</i> whose functional method is {@link #call(Collection)}
+ *
+ * @param <K> the type of the map keys
+ * @param <V> the type of the map values
+ *
+ * @author Stanisław Góra
+ * @see ListenerPriority
+ */
+@FunctionalInterface
+public interface MapChangeListener<K, V> {
+	/**
+	 * Gets called whenever the subscribed {@link ObservableMap} is changed.
+	 * All the changes made since the previous notification are coalesced into a single call, with at most one change of each key.
+	 * @param changes read-only collection of the changes
+	 */
+	void call(Collection<MapChange<K, V>> changes);
+}
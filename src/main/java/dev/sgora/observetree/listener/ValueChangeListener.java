@@ -0,0 +1,31 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree.listener;
+
+import dev.sgora.observetree.SettableProperty;
+import dev.sgora.observetree.enums.ListenerPriority;
+
+/**
+ * Represents a listener that subscribes to the changes of a {@link SettableProperty} and receives its value from before and after the change
+ * <p>This is a <i>functional interface</i> whose functional method is {@link #call(Object, Object)}
+ *
+ * @param <T> the type of the observed value
+ *
+ * @author Stanisław Góra
+ * @see ListenerPriority
+ */
+@FunctionalInterface
+public interface ValueChangeListener<T> {
+	/**
+	 * Gets called whenever the subscribed {@link SettableProperty} is changed.
+	 * All the changes made since the previous notification are coalesced into a single call.
+	 * @param oldValue value at the time of the previous notification
+	 * @param newValue current value
+	 */
+	void call(T oldValue, T newValue);
+}
@@ -1,4 +1,6 @@
 module stasgora.observetree {
+	requires jdk.jfr;
+
 	exports dev.sgora.observetree;
 	exports dev.sgora.observetree.listener;
 	exports dev.sgora.observetree.enums;
@@ -0,0 +1,243 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree.concurrent;
+
+import dev.sgora.observetree.ComputedProperty;
+import dev.sgora.observetree.ConcurrentSettableProperty;
+import dev.sgora.observetree.TestBase;
+import dev.sgora.observetree.enums.ListenerNotification;
+import dev.sgora.observetree.model.ConcurrentTestObservable;
+import dev.sgora.observetree.model.TestObservable;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ConcurrentObservableTest extends TestBase {
+	private static final int THREADS = 8;
+	private static final int WRITES_PER_THREAD = 20_000;
+
+	private ConcurrentTestObservable root;
+	private ConcurrentTestObservable branch;
+	private ConcurrentSettableProperty<Integer> property;
+
+	@Before
+	public void prepareObjects() {
+		super.prepareObjects();
+		root = new ConcurrentTestObservable();
+		branch = new ConcurrentTestObservable();
+		property = new ConcurrentSettableProperty<>(0);
+		root.addSubObservable(branch);
+		branch.addSubObservable(property);
+	}
+
+	@Test
+	public void whenPropertyIsSet_treeListenersAreCalled() {
+		root.addListener(listener);
+		property.addListener(listener);
+
+		property.set(VALUE_TO_SET);
+		assertTrue(root.isValueChanged());
+		branch.notifyListeners();
+
+		verifyListenerCalled(listener, 1);
+		assertFalse(root.isValueChanged());
+		assertFalse(property.isValueChanged());
+	}
+
+	@Test
+	public void whenSubtreeIsSetUnchanged_ancestorsStayChanged() {
+		property.set(VALUE_TO_SET);
+		branch.setUnchanged(false);
+
+		assertTrue(root.isValueChanged());
+		assertFalse(property.isValueChanged());
+	}
+
+	@Test
+	public void whenChangedPropertyIsAdded_newParentIsMarked() {
+		ConcurrentTestObservable other = new ConcurrentTestObservable();
+		property.set(VALUE_TO_SET);
+		other.addSubObservable(property);
+		assertTrue(other.isValueChanged());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void whenRelatingToPlainObservable_exceptionIsThrown() {
+		root.addSubObservable(new TestObservable());
+	}
+
+	@Test
+	public void concurrentModifications_areAtomic() throws InterruptedException {
+		runConcurrently(thread -> {
+			for (int i = 0; i < WRITES_PER_THREAD; i++)
+				property.modify(value -> value + 1);
+		});
+		assertEquals(THREADS * WRITES_PER_THREAD, (int) property.get());
+		assertTrue(root.isValueChanged());
+	}
+
+	@Test
+	public void whenWritersRaceWithNotifier_noChangeIsLost() throws InterruptedException {
+		List<ConcurrentSettableProperty<Integer>> leaves = new ArrayList<>();
+		int[] lastSeen = new int[THREADS];
+		AtomicInteger rootCalls = new AtomicInteger();
+		root.addListener(rootCalls::incrementAndGet);
+		for (int i = 0; i < THREADS; i++) {
+			ConcurrentTestObservable group = new ConcurrentTestObservable();
+			ConcurrentSettableProperty<Integer> leaf = new ConcurrentSettableProperty<>(0);
+			int index = i;
+			leaf.addListener(() -> lastSeen[index] = leaf.get());
+			group.addSubObservable(leaf);
+			(i % 2 == 0 ? root : branch).addSubObservable(group);
+			leaves.add(leaf);
+		}
+
+		AtomicBoolean writing = new AtomicBoolean(true);
+		Thread notifier = new Thread(() -> {
+			while(writing.get())
+				root.notifyListeners();
+		});
+		notifier.start();
+		runConcurrently(thread -> {
+			for (int i = 1; i <= WRITES_PER_THREAD; i++)
+				leaves.get(thread).set(i);
+		});
+		writing.set(false);
+		notifier.join();
+		root.notifyListeners();
+
+		for (int i = 0; i < THREADS; i++) {
+			assertEquals(WRITES_PER_THREAD, lastSeen[i]);
+			assertFalse(leaves.get(i).isValueChanged());
+		}
+		assertTrue(rootCalls.get() > 0);
+		assertFalse(root.isValueChanged());
+	}
+
+	@Test
+	public void whenListenerWaitsForTreeModification_itDoesNotDeadlock() {
+		AtomicBoolean linked = new AtomicBoolean();
+		root.addListener(() -> {
+			Thread modifier = new Thread(() -> {
+				branch.addSubObservable(new ConcurrentTestObservable());
+				linked.set(true);
+			});
+			modifier.start();
+			try {
+				modifier.join(5_000);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+
+		property.set(VALUE_TO_SET);
+		root.notifyListeners();
+
+		assertTrue(linked.get());
+	}
+
+	@Test
+	public void whenListenerBlocks_otherTreesAreNotified() throws InterruptedException {
+		CountDownLatch release = new CountDownLatch(1);
+		root.addListener(() -> {
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		ConcurrentSettableProperty<Integer> other = new ConcurrentSettableProperty<>(0);
+		other.addListener(listener);
+		property.set(VALUE_TO_SET);
+		Thread blocked = new Thread(root::notifyListeners);
+		blocked.start();
+
+		other.setAndNotify(VALUE_TO_SET);
+		verifyListenerCalled(listener, 1);
+		release.countDown();
+		blocked.join();
+	}
+
+	@Test
+	public void whenManualChildIsChanged_automaticAncestorIsNotified() {
+		root.setNotificationMethod(ListenerNotification.AUTOMATIC);
+		root.addListener(listener);
+
+		property.set(VALUE_TO_SET);
+
+		verifyListenerCalled(listener, 1);
+		assertFalse(root.isValueChanged());
+		assertFalse(property.isValueChanged());
+	}
+
+	@Test
+	public void whenValuesAreEqualByStrategy_propertyIsNotChanged() {
+		property.setEqualityStrategy((current, updated) -> current % 2 == updated % 2);
+
+		property.set(VALUE_TO_SET);
+		assertFalse(property.isValueChanged());
+		property.modify(value -> value + 1);
+		assertTrue(property.isValueChanged());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void whenComputedPropertyReadsConcurrentProperty_exceptionIsThrown() {
+		new ComputedProperty<>(() -> property.get() + 1).get();
+	}
+
+	@Test
+	public void deepChain_isTraversedWithoutStackOverflow() {
+		ConcurrentTestObservable leaf = root;
+		for (int i = 0; i < 100_000; i++) {
+			ConcurrentTestObservable child = new ConcurrentTestObservable();
+			leaf.addSubObservable(child);
+			leaf = child;
+		}
+		root.addListener(listener);
+
+		leaf.onChange();
+		assertTrue(root.isValueChanged());
+		leaf.notifyListeners();
+
+		assertFalse(leaf.isValueChanged());
+		verifyListenerCalled(listener, 1);
+	}
+
+	private void runConcurrently(ThreadBody body) throws InterruptedException {
+		CountDownLatch start = new CountDownLatch(1);
+		List<Thread> threads = new ArrayList<>();
+		for (int i = 0; i < THREADS; i++) {
+			int index = i;
+			Thread thread = new Thread(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+				body.run(index);
+			});
+			thread.start();
+			threads.add(thread);
+		}
+		start.countDown();
+		for (Thread thread : threads)
+			thread.join();
+	}
+
+	private interface ThreadBody {
+		void run(int thread);
+	}
+}
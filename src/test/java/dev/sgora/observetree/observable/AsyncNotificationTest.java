@@ -0,0 +1,258 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree.observable;
+
+import dev.sgora.observetree.Observable;
+import dev.sgora.observetree.ObservableList;
+import dev.sgora.observetree.SettableProperty;
+import dev.sgora.observetree.enums.ListenerNotification;
+import dev.sgora.observetree.enums.ListenerPriority;
+import dev.sgora.observetree.model.TestObservable;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class AsyncNotificationTest extends ObservableTestBase {
+	private static final long TIMEOUT_SECONDS = 5;
+	/**
+	 * Number of the notifications waiting in the queue of a tree before the writer is held back
+	 */
+	private static final int MAX_PENDING = 1024;
+
+	private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+	@Override
+	public void prepareObjects() {
+		super.prepareObjects();
+		Observable.setAsyncExecutor(executor);
+		observable.setNotificationMethod(ListenerNotification.ASYNC);
+	}
+
+	@After
+	public void shutdownExecutor() {
+		Observable.setAsyncExecutor(null);
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void whenAsyncObservableIsChanged_writerIsNotBlocked() throws InterruptedException {
+		CountDownLatch written = new CountDownLatch(1);
+		CountDownLatch called = new CountDownLatch(1);
+		Thread writer = Thread.currentThread();
+		AtomicBoolean calledOnWriter = new AtomicBoolean();
+		observable.addListener(() -> {
+			calledOnWriter.set(Thread.currentThread() == writer);
+			awaitQuietly(written);
+			called.countDown();
+		});
+
+		observable.setValue(VALUE_TO_SET);
+		written.countDown();
+
+		assertTrue(called.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+		assertFalse(calledOnWriter.get());
+		assertFalse(observable.isValueChanged());
+	}
+
+	@Test
+	public void higherPriorityListeners_completeBeforeLowerPriorityOnesStart() throws InterruptedException {
+		AtomicBoolean highCompleted = new AtomicBoolean();
+		AtomicInteger lowStartedEarly = new AtomicInteger();
+		CountDownLatch called = new CountDownLatch(3);
+		observable.addListener(() -> {
+			sleepQuietly(50);
+			highCompleted.set(true);
+			called.countDown();
+		}, ListenerPriority.HIGH);
+		for (int i = 0; i < 2; i++) {
+			observable.addListener(() -> {
+				if(!highCompleted.get())
+					lowStartedEarly.incrementAndGet();
+				called.countDown();
+			});
+		}
+
+		observable.setValue(VALUE_TO_SET);
+
+		assertTrue(called.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+		assertEquals(0, lowStartedEarly.get());
+	}
+
+	@Test
+	public void listener_isNeverCalledConcurrentlyWithItself() throws InterruptedException {
+		int notifications = 100;
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger overlaps = new AtomicInteger();
+		CountDownLatch called = new CountDownLatch(notifications);
+		observable.addListener(() -> {
+			if(running.incrementAndGet() > 1)
+				overlaps.incrementAndGet();
+			sleepQuietly(1);
+			running.decrementAndGet();
+			called.countDown();
+		});
+
+		for (int i = 0; i < notifications; i++)
+			observable.setValue(VALUE_TO_SET);
+
+		assertTrue(called.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+		assertEquals(0, overlaps.get());
+	}
+
+	@Test
+	public void whenNotificationsOverlap_listListenersReceiveTheirOwnChanges() throws InterruptedException {
+		ObservableList<String> list = new ObservableList<>();
+		list.setNotificationMethod(ListenerNotification.ASYNC);
+		List<String> received = new CopyOnWriteArrayList<>();
+		CountDownLatch called = new CountDownLatch(2);
+		list.addListener(() -> sleepQuietly(50), ListenerPriority.HIGH);
+		list.addListListener(changes -> {
+			received.add(changes.toString());
+			called.countDown();
+		}, ListenerPriority.LOW);
+
+		list.add("a");
+		list.add("b");
+
+		assertTrue(called.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+		assertEquals(List.of("[ADDED at 0: [] -> [a]]", "[ADDED at 1: [] -> [b]]"), received);
+	}
+
+	@Test
+	public void whenNotificationsOverlap_valueListenersReceiveTheirOwnValues() throws InterruptedException {
+		SettableProperty<Integer> property = new SettableProperty<>(0);
+		property.setNotificationMethod(ListenerNotification.ASYNC);
+		List<String> received = new CopyOnWriteArrayList<>();
+		CountDownLatch called = new CountDownLatch(2);
+		property.addListener(() -> sleepQuietly(50), ListenerPriority.HIGH);
+		property.addValueListener((oldValue, newValue) -> {
+			received.add(oldValue + " -> " + newValue);
+			called.countDown();
+		}, ListenerPriority.LOW);
+
+		property.set(1);
+		property.set(2);
+
+		assertTrue(called.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+		assertEquals(List.of("0 -> 1", "1 -> 2"), received);
+	}
+
+	@Test
+	public void whenNotificationsOverlap_sourceListenersReceiveTheirOwnSources() throws InterruptedException {
+		// the children are changed first, so that their parent is not notified before they are marked
+		observable.setNotificationMethod(ListenerNotification.MANUAL);
+		TestObservable first = new TestObservable();
+		TestObservable second = new TestObservable();
+		observable.addSubObservable(first);
+		observable.addSubObservable(second);
+		List<Set<Observable>> received = new CopyOnWriteArrayList<>();
+		CountDownLatch called = new CountDownLatch(2);
+		observable.addListener(() -> sleepQuietly(50), ListenerPriority.HIGH);
+		observable.addSourceListener(sources -> {
+			received.add(sources);
+			called.countDown();
+		}, ListenerPriority.LOW);
+
+		first.setValue(VALUE_TO_SET);
+		notifyAsynchronously();
+		second.setValue(VALUE_TO_SET);
+		notifyAsynchronously();
+
+		assertTrue(called.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+		assertEquals(List.of(Set.of(first), Set.of(second)), received);
+	}
+
+	@Test
+	public void whenListenerOfOneTreeIsSlow_otherTreesAreStillNotified() throws InterruptedException {
+		CountDownLatch released = new CountDownLatch(1);
+		CountDownLatch otherCalled = new CountDownLatch(1);
+		observable.addListener(() -> awaitQuietly(released));
+		TestObservable other = new TestObservable();
+		other.setNotificationMethod(ListenerNotification.ASYNC);
+		other.addListener(otherCalled::countDown);
+
+		observable.setValue(VALUE_TO_SET);
+		other.setValue(VALUE_TO_SET);
+
+		try {
+			assertTrue(otherCalled.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+		} finally {
+			released.countDown();
+		}
+	}
+
+	@Test
+	public void whenExecutorRunsTasksOnCallingThread_levelsAreStartedWithoutNesting() {
+		Observable.setAsyncExecutor(Runnable::run);
+		int levels = 20_000;
+		AtomicInteger called = new AtomicInteger();
+		for (int i = 0; i < levels; i++)
+			observable.addListener(called::incrementAndGet, i);
+
+		observable.setValue(VALUE_TO_SET);
+
+		assertEquals(levels, called.get());
+	}
+
+	@Test
+	public void whenQueueOfTreeIsFull_writerWaitsForListeners() throws InterruptedException {
+		CountDownLatch released = new CountDownLatch(1);
+		observable.addListener(() -> awaitQuietly(released));
+		AtomicInteger written = new AtomicInteger();
+		Thread writer = new Thread(() -> {
+			for (int i = 0; i < MAX_PENDING + 2; i++) {
+				observable.setValue(VALUE_TO_SET);
+				written.incrementAndGet();
+			}
+		});
+
+		writer.start();
+		try {
+			while(writer.getState() != Thread.State.WAITING && writer.isAlive())
+				Thread.sleep(1);
+			assertEquals(MAX_PENDING + 1, written.get());
+		} finally {
+			released.countDown();
+		}
+		writer.join(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+		assertEquals(MAX_PENDING + 2, written.get());
+	}
+
+	private void notifyAsynchronously() {
+		observable.setNotificationMethod(ListenerNotification.ASYNC);
+		observable.notifyListeners();
+		observable.setNotificationMethod(ListenerNotification.MANUAL);
+	}
+
+	private static void awaitQuietly(CountDownLatch latch) {
+		try {
+			latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void sleepQuietly(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree.observable;
+
+import dev.sgora.observetree.ChangeBatch;
+import dev.sgora.observetree.Observable;
+import dev.sgora.observetree.SettableProperty;
+import dev.sgora.observetree.enums.ListenerNotification;
+import dev.sgora.observetree.model.TestObservable;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ChangeBatchTest extends ObservableTestBase {
+	private TestObservable parent;
+	private SettableProperty<Integer> first;
+	private SettableProperty<Integer> second;
+
+	@Override
+	public void prepareObjects() {
+		super.prepareObjects();
+		parent = new TestObservable();
+		first = new SettableProperty<>(0);
+		second = new SettableProperty<>(0);
+		parent.addSubObservable(first);
+		parent.addSubObservable(second);
+		first.setNotificationMethod(ListenerNotification.AUTOMATIC);
+		second.setNotificationMethod(ListenerNotification.AUTOMATIC);
+	}
+
+	@Test
+	public void changesInsideBatch_areDeliveredOnceWithCompleteState() {
+		int[] seenSum = new int[1];
+		parent.addListener(listener);
+		parent.addListener(() -> seenSum[0] = first.get() + second.get());
+
+		try (ChangeBatch batch = ChangeBatch.open()) {
+			first.set(1);
+			second.set(2);
+			verifyListenerCalled(listener, 0);
+		}
+
+		verifyListenerCalled(listener, 1);
+		assertEquals(3, seenSum[0]);
+		assertFalse(parent.isValueChanged());
+	}
+
+	@Test
+	public void nestedBatches_deliverWhenOutermostCloses() {
+		parent.addListener(listener);
+
+		Observable.batch(() -> {
+			Observable.batch(() -> first.set(1));
+			verifyListenerCalled(listener, 0);
+			second.set(2);
+		});
+
+		verifyListenerCalled(listener, 1);
+	}
+
+	@Test
+	public void explicitNotificationInsideBatch_isDeferred() {
+		observable.addListener(listener);
+
+		Observable.batch(() -> {
+			observable.setValue(VALUE_TO_SET);
+			observable.notifyListeners();
+			verifyListenerCalled(listener, 0);
+		});
+
+		verifyListenerCalled(listener, 1);
+	}
+
+	@Test
+	public void asyncChangesInsideBatch_areDeliveredOnExecutor() throws InterruptedException {
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		Observable.setAsyncExecutor(executor);
+		try {
+			Thread closing = Thread.currentThread();
+			AtomicBoolean calledOnClosing = new AtomicBoolean(true);
+			CountDownLatch called = new CountDownLatch(1);
+			observable.setNotificationMethod(ListenerNotification.ASYNC);
+			observable.addListener(() -> {
+				calledOnClosing.set(Thread.currentThread() == closing);
+				called.countDown();
+			});
+
+			Observable.batch(() -> observable.setValue(VALUE_TO_SET));
+
+			assertTrue(called.await(5, TimeUnit.SECONDS));
+			assertFalse(calledOnClosing.get());
+		} finally {
+			Observable.setAsyncExecutor(null);
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void closingBatchTwice_hasNoEffect() {
+		parent.addListener(listener);
+		ChangeBatch outer = ChangeBatch.open();
+		ChangeBatch inner = ChangeBatch.open();
+
+		first.set(1);
+		inner.close();
+		inner.close();
+		verifyListenerCalled(listener, 0);
+		outer.close();
+		verifyListenerCalled(listener, 1);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void closingBatchOnAnotherThread_throwsException() throws Throwable {
+		ChangeBatch batch = ChangeBatch.open();
+		Throwable[] thrown = new Throwable[1];
+		Thread thread = new Thread(() -> {
+			try {
+				batch.close();
+			} catch (IllegalStateException e) {
+				thrown[0] = e;
+			}
+		});
+		thread.start();
+		thread.join();
+		batch.close();
+		throw thrown[0];
+	}
+}
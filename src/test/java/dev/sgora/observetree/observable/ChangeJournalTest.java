@@ -0,0 +1,239 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree.observable;
+
+import dev.sgora.observetree.ChangeJournal;
+import dev.sgora.observetree.IntProperty;
+import dev.sgora.observetree.SettableObservable;
+import dev.sgora.observetree.SettableProperty;
+import dev.sgora.observetree.TreeSnapshot;
+import dev.sgora.observetree.model.TestObservable;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ChangeJournalTest {
+	private static final int PROPERTY_COUNT = 100;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final TreeSnapshot snapshot = new TreeSnapshot().registerNode(TestObservable.class, TestObservable::new);
+	private Path file;
+	private ChangeJournal journal;
+	private Model model;
+
+	@Before
+	public void setUp() throws IOException {
+		file = folder.getRoot().toPath().resolve("model.journal");
+		journal = new ChangeJournal(file, snapshot);
+		model = new Model();
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		journal.close();
+	}
+
+	@Test
+	public void whenPropertiesAreChanged_onlyTheyAreWritten() throws IOException {
+		model.numbers.get(3).set(30);
+		model.text.set("changed");
+
+		Assert.assertEquals(2, journal.checkpoint(model.root));
+		model.root.notifyListeners();
+		Assert.assertEquals(0, journal.checkpoint(model.root));
+		long size = journal.getSize();
+		model.numbers.get(4).set(40);
+		Assert.assertEquals(1, journal.checkpoint(model.root));
+		Assert.assertTrue(journal.getSize() - size < PROPERTY_COUNT);
+	}
+
+	@Test
+	public void whenJournalIsReopened_changesAreReplayedIntoNewTree() throws IOException {
+		model.numbers.get(3).set(30);
+		model.text.set("changed");
+		journal.checkpoint(model.root);
+		model.root.notifyListeners();
+		model.numbers.get(3).set(31);
+		journal.checkpoint(model.root);
+		journal.close();
+
+		journal = new ChangeJournal(file, snapshot);
+		Model restored = new Model();
+		journal.replay(restored.root);
+
+		Assert.assertEquals(31, restored.numbers.get(3).getAsInt());
+		Assert.assertEquals("changed", restored.text.get());
+		Assert.assertEquals(0, restored.numbers.get(4).getAsInt());
+		Assert.assertFalse(restored.root.isValueChanged());
+	}
+
+	@Test
+	public void whenJournalIsCompacted_latestValuesAreKept() throws IOException {
+		for (int i = 0; i < PROPERTY_COUNT; i++) {
+			model.numbers.get(0).set(i + 1);
+			journal.checkpoint(model.root);
+			model.root.notifyListeners();
+		}
+		long size = journal.getSize();
+
+		journal.compact();
+		Model restored = new Model();
+		journal.replay(restored.root);
+
+		Assert.assertTrue(journal.getSize() < size);
+		Assert.assertEquals(PROPERTY_COUNT, restored.numbers.get(0).getAsInt());
+	}
+
+	@Test
+	public void whenJournalIsCleared_changesAreDroppedAfterReopening() throws IOException {
+		model.numbers.get(3).set(30);
+		journal.checkpoint(model.root);
+		journal.clear();
+		journal.close();
+
+		journal = new ChangeJournal(file, snapshot);
+		Model restored = new Model();
+		journal.replay(restored.root);
+
+		Assert.assertEquals(0, restored.numbers.get(3).getAsInt());
+	}
+
+	@Test
+	public void whenLastBatchIsTorn_itIsDropped() throws IOException {
+		model.numbers.get(3).set(30);
+		journal.checkpoint(model.root);
+		model.root.notifyListeners();
+		long size = journal.getSize();
+		model.numbers.get(4).set(40);
+		journal.checkpoint(model.root);
+		journal.close();
+		try (RandomAccessFile content = new RandomAccessFile(file.toFile(), "rw")) {
+			content.seek(journal.getSize() - 1);
+			int last = content.read();
+			content.seek(journal.getSize() - 1);
+			content.write(last + 1);
+		}
+
+		journal = new ChangeJournal(file, snapshot);
+		Model restored = new Model();
+		journal.replay(restored.root);
+
+		Assert.assertEquals(size, journal.getSize());
+		Assert.assertEquals(30, restored.numbers.get(3).getAsInt());
+		Assert.assertEquals(0, restored.numbers.get(4).getAsInt());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void whenTreeStructureChanges_checkpointFails() throws IOException {
+		model.numbers.get(3).set(30);
+		journal.checkpoint(model.root);
+		model.root.notifyListeners();
+		model.root.addSubObservable(new IntProperty());
+		model.numbers.get(4).set(40);
+		journal.checkpoint(model.root);
+	}
+
+	@Test(expected = IOException.class)
+	public void whenTreeDiffers_replayFails() throws IOException {
+		model.numbers.get(3).set(30);
+		journal.checkpoint(model.root);
+
+		TestObservable other = new TestObservable();
+		other.addSubObservable(new IntProperty());
+		journal.replay(other);
+	}
+
+	@Test(expected = IOException.class)
+	public void whenTreeOfSameSizeIsReshaped_replayFails() throws IOException {
+		model.numbers.get(3).set(30);
+		journal.checkpoint(model.root);
+
+		TestObservable other = new TestObservable();
+		TestObservable first = new TestObservable();
+		TestObservable second = new TestObservable();
+		other.addSubObservable(first);
+		other.addSubObservable(second);
+		for (int i = 0; i < PROPERTY_COUNT; i++)
+			(i % 2 == 0 ? first : second).addSubObservable(new IntProperty());
+		other.addSubObservable(new SettableProperty<>("text"));
+		journal.replay(other);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void whenPropertyIsMovedInTree_checkpointFails() throws IOException {
+		model.numbers.get(3).set(30);
+		journal.checkpoint(model.root);
+		model.root.notifyListeners();
+		TestObservable group = (TestObservable) model.root.getChildren().iterator().next();
+		group.removeSubObservable(model.numbers.get(0));
+		model.root.addSubObservable(model.numbers.get(0));
+		model.numbers.get(4).set(40);
+		journal.checkpoint(model.root);
+	}
+
+	@Test
+	public void whenSetModelHasNoChangedFlags_itIsWrittenWhole() throws IOException {
+		TestObservable root = new TestObservable();
+		SettableObservable<TestObservable> slot = new SettableObservable<>();
+		root.addSubObservable(slot);
+		slot.set(modelWithNumber(1));
+		root.notifyListeners();
+		TestObservable replacement = modelWithNumber(5);
+		replacement.setUnchanged(true);
+
+		slot.set(replacement);
+		Assert.assertEquals(1, journal.checkpoint(root));
+		journal.close();
+
+		journal = new ChangeJournal(file, snapshot);
+		TestObservable restoredRoot = new TestObservable();
+		SettableObservable<TestObservable> restoredSlot = new SettableObservable<>();
+		restoredRoot.addSubObservable(restoredSlot);
+		TestObservable restored = modelWithNumber(1);
+		restoredSlot.set(restored);
+		restoredRoot.notifyListeners();
+		journal.replay(restoredRoot);
+
+		IntProperty number = (IntProperty) restored.getChildren().iterator().next();
+		Assert.assertEquals(5, number.getAsInt());
+	}
+
+	private static TestObservable modelWithNumber(int value) {
+		TestObservable model = new TestObservable();
+		model.addSubObservable(new IntProperty(value));
+		return model;
+	}
+
+	private static final class Model {
+		private final TestObservable root = new TestObservable();
+		private final List<IntProperty> numbers = new ArrayList<>();
+		private final SettableProperty<String> text = new SettableProperty<>("text");
+
+		private Model() {
+			TestObservable group = new TestObservable();
+			root.addSubObservable(group);
+			for (int i = 0; i < PROPERTY_COUNT; i++) {
+				IntProperty number = new IntProperty();
+				numbers.add(number);
+				group.addSubObservable(number);
+			}
+			root.addSubObservable(text);
+		}
+	}
+}
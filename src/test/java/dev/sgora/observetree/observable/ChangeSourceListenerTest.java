@@ -0,0 +1,133 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree.observable;
+
+import dev.sgora.observetree.Observable;
+import dev.sgora.observetree.listener.ChangeSourceListener;
+import dev.sgora.observetree.model.TestObservable;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class ChangeSourceListenerTest extends ObservableTestBase {
+	private final List<Set<Observable>> received = new ArrayList<>();
+	private final ChangeSourceListener sourceListener = sources -> received.add(Set.copyOf(sources));
+
+	@Test
+	public void whenDescendantsChange_theyArePassedToTheAncestorListener() {
+		TestObservable root = new TestObservable();
+		TestObservable branch = new TestObservable();
+		TestObservable other = new TestObservable();
+		root.addSubObservable(branch);
+		root.addSubObservable(other);
+		branch.addSubObservable(observable);
+		root.addSourceListener(sourceListener);
+
+		observable.setValue(VALUE_TO_SET);
+		other.setValue(VALUE_TO_SET);
+		root.notifyListeners();
+
+		assertEquals(List.of(Set.of(observable, other)), received);
+	}
+
+	@Test
+	public void eachListenerReceivesOnlyItsOwnDescendants() {
+		TestObservable root = new TestObservable();
+		TestObservable sibling = new TestObservable();
+		root.addSubObservable(observable);
+		root.addSubObservable(sibling);
+		List<Set<Observable>> siblingReceived = new ArrayList<>();
+		root.addSourceListener(sourceListener);
+		sibling.addSourceListener(sources -> siblingReceived.add(Set.copyOf(sources)));
+
+		observable.setValue(VALUE_TO_SET);
+		sibling.setValue(VALUE_TO_SET);
+		root.notifyListeners();
+
+		assertEquals(List.of(Set.of(observable, sibling)), received);
+		assertEquals(List.of(Set.of(sibling)), siblingReceived);
+	}
+
+	@Test
+	public void sourcesSharedThroughManyPaths_arePassedOnce() {
+		TestObservable root = new TestObservable();
+		TestObservable left = new TestObservable();
+		TestObservable right = new TestObservable();
+		root.addSubObservable(left);
+		root.addSubObservable(right);
+		left.addSubObservable(observable);
+		right.addSubObservable(observable);
+		root.addSourceListener(sourceListener);
+
+		observable.setValue(VALUE_TO_SET);
+		observable.notifyListeners();
+		root.setValue(VALUE_TO_SET);
+		root.notifyListeners();
+
+		assertEquals(List.of(Set.of(observable), Set.of(root)), received);
+	}
+
+	@Test
+	public void whenNotifiedRepeatedly_ancestorsAndDescendantsArePassedToTheirOwnListeners() {
+		TestObservable root = new TestObservable();
+		TestObservable branch = new TestObservable();
+		root.addSubObservable(branch);
+		branch.addSubObservable(observable);
+		List<Set<Observable>> branchReceived = new ArrayList<>();
+		root.addSourceListener(sourceListener);
+		branch.addSourceListener(sources -> branchReceived.add(Set.copyOf(sources)));
+
+		for (int i = 0; i < 3; i++) {
+			root.setValue(VALUE_TO_SET);
+			observable.setValue(VALUE_TO_SET);
+			branch.notifyListeners();
+		}
+
+		assertEquals(Collections.nCopies(3, Set.of(root, observable)), received);
+		assertEquals(Collections.nCopies(3, Set.of(observable)), branchReceived);
+	}
+
+	@Test
+	public void sourcesSharedThroughManyPaths_arePassedToAllTheirAncestors() {
+		TestObservable root = new TestObservable();
+		TestObservable left = new TestObservable();
+		TestObservable right = new TestObservable();
+		root.addSubObservable(left);
+		root.addSubObservable(right);
+		left.addSubObservable(observable);
+		right.addSubObservable(observable);
+		List<Set<Observable>> rightReceived = new ArrayList<>();
+		left.addSourceListener(sourceListener);
+		right.addSourceListener(sources -> rightReceived.add(Set.copyOf(sources)));
+
+		for (int i = 0; i < 3; i++) {
+			observable.setValue(VALUE_TO_SET);
+			root.notifyListeners();
+		}
+
+		assertEquals(Collections.nCopies(3, Set.of(observable)), received);
+		assertEquals(Collections.nCopies(3, Set.of(observable)), rightReceived);
+	}
+
+	@Test
+	public void whenSourceListenerIsRemoved_itIsNotCalled() {
+		assertTrue(observable.addSourceListener(sourceListener));
+		assertFalse(observable.addSourceListener(sourceListener));
+		assertTrue(observable.removeSourceListener(sourceListener));
+
+		observable.setValue(VALUE_TO_SET);
+		observable.notifyListeners();
+
+		assertTrue(received.isEmpty());
+	}
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree.observable;
+
+import dev.sgora.observetree.NotificationScheduler;
+import dev.sgora.observetree.Observable;
+import dev.sgora.observetree.enums.ListenerNotification;
+import dev.sgora.observetree.enums.ListenerPriority;
+import dev.sgora.observetree.listener.ChangeListener;
+import dev.sgora.observetree.model.TestObservable;
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class CoalescedNotificationTest extends ObservableTestBase {
+	private final List<Runnable> scheduled = new ArrayList<>();
+	private TestObservable parent;
+	private TestObservable sibling;
+
+	@Override
+	public void prepareObjects() {
+		super.prepareObjects();
+		Observable.setCoalescingScheduler(scheduled::add);
+		parent = new TestObservable();
+		sibling = new TestObservable();
+		parent.addSubObservable(observable);
+		parent.addSubObservable(sibling);
+		observable.setNotificationMethod(ListenerNotification.COALESCED);
+		sibling.setNotificationMethod(ListenerNotification.COALESCED);
+	}
+
+	@After
+	public void resetScheduler() {
+		Observable.setCoalescingScheduler(NotificationScheduler.manual());
+	}
+
+	@Test
+	public void burstOfChanges_isDeliveredOnce() {
+		ChangeListener parentListener = mockListener(() -> {});
+		parent.addListener(parentListener);
+		observable.addListener(listener);
+
+		for (int i = 0; i < 100; i++)
+			observable.setValue(i);
+		sibling.setValue(VALUE_TO_SET);
+		verifyListenerCalled(listener, 0);
+		assertEquals(1, scheduled.size());
+
+		scheduled.get(0).run();
+		verifyListenerCalled(listener, 1);
+		verifyListenerCalled(parentListener, 1);
+		assertFalse(parent.isValueChanged());
+		assertFalse(sibling.isValueChanged());
+	}
+
+	@Test
+	public void coalescedChanges_areDeliveredInGlobalPriorityOrder() {
+		ChangeListener highPriorityListener = mockListener(() -> {});
+		observable.addListener(listener, ListenerPriority.LOW);
+		sibling.addListener(highPriorityListener, ListenerPriority.HIGH);
+
+		observable.setValue(VALUE_TO_SET);
+		sibling.setValue(VALUE_TO_SET);
+		Observable.flushCoalescedNotifications();
+
+		InOrder inOrder = Mockito.inOrder(listener, highPriorityListener);
+		inOrder.verify(highPriorityListener).call();
+		inOrder.verify(listener).call();
+	}
+
+	@Test
+	public void afterFlush_nextChangeIsScheduledAgain() {
+		observable.addListener(listener);
+
+		observable.setValue(VALUE_TO_SET);
+		Observable.flushCoalescedNotifications();
+		observable.setValue(VALUE_TO_SET);
+		Observable.flushCoalescedNotifications();
+
+		assertEquals(2, scheduled.size());
+		verifyListenerCalled(listener, 2);
+	}
+}
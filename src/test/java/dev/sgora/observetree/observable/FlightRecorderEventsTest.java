@@ -0,0 +1,131 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree.observable;
+
+import dev.sgora.observetree.Observable;
+import dev.sgora.observetree.enums.ListenerNotification;
+import dev.sgora.observetree.listener.ChangeListener;
+import dev.sgora.observetree.model.TestObservable;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+
+public class FlightRecorderEventsTest extends ObservableTestBase {
+	private static final String NOTIFICATION = "dev.sgora.observetree.Notification";
+	private static final String SLOW_LISTENER = "dev.sgora.observetree.SlowListener";
+
+	@Test
+	public void whenRecording_notificationsAndSlowListenersAreRecorded() throws IOException {
+		Assume.assumeTrue(FlightRecorder.isAvailable());
+		TestObservable parent = new TestObservable();
+		parent.addSubObservable(observable);
+		parent.addListener(listener);
+		observable.addListener(() -> sleep(20));
+
+		List<RecordedEvent> events = record(() -> {
+			observable.setValue(VALUE_TO_SET);
+			observable.notifyListeners();
+		});
+
+		List<RecordedEvent> notifications = filter(events, NOTIFICATION);
+		assertEquals(1, notifications.size());
+		assertEquals(TestObservable.class.getName(), notifications.get(0).getClass("observableType").getName());
+		assertEquals(2, notifications.get(0).getInt("listenersFired"));
+		List<RecordedEvent> slowListeners = filter(events, SLOW_LISTENER);
+		assertEquals(1, slowListeners.size());
+		assertEquals(0, slowListeners.get(0).getInt("priority"));
+	}
+
+	@Test
+	public void whenWrappedListenerIsSlow_itsOwnClassIsRecorded() throws IOException {
+		Assume.assumeTrue(FlightRecorder.isAvailable());
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		Observable.setAsyncExecutor(executor);
+		SlowListener weakListener = new SlowListener();
+		SlowListener asyncListener = new SlowListener();
+		TestObservable asyncObservable = new TestObservable();
+		observable.addWeakListener(weakListener);
+		asyncObservable.addListener(asyncListener);
+		asyncObservable.setNotificationMethod(ListenerNotification.ASYNC);
+
+		List<RecordedEvent> events;
+		try {
+			events = record(() -> {
+				observable.setValue(VALUE_TO_SET);
+				observable.notifyListeners();
+				asyncObservable.setValue(VALUE_TO_SET);
+				executor.shutdown();
+				awaitTermination(executor);
+			});
+		} finally {
+			Observable.setAsyncExecutor(null);
+		}
+
+		List<RecordedEvent> slowListeners = filter(events, SLOW_LISTENER);
+		assertEquals(2, slowListeners.size());
+		for (RecordedEvent event : slowListeners)
+			assertEquals(SlowListener.class.getName(), event.getClass("listenerClass").getName());
+	}
+
+	private List<RecordedEvent> record(Runnable action) throws IOException {
+		Path file = Files.createTempFile("observetree", ".jfr");
+		try (Recording recording = new Recording()) {
+			recording.enable(NOTIFICATION);
+			recording.enable(SLOW_LISTENER).withThreshold(Duration.ofMillis(10));
+			recording.start();
+			action.run();
+			recording.stop();
+			recording.dump(file);
+			return RecordingFile.readAllEvents(file);
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	private static List<RecordedEvent> filter(List<RecordedEvent> events, String name) {
+		return events.stream().filter(event -> event.getEventType().getName().equals(name)).collect(Collectors.toList());
+	}
+
+	private static void awaitTermination(ExecutorService executor) {
+		try {
+			executor.awaitTermination(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static class SlowListener implements ChangeListener {
+		@Override
+		public void call() {
+			sleep(20);
+		}
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
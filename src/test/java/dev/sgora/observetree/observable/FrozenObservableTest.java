@@ -0,0 +1,152 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree.observable;
+
+import dev.sgora.observetree.ComputedProperty;
+import dev.sgora.observetree.FrozenObservable;
+import dev.sgora.observetree.IntProperty;
+import dev.sgora.observetree.SettableObservable;
+import dev.sgora.observetree.SettableProperty;
+import dev.sgora.observetree.model.ConcurrentTestObservable;
+import dev.sgora.observetree.model.TestObservable;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class FrozenObservableTest {
+	private static final int UPDATES = 10_000;
+
+	private TestObservable root;
+	private TestObservable left;
+	private TestObservable right;
+	private IntProperty first;
+	private IntProperty second;
+	private SettableProperty<String> text;
+
+	@Before
+	public void setUp() {
+		root = new TestObservable();
+		left = new TestObservable();
+		right = new TestObservable();
+		first = new IntProperty(1);
+		second = new IntProperty(1);
+		text = new SettableProperty<>("text");
+		root.addSubObservable(left);
+		root.addSubObservable(right);
+		left.addSubObservable(first);
+		left.addSubObservable(second);
+		right.addSubObservable(text);
+	}
+
+	@Test
+	public void whenTreeIsFrozen_laterChangesAreNotVisible() {
+		FrozenObservable frozen = FrozenObservable.of(root);
+		first.set(5);
+		text.set("changed");
+
+		Assert.assertEquals(TestObservable.class, frozen.getType());
+		Assert.assertNull(frozen.getValue());
+		Assert.assertEquals(2, frozen.getChildCount());
+		Assert.assertEquals(1, frozen.getChild(0).getChild(0).getValue());
+		Assert.assertEquals("text", frozen.getChild(1).getChild(0).getValue());
+		FrozenObservable refrozen = FrozenObservable.of(root);
+		Assert.assertEquals(5, refrozen.getChild(0).getChild(0).getValue());
+		Assert.assertEquals("changed", refrozen.getChild(1).getChild(0).getValue());
+	}
+
+	@Test
+	public void whenTreeIsFrozenAgain_unchangedViewsAreShared() {
+		FrozenObservable frozen = FrozenObservable.of(root);
+		Assert.assertSame(frozen, FrozenObservable.of(root));
+
+		first.set(5);
+		root.notifyListeners();
+		FrozenObservable refrozen = FrozenObservable.of(root);
+
+		Assert.assertNotSame(frozen, refrozen);
+		Assert.assertNotSame(frozen.getChild(0), refrozen.getChild(0));
+		Assert.assertSame(frozen.getChild(0).getChild(1), refrozen.getChild(0).getChild(1));
+		Assert.assertSame(frozen.getChild(1), refrozen.getChild(1));
+	}
+
+	@Test
+	public void whenChildIsAdded_parentViewIsRebuilt() {
+		FrozenObservable frozen = FrozenObservable.of(root);
+		right.addSubObservable(new IntProperty(7));
+		FrozenObservable refrozen = FrozenObservable.of(root);
+
+		Assert.assertEquals(1, frozen.getChild(1).getChildCount());
+		Assert.assertEquals(2, refrozen.getChild(1).getChildCount());
+		Assert.assertEquals(7, refrozen.getChild(1).getChild(1).getValue());
+		Assert.assertSame(frozen.getChild(0), refrozen.getChild(0));
+	}
+
+	@Test
+	public void whenObservableHasManyParents_itsViewIsShared() {
+		right.addSubObservable(first);
+		FrozenObservable frozen = FrozenObservable.of(root);
+
+		Assert.assertSame(frozen.getChild(0).getChild(0), frozen.getChild(1).getChild(1));
+	}
+
+	@Test
+	public void whenSettableObservableIsFrozen_itsValueIsModelView() {
+		SettableObservable<TestObservable> settable = new SettableObservable<>(left);
+		root.addSubObservable(settable);
+		FrozenObservable frozen = FrozenObservable.of(root);
+
+		Assert.assertSame(frozen.getChild(0), frozen.getChild(2).getValue());
+	}
+
+	@Test
+	public void whenComputedPropertyIsFrozen_itsValueIsRecomputed() {
+		ComputedProperty<Integer> sum = new ComputedProperty<>(() -> first.getAsInt() + second.getAsInt());
+		root.addSubObservable(sum);
+		Assert.assertEquals(2, FrozenObservable.of(root).getChild(2).getValue());
+
+		first.set(5);
+		FrozenObservable frozen = FrozenObservable.of(root);
+
+		Assert.assertEquals(6, frozen.getChild(2).getValue());
+		Assert.assertEquals(2, frozen.getChild(2).getChildCount());
+	}
+
+	@Test
+	public void whenTreeIsModifiedConcurrently_readersSeeConsistentSnapshots() throws InterruptedException {
+		AtomicReference<FrozenObservable> published = new AtomicReference<>(FrozenObservable.of(root));
+		AtomicBoolean running = new AtomicBoolean(true);
+		AtomicReference<String> failure = new AtomicReference<>();
+		Thread reader = new Thread(() -> {
+			while(running.get()) {
+				FrozenObservable group = published.get().getChild(0);
+				if(!group.getChild(0).getValue().equals(group.getChild(1).getValue()))
+					failure.set(group.getChild(0).getValue() + " != " + group.getChild(1).getValue());
+			}
+		});
+		reader.start();
+		for (int i = 2; i < UPDATES; i++) {
+			first.set(i);
+			second.set(i);
+			root.notifyListeners();
+			published.set(FrozenObservable.of(root));
+		}
+		running.set(false);
+		reader.join();
+
+		Assert.assertNull(failure.get());
+		Assert.assertEquals(UPDATES - 1, published.get().getChild(0).getChild(1).getValue());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void whenTreeIsConcurrent_itCannotBeFrozen() {
+		FrozenObservable.of(new ConcurrentTestObservable());
+	}
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree.observable;
+
+import dev.sgora.observetree.enums.ListenerPriority;
+import dev.sgora.observetree.listener.ChangeListener;
+import dev.sgora.observetree.model.TestObservable;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+
+public class NotificationAllocationTest extends ObservableTestBase {
+	private static final int WARMUP_ITERATIONS = 50_000;
+	private static final int MEASURED_ITERATIONS = 10_000;
+	private static final int MEASURED_ROUNDS = 5;
+
+	private int calls;
+
+	@Test
+	public void steadyStateNotification_doesNotAllocate() {
+		com.sun.management.ThreadMXBean threadBean = threadBean();
+
+		TestObservable root = buildTree();
+		for (int i = 0; i < WARMUP_ITERATIONS; i++)
+			changeAndNotify(root);
+
+		// the best of several rounds is taken to filter out one-off allocations made by the JVM itself, it has to allocate nothing at all
+		long threadId = Thread.currentThread().getId();
+		long allocated = Long.MAX_VALUE;
+		for (int round = 0; round < MEASURED_ROUNDS; round++) {
+			long before = threadBean.getThreadAllocatedBytes(threadId);
+			for (int i = 0; i < MEASURED_ITERATIONS; i++)
+				changeAndNotify(root);
+			allocated = Math.min(allocated, threadBean.getThreadAllocatedBytes(threadId) - before);
+		}
+
+		assertEquals(0, allocated);
+		assertEquals((WARMUP_ITERATIONS + MEASURED_ROUNDS * MEASURED_ITERATIONS) * 3, calls);
+	}
+
+	@Test
+	public void whenOtherTreeIsModified_cachedPlanIsKept() {
+		com.sun.management.ThreadMXBean threadBean = threadBean();
+		TestObservable root = buildTree();
+		TestObservable other = new TestObservable();
+		ChangeListener otherListener = () -> {};
+		for (int i = 0; i < WARMUP_ITERATIONS; i++)
+			changeAndNotify(root);
+
+		// a replaced plan would be allocated again by every notification
+		long threadId = Thread.currentThread().getId();
+		long allocated = Long.MAX_VALUE;
+		for (int round = 0; round < MEASURED_ROUNDS; round++) {
+			long roundAllocated = 0;
+			for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+				other.addListener(otherListener);
+				other.clearListeners();
+				observable.setValue(VALUE_TO_SET);
+				long before = threadBean.getThreadAllocatedBytes(threadId);
+				root.notifyListeners();
+				roundAllocated += threadBean.getThreadAllocatedBytes(threadId) - before;
+			}
+			allocated = Math.min(allocated, roundAllocated);
+		}
+
+		assertEquals(0, allocated);
+	}
+
+	private static com.sun.management.ThreadMXBean threadBean() {
+		Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+		com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		Assume.assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+		threadBean.setThreadAllocatedMemoryEnabled(true);
+		return threadBean;
+	}
+
+	private TestObservable buildTree() {
+		TestObservable root = new TestObservable();
+		TestObservable sibling = new TestObservable();
+		root.addSubObservable(observable);
+		root.addSubObservable(sibling);
+		root.addListener(() -> calls++, ListenerPriority.LOW);
+		observable.addListener(() -> calls++, ListenerPriority.HIGH);
+		observable.addListener(() -> calls++);
+		sibling.addListener(() -> calls++);
+		return root;
+	}
+
+	private void changeAndNotify(TestObservable root) {
+		observable.setValue(VALUE_TO_SET);
+		root.notifyListeners();
+	}
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree.observable;
+
+import dev.sgora.observetree.enums.ListenerPriority;
+import dev.sgora.observetree.listener.ChangeListener;
+import dev.sgora.observetree.model.TestObservable;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+
+public class NotificationPlanTest extends ObservableTestBase {
+	private static final int NOTIFICATIONS = 5;
+
+	private TestObservable root;
+	private TestObservable sibling;
+	private ChangeListener rootListener = mockListener(() -> {});
+	private ChangeListener siblingListener = mockListener(() -> {});
+
+	@Override
+	public void prepareObjects() {
+		super.prepareObjects();
+		root = new TestObservable();
+		sibling = new TestObservable();
+		root.addSubObservable(observable);
+		root.addSubObservable(sibling);
+		root.addListener(rootListener, ListenerPriority.LOW);
+		observable.addListener(listener);
+		sibling.addListener(siblingListener, ListenerPriority.HIGH);
+	}
+
+	@Test
+	public void whenNotifiedRepeatedly_onlyChangedListenersAreCalledInOrder() {
+		for (int i = 0; i < NOTIFICATIONS; i++) {
+			observable.setValue(VALUE_TO_SET);
+			sibling.setValue(VALUE_TO_SET);
+			root.notifyListeners();
+		}
+		observable.setValue(VALUE_TO_SET);
+		root.notifyListeners();
+
+		verifyListenerCalled(rootListener, NOTIFICATIONS + 1);
+		verifyListenerCalled(listener, NOTIFICATIONS + 1);
+		verifyListenerCalled(siblingListener, NOTIFICATIONS);
+		InOrder order = Mockito.inOrder(siblingListener, listener, rootListener);
+		order.verify(siblingListener).call();
+		order.verify(listener).call();
+		order.verify(rootListener).call();
+		Assert.assertFalse(root.isValueChanged());
+		Assert.assertFalse(observable.isValueChanged());
+	}
+
+	@Test
+	public void whenNothingChanged_noListenerIsCalled() {
+		for (int i = 0; i < NOTIFICATIONS; i++)
+			root.notifyListeners();
+
+		verifyListenerCalled(rootListener, 0);
+		verifyListenerCalled(listener, 0);
+	}
+
+	@Test
+	public void whenTreeChangesAfterRepeatedNotifications_newChildIsNotified() {
+		notifyRepeatedly();
+		TestObservable child = new TestObservable();
+		ChangeListener childListener = mockListener(() -> {});
+		child.addListener(childListener);
+		observable.addSubObservable(child);
+
+		child.setValue(VALUE_TO_SET);
+		root.notifyListeners();
+		verifyListenerCalled(childListener, 1);
+		verifyListenerCalled(rootListener, NOTIFICATIONS + 1);
+
+		root.removeSubObservable(observable);
+		child.setValue(VALUE_TO_SET);
+		root.notifyListeners();
+		verifyListenerCalled(childListener, 1);
+	}
+
+	@Test
+	public void whenTreeWithCachedPlanIsLinked_itsNewAncestorsAreNotified() {
+		TestObservable other = new TestObservable();
+		TestObservable otherChild = new TestObservable();
+		other.addSubObservable(otherChild);
+		for (int i = 0; i < NOTIFICATIONS; i++) {
+			otherChild.setValue(VALUE_TO_SET);
+			otherChild.notifyListeners();
+		}
+		observable.addSubObservable(other);
+
+		otherChild.setValue(VALUE_TO_SET);
+		otherChild.notifyListeners();
+		verifyListenerCalled(listener, 1);
+		verifyListenerCalled(rootListener, 1);
+	}
+
+	@Test
+	public void whenListenersChangeAfterRepeatedNotifications_theyAreFollowed() {
+		notifyRepeatedly();
+		ChangeListener addedListener = mockListener(() -> {});
+		observable.addListener(addedListener);
+		observable.removeListener(listener);
+
+		observable.setValue(VALUE_TO_SET);
+		root.notifyListeners();
+		verifyListenerCalled(addedListener, 1);
+		verifyListenerCalled(listener, NOTIFICATIONS);
+	}
+
+	@Test
+	public void whenListenerIsSharedByObservables_itIsCalledOnce() {
+		sibling.addListener(listener);
+		notifyRepeatedly();
+
+		sibling.setValue(VALUE_TO_SET);
+		observable.setValue(VALUE_TO_SET);
+		root.notifyListeners();
+		verifyListenerCalled(listener, NOTIFICATIONS + 1);
+	}
+
+	private void notifyRepeatedly() {
+		for (int i = 0; i < NOTIFICATIONS; i++) {
+			observable.setValue(VALUE_TO_SET);
+			root.notifyListeners();
+		}
+	}
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree.observable;
+
+import dev.sgora.observetree.FrozenObservable;
+import dev.sgora.observetree.IntProperty;
+import dev.sgora.observetree.ListChange;
+import dev.sgora.observetree.Observable;
+import dev.sgora.observetree.ObservableList;
+import dev.sgora.observetree.TestBase;
+import dev.sgora.observetree.enums.ChangeType;
+import dev.sgora.observetree.enums.ListenerNotification;
+import dev.sgora.observetree.listener.ChangeListener;
+import dev.sgora.observetree.listener.ListChangeListener;
+import dev.sgora.observetree.model.TestObservable;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class ObservableListTest extends TestBase {
+	private ObservableList<Integer> list;
+	private final List<List<ListChange<Integer>>> notifications = new ArrayList<>();
+
+	@Before
+	public void prepareObjects() {
+		super.prepareObjects();
+		list = new ObservableList<>(Arrays.asList(1, 2, 3));
+		list.addListener(listener);
+		list.addListListener(changes -> notifications.add(new ArrayList<>(changes)));
+	}
+
+	@Test
+	public void whenElementsAreAddedInSequence_singleChangeIsNotified() {
+		list.add(4);
+		list.add(5);
+		list.addAll(Arrays.asList(6, 7));
+		list.notifyListeners();
+
+		verifyListenerCalled(listener, 1);
+		Assert.assertEquals(1, notifications.size());
+		ListChange<Integer> change = notifications.get(0).get(0);
+		Assert.assertEquals(ChangeType.ADDED, change.getType());
+		Assert.assertEquals(3, change.getFrom());
+		Assert.assertEquals(7, change.getTo());
+		Assert.assertEquals(Arrays.asList(4, 5, 6, 7), change.getAdded());
+	}
+
+	@Test
+	public void whenElementsAreRemovedAndReplaced_changesAreNotifiedInOrder() {
+		list.remove(0);
+		list.set(1, 5);
+		list.notifyListeners();
+
+		List<ListChange<Integer>> changes = notifications.get(0);
+		Assert.assertEquals(2, changes.size());
+		Assert.assertEquals(ChangeType.REMOVED, changes.get(0).getType());
+		Assert.assertEquals(Collections.singletonList(1), changes.get(0).getRemoved());
+		Assert.assertEquals(ChangeType.REPLACED, changes.get(1).getType());
+		Assert.assertEquals(1, changes.get(1).getFrom());
+		Assert.assertEquals(Collections.singletonList(3), changes.get(1).getRemoved());
+		Assert.assertEquals(Collections.singletonList(5), changes.get(1).getAdded());
+		Assert.assertEquals(Arrays.asList(2, 5), list.asList());
+	}
+
+	@Test
+	public void whenElementsAreRemovedByFilter_eachRangeIsNotifiedOnce() {
+		list.addAll(Arrays.asList(4, 5, 6));
+		list.notifyListeners();
+		notifications.clear();
+
+		Assert.assertTrue(list.removeIf(element -> element != 3));
+		list.notifyListeners();
+
+		verifyListenerCalled(listener, 2);
+		List<ListChange<Integer>> changes = notifications.get(0);
+		Assert.assertEquals(2, changes.size());
+		Assert.assertEquals(Arrays.asList(1, 2), changes.get(0).getRemoved());
+		Assert.assertEquals(0, changes.get(0).getFrom());
+		Assert.assertEquals(Arrays.asList(4, 5, 6), changes.get(1).getRemoved());
+		Assert.assertEquals(1, changes.get(1).getFrom());
+		Assert.assertEquals(Collections.singletonList(3), list.asList());
+	}
+
+	@Test
+	public void whenListIsSorted_movedRangeIsReplaced() {
+		list.setAll(Arrays.asList(1, 4, 3, 2, 5));
+		list.notifyListeners();
+		notifications.clear();
+
+		list.sort(null);
+		list.notifyListeners();
+
+		ListChange<Integer> change = notifications.get(0).get(0);
+		Assert.assertEquals(ChangeType.REPLACED, change.getType());
+		Assert.assertEquals(1, change.getFrom());
+		Assert.assertEquals(Arrays.asList(4, 3, 2), change.getRemoved());
+		Assert.assertEquals(Arrays.asList(2, 3, 4), change.getAdded());
+	}
+
+	@Test
+	public void whenListIsNotModified_itIsNotMarkedChanged() {
+		list.set(0, 1);
+		list.sort(null);
+		Assert.assertFalse(list.removeIf(element -> element > 3));
+		Assert.assertFalse(list.addAll(Collections.emptyList()));
+
+		Assert.assertFalse(list.isValueChanged());
+		list.notifyListeners();
+		verifyListenerCalled(listener, 0);
+		Assert.assertTrue(notifications.isEmpty());
+	}
+
+	@Test
+	public void whenObservableElementChanges_changeIsPropagatedWithoutListChanges() {
+		ObservableList<IntProperty> properties = new ObservableList<>();
+		IntProperty property = new IntProperty(1);
+		List<ListChange<IntProperty>> received = new ArrayList<>();
+		properties.add(property);
+		properties.add(property);
+		properties.addListener(listener);
+		properties.addListListener(received::addAll);
+
+		property.set(2);
+		properties.notifyListeners();
+		verifyListenerCalled(listener, 1);
+		Assert.assertTrue(received.isEmpty());
+
+		properties.remove(0);
+		properties.notifyListeners();
+		property.set(3);
+		properties.notifyListeners();
+		verifyListenerCalled(listener, 3);
+
+		properties.remove(0);
+		properties.notifyListeners();
+		property.set(4);
+		Assert.assertFalse(properties.isValueChanged());
+		Assert.assertEquals(2, received.size());
+	}
+
+	@Test
+	public void whenListListenerIsRemoved_itIsNotCalled() {
+		ListChangeListener<Integer> listListener = changes -> Assert.fail();
+		list.addListListener(listListener);
+		Assert.assertFalse(list.addListListener(listListener));
+		Assert.assertTrue(list.removeListListener(listListener));
+		Assert.assertFalse(list.removeListListener(listListener));
+
+		list.clearListeners();
+		list.add(4);
+		list.notifyListeners();
+		Assert.assertTrue(notifications.isEmpty());
+	}
+
+	@Test
+	public void whenElementCannotBeLinked_listIsNotModified() {
+		ObservableList<Observable> parent = new ObservableList<>();
+		ObservableList<Observable> child = new ObservableList<>();
+		IntProperty property = new IntProperty();
+		parent.add(child);
+		child.add(property);
+		Observable.setCycleDetection(true);
+		try {
+			Assert.assertThrows(IllegalArgumentException.class, () -> child.add(parent));
+			Assert.assertThrows(IllegalArgumentException.class, () -> child.set(0, parent));
+			IntProperty added = new IntProperty();
+			Assert.assertThrows(IllegalArgumentException.class, () -> child.addAll(Arrays.asList(added, parent)));
+
+			Assert.assertEquals(Collections.singletonList(property), child.asList());
+			Assert.assertEquals(Collections.singleton(property), child.getChildren());
+			Assert.assertTrue(added.getParents().isEmpty());
+			child.add(added);
+			Assert.assertEquals(Arrays.asList(property, added), child.asList());
+		} finally {
+			Observable.setCycleDetection(false);
+		}
+	}
+
+	@Test
+	public void whenChangedElementsAreAdded_listenerIsCalledOncePerModification() {
+		ObservableList<IntProperty> properties = new ObservableList<>();
+		properties.setNotificationMethod(ListenerNotification.AUTOMATIC);
+		properties.addListener(listener);
+
+		properties.addAll(changedProperties(5));
+		verifyListenerCalled(listener, 1);
+		properties.setAll(changedProperties(5));
+		verifyListenerCalled(listener, 2);
+
+		ObservableList<IntProperty> constructed = new ObservableList<>(changedProperties(5));
+		Assert.assertTrue(constructed.isValueChanged());
+		TestObservable parent = new TestObservable();
+		parent.setNotificationMethod(ListenerNotification.AUTOMATIC);
+		ChangeListener parentListener = mockListener(() -> {});
+		parent.addListener(parentListener);
+		parent.addSubObservable(constructed);
+		verifyListenerCalled(parentListener, 1);
+	}
+
+	@Test
+	public void whenListIsFrozen_elementsAreCopied() {
+		FrozenObservable frozen = FrozenObservable.of(list);
+		list.add(4);
+
+		Assert.assertEquals(Arrays.asList(1, 2, 3), frozen.getValue());
+		Assert.assertEquals(Arrays.asList(1, 2, 3, 4), FrozenObservable.of(list).getValue());
+	}
+
+	private static List<IntProperty> changedProperties(int count) {
+		List<IntProperty> properties = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			IntProperty property = new IntProperty();
+			property.set(i + 1);
+			properties.add(property);
+		}
+		return properties;
+	}
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree.observable;
+
+import dev.sgora.observetree.FrozenObservable;
+import dev.sgora.observetree.IntProperty;
+import dev.sgora.observetree.MapChange;
+import dev.sgora.observetree.Observable;
+import dev.sgora.observetree.ObservableMap;
+import dev.sgora.observetree.TestBase;
+import dev.sgora.observetree.enums.ChangeType;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ObservableMapTest extends TestBase {
+	private ObservableMap<String, Integer> map;
+	private final List<List<MapChange<String, Integer>>> notifications = new ArrayList<>();
+
+	@Before
+	public void prepareObjects() {
+		super.prepareObjects();
+		map = new ObservableMap<>(Collections.singletonMap("a", 1));
+		map.addListener(listener);
+		map.addMapListener(changes -> notifications.add(new ArrayList<>(changes)));
+	}
+
+	@Test
+	public void whenEntriesArePut_changesAreNotified() {
+		Map<String, Integer> added = new LinkedHashMap<>();
+		added.put("a", 2);
+		added.put("b", 3);
+		map.putAll(added);
+		map.notifyListeners();
+
+		verifyListenerCalled(listener, 1);
+		List<MapChange<String, Integer>> changes = notifications.get(0);
+		Assert.assertEquals(2, changes.size());
+		Assert.assertEquals(ChangeType.REPLACED, changes.get(0).getType());
+		Assert.assertEquals(Integer.valueOf(1), changes.get(0).getOldValue());
+		Assert.assertEquals(Integer.valueOf(2), changes.get(0).getNewValue());
+		Assert.assertEquals(ChangeType.ADDED, changes.get(1).getType());
+		Assert.assertEquals("b", changes.get(1).getKey());
+		Assert.assertNull(changes.get(1).getOldValue());
+	}
+
+	@Test
+	public void whenKeyIsChangedRepeatedly_changesAreCoalesced() {
+		map.put("b", 2);
+		map.remove("b");
+		map.put("a", 5);
+		map.put("a", 1);
+		map.notifyListeners();
+		Assert.assertTrue(notifications.isEmpty());
+
+		map.put("a", 2);
+		map.remove("a");
+		map.notifyListeners();
+		MapChange<String, Integer> change = notifications.get(0).get(0);
+		Assert.assertEquals(ChangeType.REMOVED, change.getType());
+		Assert.assertEquals(Integer.valueOf(1), change.getOldValue());
+		Assert.assertNull(change.getNewValue());
+	}
+
+	@Test
+	public void whenEntriesAreRemovedByFilter_mapIsChangedOnce() {
+		map.put("b", 2);
+		map.put("c", 3);
+		map.notifyListeners();
+		notifications.clear();
+
+		Assert.assertTrue(map.removeIf((key, value) -> value > 1));
+		Assert.assertFalse(map.removeIf((key, value) -> value > 1));
+		map.notifyListeners();
+
+		verifyListenerCalled(listener, 2);
+		Assert.assertEquals(2, notifications.get(0).size());
+		Assert.assertEquals(Collections.singletonMap("a", 1), map.asMap());
+	}
+
+	@Test
+	public void whenObservableValueIsReplaced_itIsUnlinked() {
+		ObservableMap<String, IntProperty> properties = new ObservableMap<>();
+		IntProperty first = new IntProperty(1);
+		properties.put("a", first);
+		properties.put("b", first);
+		properties.put("a", new IntProperty(2));
+		properties.notifyListeners();
+
+		first.set(2);
+		Assert.assertTrue(properties.isValueChanged());
+		properties.notifyListeners();
+
+		properties.remove("b");
+		properties.notifyListeners();
+		first.set(3);
+		Assert.assertFalse(properties.isValueChanged());
+	}
+
+	@Test
+	public void whenValueCannotBeLinked_mapIsNotModified() {
+		ObservableMap<String, Observable> parent = new ObservableMap<>();
+		ObservableMap<String, Observable> child = new ObservableMap<>();
+		IntProperty property = new IntProperty();
+		parent.put("child", child);
+		child.put("a", property);
+		Observable.setCycleDetection(true);
+		try {
+			Assert.assertThrows(IllegalArgumentException.class, () -> child.put("a", parent));
+			Assert.assertThrows(IllegalArgumentException.class, () -> child.put("b", parent));
+
+			Assert.assertEquals(Collections.singletonMap("a", property), child.asMap());
+			Assert.assertEquals(Collections.singleton(property), child.getChildren());
+		} finally {
+			Observable.setCycleDetection(false);
+		}
+	}
+
+	@Test
+	public void whenMapIsFrozen_entriesAreCopied() {
+		FrozenObservable frozen = FrozenObservable.of(map);
+		map.put("b", 2);
+
+		Assert.assertEquals(Collections.singletonMap("a", 1), frozen.getValue());
+		Assert.assertEquals(2, ((Map<?, ?>) FrozenObservable.of(map).getValue()).size());
+	}
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree.observable;
+
+import dev.sgora.observetree.Observable;
+import dev.sgora.observetree.ObservableMetrics;
+import dev.sgora.observetree.enums.ListenerNotification;
+import dev.sgora.observetree.listener.ChangeListener;
+import dev.sgora.observetree.model.TestObservable;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ObservableMetricsTest extends ObservableTestBase {
+	private final RecordingMetrics metrics = new RecordingMetrics();
+
+	@After
+	public void resetMetrics() {
+		Observable.setDefaultMetrics(ObservableMetrics.NONE);
+	}
+
+	@Test
+	public void whenValueIsChanged_visitedAncestorsAreReported() {
+		TestObservable root = new TestObservable();
+		TestObservable parent = new TestObservable();
+		root.addSubObservable(parent);
+		parent.addSubObservable(observable);
+		Observable.setDefaultMetrics(metrics);
+
+		observable.setValue(VALUE_TO_SET);
+		observable.setValue(VALUE_TO_SET);
+
+		assertEquals(List.of(2, 0), metrics.ancestorsVisited);
+	}
+
+	@Test
+	public void whenOtherTreeIsNotified_repeatedChangeDoesNotVisitAncestors() {
+		TestObservable root = new TestObservable();
+		TestObservable parent = new TestObservable();
+		root.addSubObservable(parent);
+		parent.addSubObservable(observable);
+		TestObservable otherRoot = new TestObservable();
+		TestObservable otherChild = new TestObservable();
+		otherRoot.addSubObservable(otherChild);
+		Observable.setDefaultMetrics(metrics);
+
+		observable.setValue(VALUE_TO_SET);
+		otherChild.setValue(VALUE_TO_SET);
+		otherRoot.notifyListeners();
+		otherRoot.addSubObservable(new TestObservable());
+		observable.setValue(VALUE_TO_SET);
+
+		assertEquals(List.of(2, 1, 0), metrics.ancestorsVisited);
+	}
+
+	@Test
+	public void whenListenersAreNotified_theNotificationIsReported() {
+		TestObservable parent = new TestObservable();
+		parent.addSubObservable(observable);
+		parent.addListener(listener);
+		observable.addListener(listener);
+		observable.addListener(() -> {});
+		parent.setMetrics(metrics);
+
+		observable.setValue(VALUE_TO_SET);
+		observable.notifyListeners();
+
+		assertEquals(1, metrics.notifications.size());
+		int[] notification = metrics.notifications.get(0);
+		assertEquals(3, notification[0]); // the source is visited both upwards and downwards
+		assertEquals(3, notification[1]);
+		assertEquals(2, notification[2]);
+	}
+
+	@Test
+	public void whenCoalescedChangesAreFlushed_theTreeMetricsAreReported() {
+		TestObservable parent = new TestObservable();
+		parent.addSubObservable(observable);
+		parent.addListener(listener);
+		parent.setMetrics(metrics);
+		observable.setNotificationMethod(ListenerNotification.COALESCED);
+
+		observable.setValue(VALUE_TO_SET);
+		Observable.flushCoalescedNotifications();
+
+		verifyListenerCalled(listener, 1);
+		assertEquals(1, metrics.notifications.size());
+		assertEquals(1, metrics.notifications.get(0)[2]);
+	}
+
+	@Test
+	public void metricsInstalledOnTree_areInheritedByNewChildren() {
+		TestObservable parent = new TestObservable();
+		parent.setMetrics(metrics);
+		parent.addSubObservable(observable);
+
+		assertSame(metrics, observable.getMetrics());
+		observable.addListener(listener);
+		observable.removeListener(listener);
+		assertEquals(List.of(listener, listener), metrics.listenerChanges);
+	}
+
+	@Test
+	public void withoutMetrics_nothingIsReported() {
+		Observable.setDefaultMetrics(metrics);
+		observable.setMetrics(ObservableMetrics.NONE);
+
+		observable.addListener(listener);
+		observable.setValue(VALUE_TO_SET);
+		observable.notifyListeners();
+
+		assertTrue(metrics.ancestorsVisited.isEmpty());
+		assertTrue(metrics.notifications.isEmpty());
+		assertTrue(metrics.listenerChanges.isEmpty());
+	}
+
+	private static class RecordingMetrics implements ObservableMetrics {
+		private final List<Integer> ancestorsVisited = new ArrayList<>();
+		private final List<int[]> notifications = new ArrayList<>();
+		private final List<ChangeListener> listenerChanges = new ArrayList<>();
+
+		@Override
+		public void onValueChanged(Observable source, int ancestorsVisited) {
+			this.ancestorsVisited.add(ancestorsVisited);
+		}
+
+		@Override
+		public void onNotification(Observable source, int nodesTraversed, int listenersCollected, int listenersInvoked, long nanos) {
+			notifications.add(new int[] {nodesTraversed, listenersCollected, listenersInvoked});
+		}
+
+		@Override
+		public void onListenerAdded(Observable observable, ChangeListener listener) {
+			listenerChanges.add(listener);
+		}
+
+		@Override
+		public void onListenerRemoved(Observable observable, ChangeListener listener) {
+			listenerChanges.add(listener);
+		}
+	}
+}
@@ -89,4 +89,60 @@ public class ObservableTest extends ObservableTestBase {
 		assertFalse(observable.addListener(listener));
 	}
 
+	@Test
+	public void listenersWithTheSamePriority_areCalledInOrderOfAdding() {
+		ChangeListener secondListener = mockListener(() -> {});
+		ChangeListener thirdListener = mockListener(() -> {});
+		observable.addListener(listener);
+		observable.addListener(secondListener);
+		observable.addListener(thirdListener);
+
+		observable.setValue(VALUE_TO_SET);
+		observable.notifyListeners();
+		InOrder inOrder = Mockito.inOrder(listener, secondListener, thirdListener);
+		inOrder.verify(listener).call();
+		inOrder.verify(secondListener).call();
+		inOrder.verify(thirdListener).call();
+	}
+
+	@Test
+	public void whenListenerRemovesItselfDuringNotification_itIsUnregistered() {
+		ChangeListener[] selfRemoving = new ChangeListener[1];
+		selfRemoving[0] = mockListener(() -> observable.removeListener(selfRemoving[0]));
+		observable.addListener(selfRemoving[0]);
+		observable.addListener(listener);
+
+		observable.setValue(VALUE_TO_SET);
+		observable.notifyListeners();
+		observable.setValue(VALUE_TO_SET);
+		observable.notifyListeners();
+		verifyListenerCalled(selfRemoving[0], 1);
+		verifyListenerCalled(listener, 2);
+	}
+
+	@Test
+	public void whenManyListenersAreAddedAndRemoved_theRestIsCalledInOrder() {
+		ChangeListener[] listeners = new ChangeListener[20];
+		for (int i = 0; i < listeners.length; i++) {
+			listeners[i] = mockListener(() -> {});
+			assertTrue(observable.addListener(listeners[i], i % 2 == 0 ? ListenerPriority.NORMAL : ListenerPriority.HIGH));
+			assertFalse(observable.addListener(listeners[i]));
+		}
+		for (int i = 0; i < listeners.length; i += 3)
+			assertTrue(observable.removeListener(listeners[i]));
+		assertFalse(observable.removeListener(listeners[0]));
+
+		observable.setValue(VALUE_TO_SET);
+		observable.notifyListeners();
+		InOrder inOrder = Mockito.inOrder((Object[]) listeners);
+		for (int priority = 1; priority >= 0; priority--) {
+			for (int i = priority; i < listeners.length; i += 2) {
+				if(i % 3 != 0)
+					inOrder.verify(listeners[i]).call();
+			}
+		}
+		for (int i = 0; i < listeners.length; i += 3)
+			verifyListenerCalled(listeners[i], 0);
+	}
+
 }
@@ -7,6 +7,8 @@
 
 package dev.sgora.observetree.observable;
 
+import dev.sgora.observetree.Observable;
+import dev.sgora.observetree.ObservableMetrics;
 import dev.sgora.observetree.model.TestObservable;
 import dev.sgora.observetree.enums.ListenerNotification;
 import dev.sgora.observetree.enums.ListenerPriority;
@@ -16,7 +18,11 @@ import org.junit.Test;
 import org.mockito.InOrder;
 import org.mockito.Mockito;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class ObservableTreeTest extends ObservableTestBase {
 	private TestObservable parent;
@@ -62,6 +68,25 @@ public class ObservableTreeTest extends ObservableTestBase {
 		Assert.assertEquals(Collections.emptySet(), parent.getChildren());
 	}
 
+	@Test
+	public void whenChildrenAreAddedAndRemoved_theViewFollowsThem() {
+		Set<Observable> children = parent.getChildren();
+		List<TestObservable> added = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			TestObservable child = new TestObservable();
+			parent.addSubObservable(child);
+			added.add(child);
+		}
+		Assert.assertEquals(21, children.size());
+		Assert.assertTrue(children.containsAll(added));
+
+		for (TestObservable child : added)
+			parent.removeSubObservable(child);
+		Assert.assertEquals(Collections.singleton(observable), children);
+		parent.removeSubObservable(observable);
+		Assert.assertTrue(children.isEmpty());
+	}
+
 	@Test
 	public void whenParentObservableIsRemoved_itsListenerIsNotCalled() {
 		parent.addListener(listener);
@@ -138,4 +163,132 @@ public class ObservableTreeTest extends ObservableTestBase {
 		verifyListenerCalled(listener, 0);
 		verifyListenerCalled(childListener, 1);
 	}
+
+	@Test
+	public void whenSharedChildIsChanged_commonAncestorListenerIsCalledOnce() {
+		TestObservable secondParent = new TestObservable();
+		TestObservable root = new TestObservable();
+		root.addSubObservable(parent);
+		root.addSubObservable(secondParent);
+		secondParent.addSubObservable(observable);
+		root.addListener(listener);
+
+		observable.setValue(VALUE_TO_SET);
+		observable.setValue(VALUE_TO_SET);
+		Assert.assertTrue(secondParent.isValueChanged());
+		observable.notifyListeners();
+		verifyListenerCalled(listener, 1);
+	}
+
+	@Test
+	public void whenAncestorWasResetBySibling_repeatedChangeReachesIt() {
+		TestObservable root = new TestObservable();
+		TestObservable sibling = new TestObservable();
+		root.addSubObservable(parent);
+		root.addSubObservable(sibling);
+		root.addListener(listener);
+
+		observable.setValue(VALUE_TO_SET);
+		sibling.setValue(VALUE_TO_SET);
+		sibling.notifyListeners();
+		Assert.assertFalse(root.isValueChanged());
+		Assert.assertTrue(parent.isValueChanged());
+
+		observable.setValue(VALUE_TO_SET);
+		Assert.assertTrue(root.isValueChanged());
+		observable.notifyListeners();
+		verifyListenerCalled(listener, 2);
+	}
+
+	@Test
+	public void whenAutomaticParentIsChangedRepeatedly_itsListenerIsCalledEachTime() {
+		parent.setNotificationMethod(ListenerNotification.AUTOMATIC);
+		parent.addListener(listener);
+
+		observable.setValue(VALUE_TO_SET);
+		observable.setValue(VALUE_TO_SET);
+		verifyListenerCalled(listener, 2);
+	}
+
+	@Test
+	public void whenSubtreeIsSharedByManyPaths_itIsVisitedOnce() {
+		TestObservable root = buildLayeredDiamond(20);
+		AtomicInteger nodesTraversed = new AtomicInteger();
+		root.setMetrics(new ObservableMetrics() {
+			@Override
+			public void onNotification(Observable source, int nodes, int listenersCollected, int listenersInvoked, long nanos) {
+				nodesTraversed.set(nodes);
+			}
+		});
+
+		root.setValue(VALUE_TO_SET);
+		root.notifyListeners();
+
+		// the root is visited in both directions
+		Assert.assertEquals(1 + 1 + 20 * 2, nodesTraversed.get());
+	}
+
+	@Test
+	public void whenCycleDetectionIsEnabled_cyclesAreRejected() {
+		TestObservable root = new TestObservable();
+		root.addSubObservable(parent);
+		Observable.setCycleDetection(true);
+		try {
+			Assert.assertThrows(IllegalArgumentException.class, () -> observable.addSubObservable(root));
+			Assert.assertThrows(IllegalArgumentException.class, () -> observable.addSubObservable(observable));
+			Assert.assertTrue(root.getParents().isEmpty());
+
+			TestObservable child = new TestObservable();
+			observable.addSubObservable(child);
+			root.addSubObservable(child);
+			Assert.assertEquals(Set.of(observable, root), child.getParents());
+		} finally {
+			Observable.setCycleDetection(false);
+		}
+	}
+
+	private static TestObservable buildLayeredDiamond(int layers) {
+		TestObservable root = new TestObservable();
+		List<TestObservable> layer = List.of(root);
+		for (int i = 0; i < layers; i++) {
+			TestObservable left = new TestObservable();
+			TestObservable right = new TestObservable();
+			for (TestObservable node : layer) {
+				node.addSubObservable(left);
+				node.addSubObservable(right);
+			}
+			layer = List.of(left, right);
+		}
+		return root;
+	}
+
+	@Test
+	public void millionDeepChain_isTraversedWithoutStackOverflow() {
+		int depth = 1_000_000;
+		TestObservable root = new TestObservable();
+		TestObservable leaf = root;
+		for (int i = 1; i < depth; i++) {
+			TestObservable child = new TestObservable();
+			leaf.addSubObservable(child);
+			leaf = child;
+		}
+		root.addListener(listener);
+		leaf.addListener(parentListener);
+
+		leaf.setValue(VALUE_TO_SET);
+		Assert.assertTrue(root.isValueChanged());
+		leaf.notifyListeners();
+		Assert.assertFalse(root.isValueChanged());
+
+		leaf.setValue(VALUE_TO_SET);
+		root.notifyListeners();
+		Assert.assertFalse(leaf.isValueChanged());
+
+		leaf.setValue(VALUE_TO_SET);
+		root.setUnchanged(true);
+		Assert.assertFalse(leaf.isValueChanged());
+
+		verifyListenerCalled(listener, 2);
+		verifyListenerCalled(parentListener, 2);
+	}
 }
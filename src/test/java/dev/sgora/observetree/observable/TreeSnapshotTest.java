@@ -0,0 +1,265 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree.observable;
+
+import dev.sgora.observetree.IntProperty;
+import dev.sgora.observetree.LongProperty;
+import dev.sgora.observetree.Observable;
+import dev.sgora.observetree.SettableObservable;
+import dev.sgora.observetree.SettableProperty;
+import dev.sgora.observetree.SnapshotInput;
+import dev.sgora.observetree.SnapshotOutput;
+import dev.sgora.observetree.TreeSnapshot;
+import dev.sgora.observetree.ValueCodec;
+import dev.sgora.observetree.model.TestObservable;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TreeSnapshotTest extends ObservableTestBase {
+	private static final int CHAIN_LENGTH = 100_000;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final TreeSnapshot snapshot = new TreeSnapshot()
+			.registerNode(TestObservable.class, TestObservable::new)
+			.registerValue(Point.class, new PointCodec());
+
+	@Test
+	public void whenTreeIsRestored_structureAndValuesAreRebuilt() throws IOException {
+		TestObservable root = new TestObservable();
+		TestObservable left = new TestObservable();
+		TestObservable right = new TestObservable();
+		LongProperty shared = new LongProperty(7);
+		IntProperty number = new IntProperty(5);
+		number.setDefaultValue(3);
+		SettableProperty<String> text = new SettableProperty<>("text");
+		SettableProperty<Point> point = new SettableProperty<>(new Point(1, 2));
+		root.addSubObservable(left);
+		root.addSubObservable(right);
+		left.addSubObservable(shared);
+		right.addSubObservable(shared);
+		left.addSubObservable(number);
+		right.addSubObservable(text);
+		right.addSubObservable(point);
+
+		Observable restored = snapshot.read(Channels.newChannel(new ByteArrayInputStream(write(root))));
+
+		Assert.assertTrue(restored instanceof TestObservable);
+		List<Observable> children = new ArrayList<>(restored.getChildren());
+		Assert.assertEquals(2, children.size());
+		Observable restoredLeft = children.get(0);
+		Observable restoredRight = children.get(1);
+		LongProperty restoredShared = find(restoredLeft, LongProperty.class);
+		Assert.assertSame(restoredShared, find(restoredRight, LongProperty.class));
+		Assert.assertEquals(7, restoredShared.getAsLong());
+		Assert.assertEquals(2, restoredShared.getParents().size());
+		IntProperty restoredNumber = find(restoredLeft, IntProperty.class);
+		Assert.assertEquals(5, restoredNumber.getAsInt());
+		Assert.assertEquals(3, restoredNumber.getDefaultValue());
+		List<Object> values = new ArrayList<>();
+		for (Observable child : restoredRight.getChildren()) {
+			if(child instanceof SettableProperty)
+				values.add(((SettableProperty<?>) child).get());
+		}
+		Assert.assertEquals(List.of("text", new Point(1, 2)), values);
+	}
+
+	@Test
+	public void whenTreeIsRestored_listenersCanBeAddedAndNoChangeIsMarked() throws IOException {
+		TestObservable root = new TestObservable();
+		SettableObservable<SettableProperty<Integer>> settable = new SettableObservable<>(new SettableProperty<>(1));
+		root.addSubObservable(settable);
+
+		Observable restored = snapshot.read(Channels.newChannel(new ByteArrayInputStream(write(root))));
+		SettableObservable<SettableProperty<Integer>> restoredSettable = find(restored, SettableObservable.class);
+
+		Assert.assertFalse(restored.isValueChanged());
+		Assert.assertEquals(1, (int) restoredSettable.get().get());
+		Assert.assertTrue(restored.getChildren().contains(restoredSettable.get()));
+		restored.addListener(listener);
+		restoredSettable.get().set(VALUE_TO_SET);
+		restored.notifyListeners();
+		verifyListenerCalled(listener, 1);
+	}
+
+	@Test
+	public void whenModelValueIsWrittenBeforeSettableObservable_itIsRestoredOnce() throws IOException {
+		TestObservable root = new TestObservable();
+		SettableProperty<Integer> modelValue = new SettableProperty<>(1);
+		root.addSubObservable(modelValue);
+		root.addSubObservable(new SettableObservable<>(modelValue));
+
+		Observable restored = snapshot.read(Channels.newChannel(new ByteArrayInputStream(write(root))));
+		SettableObservable<SettableProperty<Integer>> restoredSettable = find(restored, SettableObservable.class);
+
+		Assert.assertEquals(2, restored.getChildren().size());
+		Assert.assertSame(find(restored, SettableProperty.class), restoredSettable.get());
+	}
+
+	@Test
+	public void whenDeepTreeIsWrittenToFile_itIsRestored() throws IOException {
+		TestObservable root = new TestObservable();
+		TestObservable node = root;
+		for (int i = 1; i < CHAIN_LENGTH; i++) {
+			TestObservable child = new TestObservable();
+			node.addSubObservable(child);
+			node = child;
+		}
+		node.addSubObservable(new IntProperty(VALUE_TO_SET));
+		Path file = folder.newFile().toPath();
+		snapshot.write(root, file);
+
+		Observable restored = snapshot.read(file);
+		int depth = 0;
+		while(!restored.getChildren().isEmpty()) {
+			restored = restored.getChildren().iterator().next();
+			depth++;
+		}
+		Assert.assertEquals(CHAIN_LENGTH, depth);
+		Assert.assertEquals(VALUE_TO_SET, ((IntProperty) restored).getAsInt());
+	}
+
+	@Test
+	public void whenModelCreatesItsProperties_theyAreFilledIn() throws IOException {
+		TreeSnapshot modelSnapshot = new TreeSnapshot()
+				.registerNode(Person.class, Person::new)
+				.registerNode(Address.class, Address::new);
+		Person person = new Person();
+		person.name.set("name");
+		person.age.set(42);
+		person.address.city.set("city");
+		LongProperty added = new LongProperty(7);
+		person.addSubObservable(added);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		modelSnapshot.write(person, Channels.newChannel(bytes));
+
+		Person restored = (Person) modelSnapshot.read(Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray())));
+
+		Assert.assertEquals(4, restored.getChildren().size());
+		Assert.assertEquals("name", restored.name.get());
+		Assert.assertEquals(42, restored.age.getAsInt());
+		Assert.assertEquals(1, restored.address.getChildren().size());
+		Assert.assertEquals("city", restored.address.city.get());
+		Assert.assertEquals(7, ((LongProperty) find(restored, LongProperty.class)).getAsLong());
+		Assert.assertFalse(restored.isValueChanged());
+		restored.addListener(listener);
+		restored.address.city.set("other");
+		restored.notifyListeners();
+		verifyListenerCalled(listener, 1);
+	}
+
+	@Test(expected = IOException.class)
+	public void whenFactoryCreatesDifferentChildren_readFails() throws IOException {
+		TestObservable root = new TestObservable();
+		root.addSubObservable(new IntProperty(VALUE_TO_SET));
+		TreeSnapshot modelSnapshot = new TreeSnapshot().registerNode(TestObservable.class, TestObservable::new);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		modelSnapshot.write(root, Channels.newChannel(bytes));
+		modelSnapshot.registerNode(TestObservable.class, () -> {
+			TestObservable created = new TestObservable();
+			created.addSubObservable(new LongProperty());
+			return created;
+		});
+
+		modelSnapshot.read(Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray())));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void whenClassIsNotRegistered_writeFails() throws IOException {
+		new TreeSnapshot().write(observable, Channels.newChannel(new ByteArrayOutputStream()));
+	}
+
+	@Test(expected = IOException.class)
+	public void whenDataIsNotSnapshot_readFails() throws IOException {
+		snapshot.read(Channels.newChannel(new ByteArrayInputStream(new byte[] {1, 2, 3, 4, 5})));
+	}
+
+	private byte[] write(Observable root) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		snapshot.write(root, Channels.newChannel(bytes));
+		return bytes.toByteArray();
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T find(Observable parent, Class<?> type) {
+		for (Observable child : parent.getChildren()) {
+			if(type.isInstance(child))
+				return (T) child;
+		}
+		throw new AssertionError("No child of type " + type.getSimpleName());
+	}
+
+	private static final class Person extends Observable {
+		private final SettableProperty<String> name = new SettableProperty<>();
+		private final IntProperty age = new IntProperty();
+		private final Address address = new Address();
+
+		private Person() {
+			addSubObservable(name);
+			addSubObservable(age);
+			addSubObservable(address);
+		}
+
+		@Override
+		protected void addSubObservable(Observable observable) {
+			super.addSubObservable(observable);
+		}
+	}
+
+	private static final class Address extends Observable {
+		private final SettableProperty<String> city = new SettableProperty<>();
+
+		private Address() {
+			addSubObservable(city);
+		}
+	}
+
+	private static final class Point {
+		private final int x;
+		private final int y;
+
+		private Point(int x, int y) {
+			this.x = x;
+			this.y = y;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof Point && ((Point) o).x == x && ((Point) o).y == y;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * x + y;
+		}
+	}
+
+	private static final class PointCodec implements ValueCodec<Point> {
+		@Override
+		public void write(Point value, SnapshotOutput output) throws IOException {
+			output.putInt(value.x);
+			output.putInt(value.y);
+		}
+
+		@Override
+		public Point read(SnapshotInput input) throws IOException {
+			return new Point(input.getInt(), input.getInt());
+		}
+	}
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree.observable;
+
+import dev.sgora.observetree.Observable;
+import dev.sgora.observetree.ObservableMetrics;
+import dev.sgora.observetree.SettableObservable;
+import dev.sgora.observetree.listener.ChangeListener;
+import dev.sgora.observetree.model.TestObservable;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class WeakListenerTest extends ObservableTestBase {
+	private final AtomicInteger removed = new AtomicInteger();
+	private final ObservableMetrics removalCounter = new ObservableMetrics() {
+		@Override
+		public void onListenerRemoved(Observable observable, ChangeListener listener) {
+			removed.incrementAndGet();
+		}
+	};
+
+	@Test
+	public void whileListenerIsReachable_itIsCalled() {
+		assertTrue(observable.addWeakListener(listener));
+		assertFalse(observable.addWeakListener(listener));
+
+		observable.setValue(VALUE_TO_SET);
+		observable.notifyListeners();
+
+		verifyListenerCalled(listener, 1);
+	}
+
+	@Test
+	public void weakListener_canBeRemovedLikeAnyOther() {
+		observable.addWeakListener(listener);
+
+		assertTrue(observable.removeListener(listener));
+		observable.setValue(VALUE_TO_SET);
+		observable.notifyListeners();
+
+		verifyListenerCalled(listener, 0);
+	}
+
+	@Test
+	public void whenListenerIsCollected_itIsRemoved() {
+		observable.setMetrics(removalCounter);
+		AtomicInteger calls = new AtomicInteger();
+		WeakReference<ChangeListener> reference = register(observable, calls);
+		collect(reference);
+
+		observable.setValue(VALUE_TO_SET);
+		observable.notifyListeners();
+
+		assertEquals(0, calls.get());
+		assertEquals(1, removed.get());
+	}
+
+	@Test
+	public void whenListenerIsCollected_itIsOnlyRemovedByItsObservable() {
+		observable.setMetrics(removalCounter);
+		TestObservable other = new TestObservable();
+		other.addWeakListener(listener);
+		WeakReference<ChangeListener> reference = register(observable, new AtomicInteger());
+		collect(reference);
+
+		other.setValue(VALUE_TO_SET);
+		other.notifyListeners();
+		assertEquals(0, removed.get());
+		observable.setValue(VALUE_TO_SET);
+		observable.notifyListeners();
+		assertEquals(1, removed.get());
+	}
+
+	@Test
+	public void manyWeakListeners_areFoundByTheirListener() {
+		AtomicInteger calls = new AtomicInteger();
+		List<ChangeListener> listeners = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			ChangeListener weakListener = calls::incrementAndGet;
+			listeners.add(weakListener);
+			assertTrue(observable.addWeakListener(weakListener));
+		}
+
+		for (ChangeListener weakListener : listeners)
+			assertFalse(observable.addWeakListener(weakListener));
+		for (ChangeListener weakListener : listeners)
+			assertTrue(observable.removeListener(weakListener));
+		observable.setValue(VALUE_TO_SET);
+		observable.notifyListeners();
+
+		assertEquals(0, calls.get());
+	}
+
+	@Test
+	public void whenStaticListenerIsCollected_itIsRemovedFromTheValue() {
+		TestObservable value = new TestObservable();
+		SettableObservable<TestObservable> settable = new SettableObservable<>(value);
+		value.setMetrics(removalCounter);
+		AtomicInteger calls = new AtomicInteger();
+		WeakReference<ChangeListener> reference = registerStatic(settable, calls);
+		collect(reference);
+
+		value.setValue(VALUE_TO_SET);
+		value.notifyListeners();
+
+		assertEquals(0, calls.get());
+		assertEquals(1, removed.get());
+	}
+
+	private static WeakReference<ChangeListener> register(Observable observable, AtomicInteger calls) {
+		ChangeListener listener = calls::incrementAndGet;
+		observable.addWeakListener(listener);
+		return new WeakReference<>(listener);
+	}
+
+	private static WeakReference<ChangeListener> registerStatic(SettableObservable<?> settable, AtomicInteger calls) {
+		ChangeListener listener = calls::incrementAndGet;
+		settable.addWeakStaticListener(listener);
+		return new WeakReference<>(listener);
+	}
+
+	private static void collect(WeakReference<?> reference) {
+		for (int i = 0; i < 50 && reference.get() != null; i++) {
+			System.gc();
+			Thread.yield();
+		}
+		Assume.assumeTrue(reference.get() == null);
+	}
+}
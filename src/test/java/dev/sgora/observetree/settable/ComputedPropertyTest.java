@@ -0,0 +1,150 @@
+/*
+ * Copyright 2019 Stanisław Góra
+ *
+ * This file is part of Observetree library which is released under MIT License.
+ * See LICENSE file or go to http://www.opensource.org/licenses/mit-license.php for full license details.
+ */
+
+package dev.sgora.observetree.settable;
+
+import dev.sgora.observetree.BooleanProperty;
+import dev.sgora.observetree.ComputedProperty;
+import dev.sgora.observetree.IntProperty;
+import dev.sgora.observetree.SettableProperty;
+import dev.sgora.observetree.TestBase;
+import dev.sgora.observetree.model.TestObservable;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class ComputedPropertyTest extends TestBase {
+	private static final int OTHER_VALUE = 5;
+
+	private IntProperty first;
+	private SettableProperty<Integer> second;
+	private ComputedProperty<Integer> sum;
+	private int computations;
+
+	@Before
+	public void prepareObjects() {
+		super.prepareObjects();
+		first = new IntProperty(1);
+		second = new SettableProperty<>(2);
+		computations = 0;
+		sum = new ComputedProperty<>(() -> {
+			computations++;
+			return first.getAsInt() + second.get();
+		});
+	}
+
+	@Test
+	public void whenValueIsNotRead_itIsNotComputed() {
+		first.set(VALUE_TO_SET);
+
+		assertEquals(0, computations);
+		assertTrue(sum.isStale());
+	}
+
+	@Test
+	public void whenValueIsReadRepeatedly_itIsComputedOnce() {
+		assertEquals(3, (int) sum.get());
+		assertEquals(3, (int) sum.get());
+
+		assertEquals(1, computations);
+		assertEquals(Set.of(first, second), sum.getDependencies());
+	}
+
+	@Test
+	public void whenDependencyChanges_valueIsRecomputedOnRead() {
+		sum.get();
+		first.set(VALUE_TO_SET);
+
+		assertTrue(sum.isStale());
+		assertEquals(1, computations);
+		assertEquals(4, (int) sum.get());
+		assertEquals(2, computations);
+	}
+
+	@Test
+	public void whenDependencyChangesAgainBeforeNotification_valueIsStaleAgain() {
+		sum.get();
+		first.set(VALUE_TO_SET);
+		sum.get();
+
+		second.set(OTHER_VALUE);
+		assertTrue(sum.isStale());
+		assertEquals(VALUE_TO_SET + OTHER_VALUE, (int) sum.get());
+	}
+
+	@Test
+	public void whenDependencyIsNotified_listenersOfComputedPropertyAreCalled() {
+		sum.addListener(listener);
+		sum.get();
+
+		second.setAndNotify(OTHER_VALUE);
+		verifyListenerCalled(listener, 1);
+	}
+
+	@Test
+	public void whenComputationReadsOtherDependencies_theOldOnesAreUnlinked() {
+		BooleanProperty useFirst = new BooleanProperty(true);
+		ComputedProperty<Integer> selected = new ComputedProperty<>(() -> useFirst.getAsBoolean() ? first.getAsInt() : second.get());
+		selected.get();
+
+		useFirst.set(false);
+		assertEquals(2, (int) selected.get());
+		assertEquals(Set.of(useFirst, second), selected.getDependencies());
+		assertFalse(first.getParents().contains(selected));
+
+		first.set(VALUE_TO_SET);
+		assertFalse(selected.isStale());
+	}
+
+	@Test
+	public void whenComputedPropertiesAreChained_changesReachTheOuterOne() {
+		ComputedProperty<Integer> doubled = new ComputedProperty<>(() -> sum.get() * 2);
+		assertEquals(6, (int) doubled.get());
+
+		first.set(VALUE_TO_SET);
+		assertTrue(doubled.isStale());
+		assertEquals(8, (int) doubled.get());
+		assertEquals(Set.of(sum), doubled.getDependencies());
+	}
+
+	@Test
+	public void whenDisposed_dependenciesAreUnlinked() {
+		sum.get();
+		sum.dispose();
+
+		assertTrue(first.getParents().isEmpty());
+		assertTrue(second.getParents().isEmpty());
+	}
+
+	@Test
+	public void whenComputedPropertyIsNotified_changedDependenciesAreNotifiedOnce() {
+		TestObservable model = new TestObservable();
+		model.addSubObservable(first);
+		first.addListener(listener);
+		sum.get();
+
+		first.set(VALUE_TO_SET);
+		sum.notifyListeners();
+		verifyListenerCalled(listener, 1);
+		assertFalse(first.isValueChanged());
+		assertTrue(model.isValueChanged());
+
+		model.notifyListeners();
+		verifyListenerCalled(listener, 1);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void whenComputationReadsItself_exceptionIsThrown() {
+		AtomicReference<ComputedProperty<Integer>> self = new AtomicReference<>();
+		self.set(new ComputedProperty<>(() -> self.get().get()));
+		self.get().get();
+	}
+}
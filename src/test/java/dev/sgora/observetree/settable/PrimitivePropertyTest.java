@@ -0,0 +1,81 @@
+package dev.sgora.observetree.settable;
+
+import dev.sgora.observetree.BooleanProperty;
+import dev.sgora.observetree.DoubleProperty;
+import dev.sgora.observetree.IntProperty;
+import dev.sgora.observetree.LongProperty;
+import dev.sgora.observetree.TestBase;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PrimitivePropertyTest extends TestBase {
+
+	@Test
+	public void whenIntPropertyIsSet_theListenersGetCalled() {
+		IntProperty property = new IntProperty();
+		property.addListener(listener);
+
+		property.setAndNotify(VALUE_TO_SET);
+
+		assertEquals(VALUE_TO_SET, property.getAsInt());
+		verifyListenerCalled(listener, 1);
+	}
+
+	@Test
+	public void whenIntPropertyIsSetButEqual_noListenersGetCalled() {
+		IntProperty property = new IntProperty(VALUE_TO_SET);
+		property.addListener(listener);
+
+		property.setAndNotify(VALUE_TO_SET);
+
+		verifyListenerCalled(listener, 0);
+	}
+
+	@Test
+	public void whenLongPropertyIsModified_itIsMarkedAsChanged() {
+		LongProperty property = new LongProperty(1);
+
+		property.modify(value -> value + Integer.MAX_VALUE);
+
+		assertEquals(1L + Integer.MAX_VALUE, property.getAsLong());
+		assertTrue(property.isValueChanged());
+	}
+
+	@Test
+	public void doublePropertyComparesValuesLikeBoxedDouble() {
+		DoubleProperty property = new DoubleProperty(Double.NaN);
+
+		property.set(Double.NaN);
+		assertFalse(property.isValueChanged());
+
+		property.set(0.0);
+		property.setUnchanged(false);
+		property.set(-0.0);
+		assertTrue(property.isValueChanged());
+	}
+
+	@Test
+	public void whenBooleanPropertyIsToggled_theListenersGetCalled() {
+		BooleanProperty property = new BooleanProperty();
+		property.addListener(listener);
+
+		property.toggle();
+		property.notifyListeners();
+
+		assertTrue(property.getAsBoolean());
+		verifyListenerCalled(listener, 1);
+	}
+
+	@Test
+	public void testDefaultValues() {
+		IntProperty property = new IntProperty(VALUE_TO_SET);
+		property.saveAsDefaultValue();
+		property.set(0);
+
+		property.resetToDefaultValue();
+
+		assertEquals(VALUE_TO_SET, property.getDefaultValue());
+		assertEquals(VALUE_TO_SET, property.getAsInt());
+	}
+}
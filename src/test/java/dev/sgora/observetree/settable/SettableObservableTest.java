@@ -7,12 +7,19 @@
 
 package dev.sgora.observetree.settable;
 
+import dev.sgora.observetree.SettableObservable;
+import dev.sgora.observetree.SettableProperty;
 import dev.sgora.observetree.TestBase;
 import dev.sgora.observetree.model.SettableTestObservable;
 import dev.sgora.observetree.model.TestObservable;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.Collections;
 
 import static org.junit.Assert.assertEquals;
@@ -94,4 +101,22 @@ public class SettableObservableTest extends TestBase {
 
 		verifyListenerCalled(listener, 1);
 	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void whenDeserialized_staticListenersCanBeAdded() throws IOException, ClassNotFoundException {
+		SettableObservable<SettableProperty<Integer>> serialized = new SettableObservable<>(new SettableProperty<>(0));
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(serialized);
+		}
+		SettableObservable<SettableProperty<Integer>> deserialized;
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			deserialized = (SettableObservable<SettableProperty<Integer>>) in.readObject();
+		}
+
+		deserialized.addStaticListener(listener);
+		deserialized.get().setAndNotify(VALUE_TO_SET);
+		verifyListenerCalled(listener, 1);
+	}
 }
@@ -1,5 +1,6 @@
 package dev.sgora.observetree.settable;
 
+import dev.sgora.observetree.EqualityStrategy;
 import dev.sgora.observetree.SettableProperty;
 import dev.sgora.observetree.TestBase;
 import org.junit.Before;
@@ -72,4 +73,43 @@ public class SettablePropertyTest extends TestBase {
 		settableInt.resetToDefaultValue();
 		assertEquals(VALUE_TO_SET, (int) settableInt.get());
 	}
+
+	@Test
+	public void whenCurrentValueIsNull_settingItIsChange() {
+		settableInt.set(null);
+		settableInt.setUnchanged(false);
+
+		settableInt.set(null);
+		assertFalse(settableInt.isValueChanged());
+		settableInt.set(VALUE_TO_SET);
+		assertTrue(settableInt.isValueChanged());
+	}
+
+	@Test
+	public void whenIdentityStrategyIsSet_equalInstancesAreChanges() {
+		SettableProperty<String> property = new SettableProperty<>("value");
+		property.setEqualityStrategy(EqualityStrategy.identity());
+
+		property.set(new String("value"));
+		assertTrue(property.isValueChanged());
+	}
+
+	@Test
+	public void whenAlwaysChangedStrategyIsSet_sameValueIsChange() {
+		settableInt.setEqualityStrategy(EqualityStrategy.alwaysChanged());
+
+		settableInt.set(0);
+		assertTrue(settableInt.isValueChanged());
+	}
+
+	@Test
+	public void whenComparatorStrategyIsSet_comparedValuesAreEqual() {
+		SettableProperty<String> property = new SettableProperty<>("value");
+		property.setEqualityStrategy(EqualityStrategy.comparing(String.CASE_INSENSITIVE_ORDER));
+
+		property.set("VALUE");
+		assertFalse(property.isValueChanged());
+		property.set(null);
+		assertTrue(property.isValueChanged());
+	}
 }
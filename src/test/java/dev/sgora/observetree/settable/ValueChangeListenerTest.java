@@ -0,0 +1,83 @@
+package dev.sgora.observetree.settable;
+
+import dev.sgora.observetree.SettableProperty;
+import dev.sgora.observetree.TestBase;
+import dev.sgora.observetree.enums.ListenerNotification;
+import dev.sgora.observetree.enums.ListenerPriority;
+import dev.sgora.observetree.listener.ValueChangeListener;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ValueChangeListenerTest extends TestBase {
+	private SettableProperty<Integer> property;
+	private final List<String> calls = new ArrayList<>();
+	private final ValueChangeListener<Integer> valueListener = (oldValue, newValue) -> calls.add(oldValue + "->" + newValue);
+
+	@Before
+	public void prepareObjects() {
+		super.prepareObjects();
+		property = new SettableProperty<>(0);
+	}
+
+	@Test
+	public void whenValueIsSet_oldAndNewValuesArePassed() {
+		property.addValueListener(valueListener);
+
+		property.setAndNotify(1);
+		property.setAndNotify(VALUE_TO_SET);
+
+		assertEquals(List.of("0->1", "1->2"), calls);
+	}
+
+	@Test
+	public void whenValueIsSetManyTimesBeforeNotification_changesAreCoalesced() {
+		property.addValueListener(valueListener);
+
+		property.set(1);
+		property.set(5);
+		property.set(VALUE_TO_SET);
+		property.notifyListeners();
+
+		assertEquals(List.of("0->2"), calls);
+	}
+
+	@Test
+	public void whenChangesAreDiscarded_theyAreNotPassed() {
+		property.addValueListener(valueListener);
+
+		property.set(1);
+		property.setUnchanged(false);
+		property.setAndNotify(VALUE_TO_SET);
+
+		assertEquals(List.of("1->2"), calls);
+	}
+
+	@Test
+	public void valueListeners_areCalledInPriorityOrder() {
+		property.addListener(() -> calls.add("normal"));
+		property.addValueListener((oldValue, newValue) -> calls.add("high"), ListenerPriority.HIGH);
+		property.addValueListener((oldValue, newValue) -> calls.add("low"), ListenerPriority.LOW);
+		property.setNotificationMethod(ListenerNotification.AUTOMATIC);
+
+		property.set(VALUE_TO_SET);
+
+		assertEquals(List.of("high", "normal", "low"), calls);
+	}
+
+	@Test
+	public void whenValueListenerIsRemoved_itIsNotCalled() {
+		assertTrue(property.addValueListener(valueListener));
+		assertFalse(property.addValueListener(valueListener));
+
+		assertTrue(property.removeValueListener(valueListener));
+		property.setAndNotify(VALUE_TO_SET);
+
+		assertTrue(calls.isEmpty());
+		assertFalse(property.removeValueListener(valueListener));
+	}
+}